@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.milvus.client.exception.ClientSideMilvusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups small inserts into server-sized batches on top of {@link MilvusClient#insertAsync}.
+ *
+ * <p>Inserts going to the same collection and partition with the same fields are buffered and
+ * sent as one request once the batch reaches <code>maxBatchRows</code> rows or
+ * <code>maxBatchBytes</code> bytes, or when its oldest insert has waited <code>linger</code>.
+ * At most <code>maxInFlight</code> batches are outstanding at a time; further batches are queued,
+ * and a producer whose insert completes a batch blocks until that batch is sent. Linger timers
+ * only queue their batch, so they never block the scheduler.</p>
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * BulkInserter inserter = new BulkInserter.Builder(client)
+ *                                         .withMaxBatchRows(10000)
+ *                                         .withLinger(100, TimeUnit.MILLISECONDS)
+ *                                         .build();
+ * ListenableFuture&lt;List&lt;Long&gt;&gt; ids = inserter.insert(insertParam);
+ * ...
+ * inserter.close();
+ * </code>
+ * </pre>
+ */
+public class BulkInserter implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(BulkInserter.class);
+
+  private final MilvusClient client;
+  private final int maxBatchRows;
+  private final long maxBatchBytes;
+  private final long lingerNanos;
+  private final Semaphore inFlight;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+  private final Map<String, Batch> batches = new HashMap<>();
+  // batches detached but not yet sent, in the order they were detached
+  private final Deque<Batch> queued = new ArrayDeque<>();
+  private final Set<ListenableFuture<?>> outstanding = ConcurrentHashMap.newKeySet();
+  private boolean closed;
+  private boolean draining;
+
+  private BulkInserter(@Nonnull Builder builder) {
+    this.client = builder.client;
+    this.maxBatchRows = builder.maxBatchRows;
+    this.maxBatchBytes = builder.maxBatchBytes;
+    this.lingerNanos = builder.lingerNanos;
+    this.inFlight = new Semaphore(builder.maxInFlight);
+    this.ownScheduler = builder.scheduler == null;
+    this.scheduler = ownScheduler
+        ? Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("milvus-bulk-inserter-%d").build())
+        : builder.scheduler;
+  }
+
+  /**
+   * Adds <code>insertParam</code> to the batch for its collection, partition and fields. Blocks if
+   * this completes a batch until the batch is sent, which waits for a free slot when
+   * <code>maxInFlight</code> batches are already outstanding.
+   *
+   * @param insertParam the rows to insert
+   * @return a <code>ListenableFuture</code> holding the ids of the rows of <code>insertParam</code>
+   */
+  public ListenableFuture<List<Long>> insert(@Nonnull InsertParam insertParam) {
+    if (insertParam.getRowCount() == 0) {
+      return Futures.immediateFuture(Collections.emptyList());
+    }
+    SettableFuture<List<Long>> result = SettableFuture.create();
+    List<Batch> ready = new ArrayList<>(2);
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("BulkInserter is closed");
+      }
+      String key = insertParam.mergeKey();
+      Batch batch = batches.get(key);
+      int rows = insertParam.getRowCount();
+      long bytes = insertParam.getSerializedSize();
+      if (batch != null && (batch.rows + rows > maxBatchRows || batch.bytes + bytes > maxBatchBytes)) {
+        ready.add(detach(key));
+        batch = null;
+      }
+      if (batch == null) {
+        batch = new Batch(key);
+        batches.put(key, batch);
+        Batch lingering = batch;
+        batch.lingerTimer = scheduler.schedule(() -> flush(lingering), lingerNanos, TimeUnit.NANOSECONDS);
+      }
+      batch.add(insertParam, result);
+      if (batch.rows >= maxBatchRows || batch.bytes >= maxBatchBytes) {
+        ready.add(detach(key));
+      }
+    }
+    if (!ready.isEmpty()) {
+      drain();
+      try {
+        for (Batch batch : ready) {
+          batch.sent.get();
+        }
+      } catch (InterruptedException e) {
+        // the batches stay queued and are sent once a slot is free
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // not thrown: sent is only ever set
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sends all buffered rows now.
+   *
+   * @return a <code>ListenableFuture</code> which completes when every batch sent or queued so far
+   *     has completed, successfully or not
+   */
+  public ListenableFuture<Void> flush() {
+    synchronized (this) {
+      for (String key : new ArrayList<>(batches.keySet())) {
+        detach(key);
+      }
+    }
+    drain();
+    return Futures.whenAllComplete(outstanding).call(() -> null, MoreExecutors.directExecutor());
+  }
+
+  /** Sends all buffered rows and waits for every outstanding batch to complete. */
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    try {
+      flush().get();
+    } catch (InterruptedException e) {
+      logger.warn("BulkInserter close interrupted");
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // not thrown: batch failures are reported through the futures of their inserts
+    } finally {
+      if (ownScheduler) {
+        scheduler.shutdownNow();
+      }
+    }
+  }
+
+  private void flush(Batch batch) {
+    synchronized (this) {
+      if (batches.get(batch.key) != batch) {
+        return;
+      }
+      detach(batch.key);
+    }
+    drain();
+  }
+
+  /** Moves the batch of <code>key</code> to the send queue, counting it as outstanding from now on. */
+  private Batch detach(String key) {
+    Batch batch = batches.remove(key);
+    batch.lingerTimer.cancel(false);
+    outstanding.add(batch.done);
+    batch.done.addListener(() -> outstanding.remove(batch.done), MoreExecutors.directExecutor());
+    queued.add(batch);
+    return batch;
+  }
+
+  /**
+   * Sends queued batches while slots are free. Only one thread drains at a time; a slot freed
+   * meanwhile is picked up by the draining thread, so responses completing inline do not recurse.
+   */
+  private void drain() {
+    synchronized (this) {
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    while (true) {
+      Batch batch;
+      synchronized (this) {
+        if (queued.isEmpty() || !inFlight.tryAcquire()) {
+          draining = false;
+          return;
+        }
+        batch = queued.poll();
+      }
+      send(batch);
+    }
+  }
+
+  /** Sends <code>batch</code> over a slot already acquired. */
+  private void send(Batch batch) {
+    batch.sent.set(null);
+    ListenableFuture<List<Long>> response;
+    try {
+      response = client.insertAsync(InsertParam.merge(batch.insertParams));
+    } catch (Throwable t) {
+      inFlight.release();
+      batch.fail(t);
+      return;
+    }
+    Futures.addCallback(response, new FutureCallback<List<Long>>() {
+      @Override
+      public void onSuccess(List<Long> entityIds) {
+        try {
+          if (entityIds.size() != batch.rows) {
+            batch.fail(new ClientSideMilvusException(client.target(), "Expected ids of "
+                + batch.rows + " rows in a batched insert, got " + entityIds.size()));
+            return;
+          }
+          int offset = 0;
+          for (int i = 0; i < batch.insertParams.size(); i++) {
+            int rows = batch.insertParams.get(i).getRowCount();
+            batch.results.get(i).set(entityIds.subList(offset, offset + rows));
+            offset += rows;
+          }
+          batch.done.set(null);
+        } finally {
+          release();
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        try {
+          batch.fail(t);
+        } finally {
+          release();
+        }
+      }
+
+      private void release() {
+        inFlight.release();
+        drain();
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private static class Batch {
+    final String key;
+    final List<InsertParam> insertParams = new ArrayList<>();
+    final List<SettableFuture<List<Long>>> results = new ArrayList<>();
+    // set once the batch is handed to the client, and once its response has completed
+    final SettableFuture<Void> sent = SettableFuture.create();
+    final SettableFuture<Void> done = SettableFuture.create();
+    ScheduledFuture<?> lingerTimer;
+    int rows;
+    long bytes;
+
+    Batch(String key) {
+      this.key = key;
+    }
+
+    void add(InsertParam insertParam, SettableFuture<List<Long>> result) {
+      insertParams.add(insertParam);
+      results.add(result);
+      rows += insertParam.getRowCount();
+      bytes += insertParam.getSerializedSize();
+    }
+
+    void fail(Throwable t) {
+      results.forEach(result -> result.setException(t));
+      done.set(null);
+    }
+  }
+
+  /** Builder for <code>BulkInserter</code> */
+  public static class Builder {
+    private final MilvusClient client;
+    // Optional parameters - initialized to default values
+    private int maxBatchRows = 10000;
+    private long maxBatchBytes = 32L * 1024 * 1024;
+    private long lingerNanos = TimeUnit.MILLISECONDS.toNanos(50);
+    private int maxInFlight = 4;
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * @param client the client to send batches with
+     */
+    public Builder(@Nonnull MilvusClient client) {
+      this.client = client;
+    }
+
+    /**
+     * Optional. Defaults to 10000.
+     *
+     * @param maxBatchRows a batch is sent once it holds this many rows
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxBatchRows(int maxBatchRows) throws IllegalArgumentException {
+      if (maxBatchRows <= 0) {
+        throw new IllegalArgumentException("Max batch rows must be positive!");
+      }
+      this.maxBatchRows = maxBatchRows;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 32 MiB. Keep this below the message size limit of the server.
+     *
+     * @param maxBatchBytes a batch is sent once its request would be this many bytes
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxBatchBytes(long maxBatchBytes) throws IllegalArgumentException {
+      if (maxBatchBytes <= 0L) {
+        throw new IllegalArgumentException("Max batch bytes must be positive!");
+      }
+      this.maxBatchBytes = maxBatchBytes;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 50 milliseconds.
+     *
+     * @param linger a batch is sent at the latest this long after its first insert was added
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withLinger(long linger, @Nonnull TimeUnit timeUnit) throws IllegalArgumentException {
+      if (linger < 0L) {
+        throw new IllegalArgumentException("Linger must not be negative!");
+      }
+      this.lingerNanos = timeUnit.toNanos(linger);
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 4.
+     *
+     * @param maxInFlight the maximum number of batches awaiting a response
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxInFlight(int maxInFlight) throws IllegalArgumentException {
+      if (maxInFlight <= 0) {
+        throw new IllegalArgumentException("Max in-flight batches must be positive!");
+      }
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to a single daemon thread owned by the <code>BulkInserter</code>.
+     *
+     * @param scheduler the executor running linger timers
+     * @return <code>Builder</code>
+     */
+    public Builder withScheduler(@Nonnull ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    public BulkInserter build() {
+      return new BulkInserter(this);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.milvus.grpc.MilvusServiceGrpc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stripes calls over several channels to the same target, each with its own connections. With
+ * inserts pinned, the first channel carries only inserts and the others everything else, so that
+ * large insert messages do not hold up searches.
+ */
+class ChannelPool extends ManagedChannel {
+  private static final String INSERT_METHOD_NAME = MilvusServiceGrpc.getInsertMethod().getFullMethodName();
+
+  private final List<ManagedChannel> channels;
+  private final ConnectParam.ChannelSelection selection;
+  private final boolean pinInserts;
+  private final AtomicIntegerArray inFlight;
+  private final AtomicInteger next = new AtomicInteger();
+
+  ChannelPool(List<ManagedChannel> channels, ConnectParam.ChannelSelection selection, boolean pinInserts) {
+    this.channels = channels;
+    this.selection = selection;
+    this.pinInserts = pinInserts && channels.size() > 1;
+    this.inFlight = new AtomicIntegerArray(channels.size());
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+    int index = select(method);
+    ClientCall<ReqT, RespT> call = channels.get(index).newCall(method, callOptions);
+    if (selection != ConnectParam.ChannelSelection.LEAST_IN_FLIGHT) {
+      return call;
+    }
+    return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(call) {
+      @Override
+      public void start(Listener<RespT> responseListener, Metadata headers) {
+        inFlight.incrementAndGet(index);
+        try {
+          super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+              inFlight.decrementAndGet(index);
+              super.onClose(status, trailers);
+            }
+          }, headers);
+        } catch (RuntimeException e) {
+          inFlight.decrementAndGet(index);
+          throw e;
+        }
+      }
+    };
+  }
+
+  /** @return the index of the channel for a call of <code>method</code> */
+  private int select(MethodDescriptor<?, ?> method) {
+    int first = 0;
+    int count = channels.size();
+    if (pinInserts) {
+      if (method.getFullMethodName().equals(INSERT_METHOD_NAME)) {
+        return 0;
+      }
+      first = 1;
+      count--;
+    }
+    int start = first + Math.floorMod(next.getAndIncrement(), count);
+    if (selection == ConnectParam.ChannelSelection.ROUND_ROBIN) {
+      return start;
+    }
+    // the least loaded channel, scanning from a rotating start to spread ties
+    int best = start;
+    for (int i = 1; i < count; i++) {
+      int index = first + (start - first + i) % count;
+      if (inFlight.get(index) < inFlight.get(best)) {
+        best = index;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public String authority() {
+    return channels.get(0).authority();
+  }
+
+  @Override
+  public ManagedChannel shutdown() {
+    channels.forEach(ManagedChannel::shutdown);
+    return this;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return channels.stream().allMatch(ManagedChannel::isShutdown);
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return channels.stream().allMatch(ManagedChannel::isTerminated);
+  }
+
+  @Override
+  public ManagedChannel shutdownNow() {
+    channels.forEach(ManagedChannel::shutdownNow);
+    return this;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (ManagedChannel channel : channels) {
+      if (!channel.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.milvus.grpc.AttrRecord;
+import io.milvus.grpc.Entities;
+import io.milvus.grpc.FieldValue;
+import io.milvus.grpc.VectorRecord;
+import io.milvus.grpc.VectorRowRecord;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entities returned by <code>getEntityByIDColumnar</code>, stored by column in primitive arrays.
+ *
+ * <p>Row <code>i</code> is the entity with the <code>i</code>-th requested id. Rows of ids which
+ * were not found are invalid and hold zeros. Scalar fields are arrays indexed by row; vector fields
+ * are flat arrays holding the vector of row <code>i</code> at <code>i * dimension</code>.</p>
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * ColumnarEntities entities = client.getEntityByIDColumnar(collectionName, ids, fieldNames);
+ * ColumnarEntities.Row row = entities.row();
+ * for (int i = 0; i &lt; entities.size(); i++) {
+ *   if (entities.isValid(i)) {
+ *     long value = row.moveTo(i).getLong("int64");
+ *   }
+ * }
+ * </code>
+ * </pre>
+ */
+public class ColumnarEntities {
+  private final long[] ids;
+  private final BitSet validRows;
+  private final Map<String, Column> columns;
+
+  private ColumnarEntities(long[] ids, BitSet validRows, Map<String, Column> columns) {
+    this.ids = ids;
+    this.validRows = validRows;
+    this.columns = columns;
+  }
+
+  /** Decodes the response to a <code>GetEntityByID</code> request for <code>ids</code>. */
+  static ColumnarEntities of(List<Long> ids, Entities response) {
+    int size = ids.size();
+    long[] idArray = new long[size];
+    BitSet validRows = new BitSet(size);
+    // the rows of the field values are the valid rows only
+    int[] validRowNumbers = new int[response.getValidRowCount()];
+    int validCount = 0;
+    for (int i = 0; i < size; i++) {
+      idArray[i] = ids.get(i);
+      if (i < response.getValidRowCount() && response.getValidRow(i)) {
+        validRows.set(i);
+        validRowNumbers[validCount++] = i;
+      }
+    }
+    Map<String, Column> columns = new LinkedHashMap<>();
+    for (FieldValue fieldValue : response.getFieldsList()) {
+      columns.put(fieldValue.getFieldName(), Column.decode(fieldValue, size, validRowNumbers, validCount));
+    }
+    return new ColumnarEntities(idArray, validRows, columns);
+  }
+
+  /**
+   * Combines entities fetched in parts into one, where row <code>j</code> of part <code>i</code>
+   * becomes row <code>rowsOfParts.get(i)[j]</code>.
+   */
+  static ColumnarEntities gather(int size, List<ColumnarEntities> parts, List<int[]> rowsOfParts) {
+    long[] ids = new long[size];
+    BitSet validRows = new BitSet(size);
+    // a part without valid rows has vector columns of width 0, so the first part whose column
+    // has a width decides the shape of the gathered column
+    Map<String, Column> columns = new LinkedHashMap<>();
+    for (ColumnarEntities part : parts) {
+      for (Map.Entry<String, Column> entry : part.columns.entrySet()) {
+        Column column = columns.get(entry.getKey());
+        if (column == null || (column.width == 0 && entry.getValue().width > 0)) {
+          columns.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    columns.replaceAll((name, column) -> column.empty(size));
+    for (int i = 0; i < parts.size(); i++) {
+      ColumnarEntities part = parts.get(i);
+      int[] rows = rowsOfParts.get(i);
+      for (int j = 0; j < rows.length; j++) {
+        ids[rows[j]] = part.ids[j];
+        if (part.validRows.get(j)) {
+          validRows.set(rows[j]);
+        }
+      }
+      for (Map.Entry<String, Column> entry : part.columns.entrySet()) {
+        if (entry.getValue().width > 0) {
+          entry.getValue().scatterTo(columns.get(entry.getKey()), rows);
+        }
+      }
+    }
+    return new ColumnarEntities(ids, validRows, columns);
+  }
+
+  /** @return the number of requested ids */
+  public int size() {
+    return ids.length;
+  }
+
+  public long getId(int row) {
+    return ids[row];
+  }
+
+  /** @return whether an entity was found for the id of <code>row</code> */
+  public boolean isValid(int row) {
+    return validRows.get(row);
+  }
+
+  /** @return a copy of the set of valid rows */
+  public BitSet getValidRows() {
+    return (BitSet) validRows.clone();
+  }
+
+  public List<String> getFieldNames() {
+    return new ArrayList<>(columns.keySet());
+  }
+
+  /** @return the type of <code>fieldName</code>, or <code>null</code> if it was not returned */
+  public DataType getFieldType(String fieldName) {
+    Column column = columns.get(fieldName);
+    return column == null ? null : column.type;
+  }
+
+  public int[] getInt32Column(String fieldName) {
+    return (int[]) column(fieldName, DataType.INT32).values;
+  }
+
+  public long[] getInt64Column(String fieldName) {
+    return (long[]) column(fieldName, DataType.INT64).values;
+  }
+
+  public float[] getFloatColumn(String fieldName) {
+    return (float[]) column(fieldName, DataType.FLOAT).values;
+  }
+
+  public double[] getDoubleColumn(String fieldName) {
+    return (double[]) column(fieldName, DataType.DOUBLE).values;
+  }
+
+  /** @return the float vectors of all rows, one after another */
+  public float[] getFloatVectorColumn(String fieldName) {
+    return (float[]) column(fieldName, DataType.VECTOR_FLOAT).values;
+  }
+
+  /** @return the binary vectors of all rows, one after another */
+  public ByteBuffer getBinaryVectorColumn(String fieldName) {
+    return ByteBuffer.wrap((byte[]) column(fieldName, DataType.VECTOR_BINARY).values).asReadOnlyBuffer();
+  }
+
+  /** @return the number of floats or bytes in each vector of <code>fieldName</code> */
+  public int getDimension(String fieldName) {
+    Column column = columns.get(fieldName);
+    if (column == null) {
+      throw new IllegalArgumentException("Field " + fieldName + " was not returned");
+    }
+    return column.width;
+  }
+
+  /** @return a cursor reading the fields of one row at a time */
+  public Row row() {
+    return new Row();
+  }
+
+  private Column column(String fieldName, DataType type) {
+    Column column = columns.get(fieldName);
+    if (column == null) {
+      throw new IllegalArgumentException("Field " + fieldName + " was not returned");
+    }
+    if (column.type != type) {
+      throw new IllegalArgumentException("Field " + fieldName + " is of type " + column.type + ", not " + type);
+    }
+    return column;
+  }
+
+  /** A movable view of one row, so that reading many rows allocates nothing per row. */
+  public class Row {
+    private int row;
+
+    private Row() {
+    }
+
+    public Row moveTo(int row) {
+      if (row < 0 || row >= ids.length) {
+        throw new IndexOutOfBoundsException("Row " + row + " of " + ids.length);
+      }
+      this.row = row;
+      return this;
+    }
+
+    public long getId() {
+      return ids[row];
+    }
+
+    public boolean isValid() {
+      return validRows.get(row);
+    }
+
+    public int getInt(String fieldName) {
+      return getInt32Column(fieldName)[row];
+    }
+
+    public long getLong(String fieldName) {
+      return getInt64Column(fieldName)[row];
+    }
+
+    public float getFloat(String fieldName) {
+      return getFloatColumn(fieldName)[row];
+    }
+
+    public double getDouble(String fieldName) {
+      return getDoubleColumn(fieldName)[row];
+    }
+
+    /** @return a read-only view of the float vector of this row */
+    public FloatBuffer getFloatVector(String fieldName) {
+      int dimension = getDimension(fieldName);
+      return FloatBuffer.wrap(getFloatVectorColumn(fieldName), row * dimension, dimension).slice().asReadOnlyBuffer();
+    }
+
+    /** Copies the float vector of this row into <code>vector</code>. */
+    public void copyFloatVector(String fieldName, float[] vector) {
+      int dimension = getDimension(fieldName);
+      System.arraycopy(getFloatVectorColumn(fieldName), row * dimension, vector, 0, dimension);
+    }
+
+    /** @return a read-only view of the binary vector of this row */
+    public ByteBuffer getBinaryVector(String fieldName) {
+      int dimension = getDimension(fieldName);
+      byte[] values = (byte[]) column(fieldName, DataType.VECTOR_BINARY).values;
+      return ByteBuffer.wrap(values, row * dimension, dimension).slice().asReadOnlyBuffer();
+    }
+  }
+
+  /** A primitive array holding <code>width</code> values per row. */
+  private static class Column {
+    final DataType type;
+    final int width;
+    final Object values;
+
+    Column(DataType type, int width, Object values) {
+      this.type = type;
+      this.width = width;
+      this.values = values;
+    }
+
+    Column empty(int size) {
+      return new Column(type, width, java.lang.reflect.Array.newInstance(values.getClass().getComponentType(), size * width));
+    }
+
+    void scatterTo(Column target, int[] rows) {
+      for (int i = 0; i < rows.length; i++) {
+        System.arraycopy(values, i * width, target.values, rows[i] * width, width);
+      }
+    }
+
+    static Column decode(FieldValue fieldValue, int size, int[] rows, int count) {
+      AttrRecord attrRecord = fieldValue.getAttrRecord();
+      if (attrRecord.getInt32ValueCount() > 0) {
+        int[] values = new int[size];
+        for (int i = 0; i < count; i++) {
+          values[rows[i]] = attrRecord.getInt32Value(i);
+        }
+        return new Column(DataType.INT32, 1, values);
+      } else if (attrRecord.getInt64ValueCount() > 0) {
+        long[] values = new long[size];
+        for (int i = 0; i < count; i++) {
+          values[rows[i]] = attrRecord.getInt64Value(i);
+        }
+        return new Column(DataType.INT64, 1, values);
+      } else if (attrRecord.getFloatValueCount() > 0) {
+        float[] values = new float[size];
+        for (int i = 0; i < count; i++) {
+          values[rows[i]] = attrRecord.getFloatValue(i);
+        }
+        return new Column(DataType.FLOAT, 1, values);
+      } else if (attrRecord.getDoubleValueCount() > 0) {
+        double[] values = new double[size];
+        for (int i = 0; i < count; i++) {
+          values[rows[i]] = attrRecord.getDoubleValue(i);
+        }
+        return new Column(DataType.DOUBLE, 1, values);
+      }
+      VectorRecord vectorRecord = fieldValue.getVectorRecord();
+      if (vectorRecord.getRecordsCount() > 0 && vectorRecord.getRecords(0).getBinaryData().isEmpty()) {
+        int dimension = vectorRecord.getRecords(0).getFloatDataCount();
+        float[] values = new float[size * dimension];
+        for (int i = 0; i < count; i++) {
+          VectorRowRecord record = vectorRecord.getRecords(i);
+          for (int j = 0; j < dimension; j++) {
+            values[rows[i] * dimension + j] = record.getFloatData(j);
+          }
+        }
+        return new Column(DataType.VECTOR_FLOAT, dimension, values);
+      } else if (vectorRecord.getRecordsCount() > 0) {
+        int dimension = vectorRecord.getRecords(0).getBinaryData().size();
+        byte[] values = new byte[size * dimension];
+        for (int i = 0; i < count; i++) {
+          vectorRecord.getRecords(i).getBinaryData().copyTo(values, rows[i] * dimension);
+        }
+        return new Column(DataType.VECTOR_BINARY, dimension, values);
+      }
+      // no valid rows: an empty column of the declared type
+      DataType type = DataType.valueOf(fieldValue.getTypeValue());
+      switch (type) {
+        case BOOL:
+        case INT8:
+        case INT16:
+        case INT32:
+          // these are all sent as int32 values, and decoded as such when there are valid rows
+          return new Column(DataType.INT32, 1, new int[size]);
+        case INT64:
+          return new Column(type, 1, new long[size]);
+        case FLOAT:
+          return new Column(type, 1, new float[size]);
+        case DOUBLE:
+          return new Column(type, 1, new double[size]);
+        case VECTOR_BINARY:
+          return new Column(type, 0, new byte[0]);
+        case VECTOR_FLOAT:
+          return new Column(type, 0, new float[0]);
+        default:
+          // no values to read, whatever the type
+          return new Column(type, 0, new byte[0]);
+      }
+    }
+  }
+}
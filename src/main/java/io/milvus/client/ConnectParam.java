@@ -20,8 +20,11 @@
 package io.milvus.client;
 
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /** Contains parameters for connecting to Milvus server */
@@ -33,6 +36,23 @@ public class ConnectParam {
   private final long keepAliveTimeoutNanos;
   private final boolean keepAliveWithoutCalls;
   private final long idleTimeoutNanos;
+  private final int maxRequestSize;
+  private final long searchCacheSize;
+  private final long searchCacheTtlNanos;
+  private final boolean searchSingleFlight;
+  private final long entityCacheSize;
+  private final long entityCacheTtlNanos;
+  private final int idChunkSize;
+  private final int channelCount;
+  private final ChannelSelection channelSelection;
+  private final boolean pinInserts;
+  private final EventLoopGroup eventLoopGroup;
+  private final Class<? extends Channel> channelType;
+  private final Executor executor;
+  private final boolean directExecutor;
+  private final int flowControlWindow;
+  private final int maxInboundMessageSize;
+  private final int maxConcurrentIdChunks;
 
   private ConnectParam(@Nonnull Builder builder) {
     this.target = builder.target != null ? builder.target : String.format("dns:///%s:%d", builder.host, builder.port);
@@ -42,6 +62,23 @@ public class ConnectParam {
     this.keepAliveTimeoutNanos = builder.keepAliveTimeoutNanos;
     this.keepAliveWithoutCalls = builder.keepAliveWithoutCalls;
     this.idleTimeoutNanos = builder.idleTimeoutNanos;
+    this.maxRequestSize = builder.maxRequestSize;
+    this.searchCacheSize = builder.searchCacheSize;
+    this.searchCacheTtlNanos = builder.searchCacheTtlNanos;
+    this.searchSingleFlight = builder.searchSingleFlight;
+    this.entityCacheSize = builder.entityCacheSize;
+    this.entityCacheTtlNanos = builder.entityCacheTtlNanos;
+    this.idChunkSize = builder.idChunkSize;
+    this.channelCount = builder.channelCount;
+    this.channelSelection = builder.channelSelection;
+    this.pinInserts = builder.pinInserts;
+    this.eventLoopGroup = builder.eventLoopGroup;
+    this.channelType = builder.channelType;
+    this.executor = builder.executor;
+    this.directExecutor = builder.directExecutor;
+    this.flowControlWindow = builder.flowControlWindow;
+    this.maxInboundMessageSize = builder.maxInboundMessageSize;
+    this.maxConcurrentIdChunks = builder.maxConcurrentIdChunks;
   }
 
   public String getTarget() {
@@ -72,6 +109,124 @@ public class ConnectParam {
     return timeUnit.convert(idleTimeoutNanos, TimeUnit.NANOSECONDS);
   }
 
+  public int getMaxRequestSize() {
+    return maxRequestSize;
+  }
+
+  public long getSearchCacheSize() {
+    return searchCacheSize;
+  }
+
+  public long getSearchCacheTtl(@Nonnull TimeUnit timeUnit) {
+    return timeUnit.convert(searchCacheTtlNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public boolean isSearchSingleFlight() {
+    return searchSingleFlight;
+  }
+
+  public long getEntityCacheSize() {
+    return entityCacheSize;
+  }
+
+  public long getEntityCacheTtl(@Nonnull TimeUnit timeUnit) {
+    return timeUnit.convert(entityCacheTtlNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public int getIdChunkSize() {
+    return idChunkSize;
+  }
+
+  public int getMaxConcurrentIdChunks() {
+    return maxConcurrentIdChunks;
+  }
+
+  public int getChannelCount() {
+    return channelCount;
+  }
+
+  public ChannelSelection getChannelSelection() {
+    return channelSelection;
+  }
+
+  public boolean isPinInserts() {
+    return pinInserts;
+  }
+
+  /** @return the event loop group set, or <code>null</code> for the default one */
+  public EventLoopGroup getEventLoopGroup() {
+    return eventLoopGroup;
+  }
+
+  /** @return the channel type set, or <code>null</code> for the default one */
+  public Class<? extends Channel> getChannelType() {
+    return channelType;
+  }
+
+  /** @return the executor set, or <code>null</code> for the default one */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public boolean isDirectExecutor() {
+    return directExecutor;
+  }
+
+  /** @return the flow-control window set, or 0 for the default one */
+  public int getFlowControlWindow() {
+    return flowControlWindow;
+  }
+
+  public int getMaxInboundMessageSize() {
+    return maxInboundMessageSize;
+  }
+
+  /** How a call picks one of the channels of a client */
+  public enum ChannelSelection {
+    /** Each call takes the next channel in turn */
+    ROUND_ROBIN,
+    /** Each call takes the channel with the fewest calls in flight */
+    LEAST_IN_FLIGHT
+  }
+
+  /**
+   * How calls are balanced over the servers a target resolves to. The latency-aware policies learn
+   * from the calls of the client itself: the number each server has outstanding, and the latency
+   * of those completed.
+   */
+  public enum LoadBalancingPolicy {
+    /** Calls go to one server, the first that connects */
+    PICK_FIRST("pick_first", false),
+    /** Calls go to each server in turn */
+    ROUND_ROBIN("round_robin", false),
+    /** Each call goes to the server with the fewest calls outstanding */
+    LEAST_REQUEST("milvus_least_request", true),
+    /**
+     * Each call goes to the server with the lowest expected latency: the peak-sensitive moving
+     * average of its latencies times its outstanding calls plus one
+     */
+    PEAK_EWMA("milvus_peak_ewma", true),
+    /** Each call goes to the one of two random servers with fewer calls outstanding */
+    POWER_OF_TWO_CHOICES("milvus_power_of_two_choices", true);
+
+    private final String policyName;
+    private final boolean latencyAware;
+
+    LoadBalancingPolicy(String policyName, boolean latencyAware) {
+      this.policyName = policyName;
+      this.latencyAware = latencyAware;
+    }
+
+    /** @return the name of the policy in the <code>LoadBalancerRegistry</code> */
+    public String getPolicyName() {
+      return policyName;
+    }
+
+    boolean isLatencyAware() {
+      return latencyAware;
+    }
+  }
+
   /** Builder for <code>ConnectParam</code> */
   public static class Builder {
     // Optional parameters - initialized to default values
@@ -84,6 +239,23 @@ public class ConnectParam {
     private long keepAliveTimeoutNanos = TimeUnit.NANOSECONDS.convert(20, TimeUnit.SECONDS);
     private boolean keepAliveWithoutCalls = false;
     private long idleTimeoutNanos = TimeUnit.NANOSECONDS.convert(24, TimeUnit.HOURS);
+    private int maxRequestSize = Integer.MAX_VALUE;
+    private long searchCacheSize = 0;
+    private long searchCacheTtlNanos = TimeUnit.NANOSECONDS.convert(1, TimeUnit.MINUTES);
+    private boolean searchSingleFlight = false;
+    private long entityCacheSize = 0;
+    private long entityCacheTtlNanos = TimeUnit.NANOSECONDS.convert(1, TimeUnit.MINUTES);
+    private int idChunkSize = Integer.MAX_VALUE;
+    private int maxConcurrentIdChunks = 8;
+    private int channelCount = 1;
+    private ChannelSelection channelSelection = ChannelSelection.ROUND_ROBIN;
+    private boolean pinInserts = false;
+    private EventLoopGroup eventLoopGroup = null;
+    private Class<? extends Channel> channelType = null;
+    private Executor executor = null;
+    private boolean directExecutor = false;
+    private int flowControlWindow = 0;
+    private int maxInboundMessageSize = Integer.MAX_VALUE;
 
     /**
      * Optional. Defaults to null. Will be used in precedence to host and port.
@@ -134,6 +306,16 @@ public class ConnectParam {
       return this;
     }
 
+    /**
+     * Optional. Defaults to <code>ROUND_ROBIN</code>.
+     *
+     * @param defaultLoadBalancingPolicy the default load-balancing policy
+     * @return <code>Builder</code>
+     */
+    public Builder withDefaultLoadBalancingPolicy(@Nonnull LoadBalancingPolicy defaultLoadBalancingPolicy) {
+      return withDefaultLoadBalancingPolicy(defaultLoadBalancingPolicy.getPolicyName());
+    }
+
     /**
      * Optional. Defaults to 10 seconds.
      *
@@ -225,6 +407,246 @@ public class ConnectParam {
       return this;
     }
 
+    /**
+     * Optional. Sets the largest insert or search request to send in one call. Larger requests are
+     * split by rows or by query vectors into sub-requests that run in parallel, and their results
+     * are reassembled in the original order. If one part of a split insert fails, the other parts
+     * may still have been inserted. Defaults to <code>Integer.MAX_VALUE</code>.
+     *
+     * @param maxRequestSize the size limit of a serialized request in bytes
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxRequestSize(int maxRequestSize) throws IllegalArgumentException {
+      if (maxRequestSize <= 0) {
+        throw new IllegalArgumentException("Max request size must be positive!");
+      }
+      this.maxRequestSize = maxRequestSize;
+      return this;
+    }
+
+    /**
+     * Optional. Caches up to <code>maximumSize</code> search results, least recently used first out,
+     * each for at most <code>ttl</code>. Searches are cached by their exact request, including the
+     * query vectors. The cached results of a collection are dropped whenever this client inserts
+     * into, deletes from, flushes, compacts, indexes or drops it; changes made by other clients are
+     * only seen once entries expire. Cached results are shared and must not be modified. Defaults
+     * to 0, which disables the cache.
+     *
+     * @param maximumSize the maximum number of cached search results
+     * @param ttl how long a result is cached
+     * @param timeUnit the unit of <code>ttl</code>
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withSearchCache(long maximumSize, long ttl, @Nonnull TimeUnit timeUnit)
+        throws IllegalArgumentException {
+      if (maximumSize < 0) {
+        throw new IllegalArgumentException("Search cache size must not be negative!");
+      }
+      if (ttl <= 0L) {
+        throw new IllegalArgumentException("Search cache TTL must be positive!");
+      }
+      this.searchCacheSize = maximumSize;
+      this.searchCacheTtlNanos = timeUnit.toNanos(ttl);
+      return this;
+    }
+
+    /**
+     * Optional. Lets identical concurrent searches share one request and its result. Searches are
+     * identical if their serialized requests are, including query vectors. Cancelling the search of
+     * one caller cancels the request only when no other caller waits for it. All callers get the
+     * same result, which is shared and must not be modified. Defaults to false.
+     *
+     * @param searchSingleFlight whether identical searches in flight are shared
+     * @return <code>Builder</code>
+     */
+    public Builder withSearchSingleFlight(boolean searchSingleFlight) {
+      this.searchSingleFlight = searchSingleFlight;
+      return this;
+    }
+
+    /**
+     * Optional. Caches up to <code>maximumSize</code> entities fetched by <code>getEntityByID</code>,
+     * least recently used first out, each for at most <code>ttl</code>. Entities are cached by
+     * collection, id and requested field names; only the ids missing from the cache are fetched.
+     * Cached entities are dropped when this client deletes them, inserts them with explicit ids,
+     * or drops their partition or collection; changes made by other clients are only seen once
+     * entries expire. Cached entities are shared and must not be modified. Defaults to 0, which
+     * disables the cache.
+     *
+     * @param maximumSize the maximum number of cached entities
+     * @param ttl how long an entity is cached
+     * @param timeUnit the unit of <code>ttl</code>
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     * @see MilvusGrpcClient#getEntityCacheStats()
+     */
+    public Builder withEntityCache(long maximumSize, long ttl, @Nonnull TimeUnit timeUnit)
+        throws IllegalArgumentException {
+      if (maximumSize < 0) {
+        throw new IllegalArgumentException("Entity cache size must not be negative!");
+      }
+      if (ttl <= 0L) {
+        throw new IllegalArgumentException("Entity cache TTL must be positive!");
+      }
+      this.entityCacheSize = maximumSize;
+      this.entityCacheTtlNanos = timeUnit.toNanos(ttl);
+      return this;
+    }
+
+    /**
+     * Optional. Sets the most ids sent in one <code>getEntityByID</code> or
+     * <code>deleteEntityByID</code> request. Longer id lists are split into chunks of this size,
+     * which are also kept within <code>withMaxRequestSize</code>. Fetched entities are reassembled
+     * in the original order. If some chunks of a delete fail, the others are still deleted and a
+     * <code>PartialFailureException</code> lists the ids which may not have been. Defaults to
+     * <code>Integer.MAX_VALUE</code>, so that id lists are only split to fit
+     * <code>withMaxRequestSize</code>.
+     *
+     * @param idChunkSize the maximum number of ids per request
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withIdChunkSize(int idChunkSize) throws IllegalArgumentException {
+      if (idChunkSize <= 0) {
+        throw new IllegalArgumentException("Id chunk size must be positive!");
+      }
+      this.idChunkSize = idChunkSize;
+      return this;
+    }
+
+    /**
+     * Optional. Sets the most chunks of one <code>getEntityByID</code> or
+     * <code>deleteEntityByID</code> call awaiting a response at a time. Defaults to 8.
+     *
+     * @param maxConcurrentIdChunks the maximum number of chunk requests in flight per call
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxConcurrentIdChunks(int maxConcurrentIdChunks) throws IllegalArgumentException {
+      if (maxConcurrentIdChunks <= 0) {
+        throw new IllegalArgumentException("Max concurrent id chunks must be positive!");
+      }
+      this.maxConcurrentIdChunks = maxConcurrentIdChunks;
+      return this;
+    }
+
+    /**
+     * Optional. Sets the number of channels to the target, each with its own HTTP/2 connections,
+     * over which calls are spread by <code>withChannelSelection</code>. More channels lift the
+     * limit of concurrent streams per connection. Defaults to 1.
+     *
+     * @param channelCount the number of channels
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withChannelCount(int channelCount) throws IllegalArgumentException {
+      if (channelCount <= 0) {
+        throw new IllegalArgumentException("Channel count must be positive!");
+      }
+      this.channelCount = channelCount;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to <code>ROUND_ROBIN</code>.
+     *
+     * @param channelSelection how each call picks a channel
+     * @return <code>Builder</code>
+     */
+    public Builder withChannelSelection(@Nonnull ChannelSelection channelSelection) {
+      this.channelSelection = channelSelection;
+      return this;
+    }
+
+    /**
+     * Optional. With more than one channel, sends all inserts over the first channel and all other
+     * calls over the rest, so that large insert messages do not delay searches. Defaults to false.
+     *
+     * @param pinInserts whether inserts get a channel of their own
+     * @return <code>Builder</code>
+     */
+    public Builder withPinnedInserts(boolean pinInserts) {
+      this.pinInserts = pinInserts;
+      return this;
+    }
+
+    /**
+     * Optional. Runs the Netty transport on <code>eventLoopGroup</code> with channels of
+     * <code>channelType</code>, which must match it, e.g. an <code>EpollEventLoopGroup</code> with
+     * <code>EpollSocketChannel</code>. A group may be shared by several clients and is not shut down
+     * by them. By default a shared group is used, with the native epoll transport where available.
+     *
+     * @param eventLoopGroup the event loop group of the shaded Netty of gRPC
+     * @param channelType the type of channel created by <code>eventLoopGroup</code>
+     * @return <code>Builder</code>
+     */
+    public Builder withEventLoopGroup(
+        @Nonnull EventLoopGroup eventLoopGroup, @Nonnull Class<? extends Channel> channelType) {
+      this.eventLoopGroup = eventLoopGroup;
+      this.channelType = channelType;
+      return this;
+    }
+
+    /**
+     * Optional. Sets the executor running the callbacks of calls, including those completing the
+     * futures of async methods. Defaults to a cached thread pool shared by all channels.
+     *
+     * @param executor the application executor
+     * @return <code>Builder</code>
+     * @see #withDirectExecutor(boolean)
+     */
+    public Builder withExecutor(@Nonnull Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Optional. Runs the callbacks of calls on the transport threads, saving a thread hop per call.
+     * Callbacks and listeners of returned futures must then never block. Overrides
+     * <code>withExecutor</code>. Defaults to false.
+     *
+     * @param directExecutor whether callbacks run on the transport threads
+     * @return <code>Builder</code>
+     */
+    public Builder withDirectExecutor(boolean directExecutor) {
+      this.directExecutor = directExecutor;
+      return this;
+    }
+
+    /**
+     * Optional. Sets the HTTP/2 flow-control window of each stream. Larger windows let large
+     * search results stream without waiting for window updates. Defaults to the gRPC default of 1MB.
+     *
+     * @param flowControlWindow the window size in bytes
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withFlowControlWindow(int flowControlWindow) throws IllegalArgumentException {
+      if (flowControlWindow <= 0) {
+        throw new IllegalArgumentException("Flow control window must be positive!");
+      }
+      this.flowControlWindow = flowControlWindow;
+      return this;
+    }
+
+    /**
+     * Optional. Sets the largest response accepted. Requests are bounded by
+     * <code>withMaxRequestSize</code>. Defaults to <code>Integer.MAX_VALUE</code>.
+     *
+     * @param maxInboundMessageSize the size limit of a response in bytes
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxInboundMessageSize(int maxInboundMessageSize) throws IllegalArgumentException {
+      if (maxInboundMessageSize <= 0) {
+        throw new IllegalArgumentException("Max inbound message size must be positive!");
+      }
+      this.maxInboundMessageSize = maxInboundMessageSize;
+      return this;
+    }
+
     public ConnectParam build() {
       return new ConnectParam(this);
     }
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches entities by collection, id and requested fields. Entities of a collection are dropped by id
+ * or all at once when the client modifies it; a fetch that was in flight meanwhile does not populate
+ * the cache. Ids which were not found are not cached.
+ *
+ * <p>Dropping all entities of a collection only increments its epoch, which entries remember from
+ * when they were cached; stale entries are dropped when they are next looked up, or else age
+ * out.</p>
+ */
+class EntityCache {
+  private final Cache<Key, Entry> cache;
+  // incremented by every modification, to skip fetches in flight meanwhile
+  private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+  // incremented when all entities of a collection are dropped
+  private final ConcurrentMap<String, AtomicLong> epochs = new ConcurrentHashMap<>();
+  // the field sets cached for each collection, to find the entries of an id
+  private final ConcurrentMap<String, Set<Set<String>>> fieldSets = new ConcurrentHashMap<>();
+
+  /** @param maximumSize the maximum number of cached entities, or 0 to disable caching */
+  EntityCache(long maximumSize, long expireAfterWriteNanos) {
+    this.cache = maximumSize == 0 ? null : CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWriteNanos, TimeUnit.NANOSECONDS)
+        .recordStats()
+        .build();
+  }
+
+  boolean isEnabled() {
+    return cache != null;
+  }
+
+  CacheStats stats() {
+    return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+  }
+
+  /**
+   * @param fetch fetches the entities of the ids missing from the cache
+   * @return the cached entities of <code>ids</code> together with the fetched ones, which are cached
+   *     on success
+   */
+  ListenableFuture<Map<Long, Map<String, Object>>> get(
+      String collectionName, List<Long> ids, List<String> fieldNames,
+      Function<List<Long>, ListenableFuture<Map<Long, Map<String, Object>>>> fetch) {
+    Set<String> fieldSet = ImmutableSet.copyOf(fieldNames);
+    List<Key> keys = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      keys.add(new Key(collectionName, id, fieldSet));
+    }
+    Map<Key, Entry> cached = cache.getAllPresent(keys);
+    Map<Long, Map<String, Object>> entities = new HashMap<>(ids.size());
+    List<Key> stale = new ArrayList<>();
+    cached.forEach((key, entry) -> {
+      if (entry.isCurrent()) {
+        entities.put(key.id, copyBuffers(entry.entity));
+      } else {
+        stale.add(key);
+      }
+    });
+    cache.invalidateAll(stale);
+    // ids may repeat, so the cache is complete when no id is missing rather than by count
+    Set<Long> missing = new LinkedHashSet<>();
+    for (Long id : ids) {
+      if (!entities.containsKey(id)) {
+        missing.add(id);
+      }
+    }
+    if (missing.isEmpty()) {
+      return Futures.immediateFuture(entities);
+    }
+    AtomicLong generation = generation(collectionName);
+    long expected = generation.get();
+    AtomicLong epoch = epoch(collectionName);
+    long expectedEpoch = epoch.get();
+    fieldSets.computeIfAbsent(collectionName, name -> ConcurrentHashMap.newKeySet()).add(fieldSet);
+    ListenableFuture<Map<Long, Map<String, Object>>> fetched = fetch.apply(new ArrayList<>(missing));
+    Futures.addCallback(fetched, new FutureCallback<Map<Long, Map<String, Object>>>() {
+      @Override
+      public void onSuccess(Map<Long, Map<String, Object>> fetchedEntities) {
+        if (generation.get() == expected) {
+          Map<Key, Entry> entries = new HashMap<>(fetchedEntities.size());
+          fetchedEntities.forEach((id, entity) -> entries.put(new Key(collectionName, id, fieldSet),
+              new Entry(Collections.unmodifiableMap(copyBuffers(entity)), epoch, expectedEpoch)));
+          cache.putAll(entries);
+          // recheck as the collection may have been modified while putting
+          if (generation.get() != expected) {
+            cache.invalidateAll(entries.keySet());
+          }
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        // failures are not cached
+      }
+    }, MoreExecutors.directExecutor());
+    return Futures.transform(fetched, fetchedEntities -> {
+      entities.putAll(fetchedEntities);
+      return entities;
+    }, MoreExecutors.directExecutor());
+  }
+
+  /** Drops the cached entities of <code>ids</code> and all fetches of the collection in flight. */
+  void invalidate(String collectionName, Collection<Long> ids) {
+    if (cache != null) {
+      generation(collectionName).incrementAndGet();
+      Set<Set<String>> collectionFieldSets = fieldSets.getOrDefault(collectionName, Collections.emptySet());
+      List<Key> keys = new ArrayList<>(ids.size() * collectionFieldSets.size());
+      for (Set<String> fieldSet : collectionFieldSets) {
+        for (Long id : ids) {
+          keys.add(new Key(collectionName, id, fieldSet));
+        }
+      }
+      cache.invalidateAll(keys);
+    }
+  }
+
+  /** Drops the cached entities of <code>collectionName</code> and of fetches still in flight. */
+  void invalidate(String collectionName) {
+    if (cache != null) {
+      generation(collectionName).incrementAndGet();
+      epoch(collectionName).incrementAndGet();
+      fieldSets.remove(collectionName);
+    }
+  }
+
+  /**
+   * @return <code>entity</code> with its binary vectors duplicated, since reading a
+   *     <code>ByteBuffer</code> moves its position for everyone sharing it
+   */
+  private static Map<String, Object> copyBuffers(Map<String, Object> entity) {
+    if (entity.values().stream().noneMatch(value -> value instanceof ByteBuffer)) {
+      return entity;
+    }
+    Map<String, Object> copy = new HashMap<>(entity);
+    copy.replaceAll((name, value) -> value instanceof ByteBuffer ? ((ByteBuffer) value).duplicate() : value);
+    return copy;
+  }
+
+  private AtomicLong generation(String collectionName) {
+    return generations.computeIfAbsent(collectionName, name -> new AtomicLong());
+  }
+
+  private AtomicLong epoch(String collectionName) {
+    return epochs.computeIfAbsent(collectionName, name -> new AtomicLong());
+  }
+
+  /** A cached entity and the epoch of its collection it was fetched in */
+  private static class Entry {
+    final Map<String, Object> entity;
+    final AtomicLong epoch;
+    final long expected;
+
+    Entry(Map<String, Object> entity, AtomicLong epoch, long expected) {
+      this.entity = entity;
+      this.epoch = epoch;
+      this.expected = expected;
+    }
+
+    boolean isCurrent() {
+      return epoch.get() == expected;
+    }
+  }
+
+  /** Identifies an entity by its collection, id and the fields requested of it */
+  static class Key {
+    final String collectionName;
+    final long id;
+    final Set<String> fieldNames;
+
+    Key(String collectionName, long id, Set<String> fieldNames) {
+      this.collectionName = collectionName;
+      this.id = id;
+      this.fieldNames = fieldNames;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return id == other.id
+          && collectionName.equals(other.collectionName)
+          && fieldNames.equals(other.fieldNames);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(collectionName, id, fieldNames);
+    }
+  }
+}
@@ -0,0 +1,701 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.milvus.client.exception.ClientSideMilvusException;
+import io.milvus.client.exception.MilvusException;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A <code>MilvusClient</code> over replicas of the same data which hedges reads against slow
+ * replicas.
+ *
+ * <p>Searches and <code>getEntityByID</code> are sent to the replicas in turn. If a call has not
+ * completed after the hedge delay, the same call is sent to the next replica; the first reply is
+ * used and the other call is cancelled. The hedge delay is either fixed or a percentile of recent
+ * latencies. Each call adds <code>maxHedgeRatio</code> to a budget and each hedge takes one from
+ * it, so hedges add at most that fraction to the load. All other operations are sent to the first
+ * replica.</p>
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * MilvusClient client = new HedgedMilvusClient.Builder(Arrays.asList(replica1, replica2))
+ *                                             .withHedgePercentile(95)
+ *                                             .build();
+ * </code>
+ * </pre>
+ */
+public class HedgedMilvusClient implements MilvusClient {
+  private final List<MilvusClient> replicas;
+  private final State state;
+
+  private HedgedMilvusClient(List<MilvusClient> replicas, State state) {
+    this.replicas = replicas;
+    this.state = state;
+  }
+
+  @Override
+  public String target() {
+    return replicas.stream().map(MilvusClient::target).collect(Collectors.joining(","));
+  }
+
+  @Override
+  public void close(long maxWaitSeconds) {
+    replicas.forEach(replica -> replica.close(maxWaitSeconds));
+    if (state.ownScheduler) {
+      state.scheduler.shutdownNow();
+    }
+  }
+
+  @Override
+  public MilvusClient withTimeout(long timeout, TimeUnit timeoutUnit) {
+    return new HedgedMilvusClient(
+        replicas.stream().map(replica -> replica.withTimeout(timeout, timeoutUnit)).collect(Collectors.toList()),
+        state);
+  }
+
+  @Override
+  public void createCollection(@Nonnull CollectionMapping collectionMapping) {
+    primary().createCollection(collectionMapping);
+  }
+
+  @Override
+  public ListenableFuture<Void> createCollectionAsync(@Nonnull CollectionMapping collectionMapping) {
+    return primary().createCollectionAsync(collectionMapping);
+  }
+
+  @Override
+  public boolean hasCollection(@Nonnull String collectionName) {
+    return primary().hasCollection(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<Boolean> hasCollectionAsync(@Nonnull String collectionName) {
+    return primary().hasCollectionAsync(collectionName);
+  }
+
+  @Override
+  public void dropCollection(@Nonnull String collectionName) {
+    primary().dropCollection(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<Void> dropCollectionAsync(@Nonnull String collectionName) {
+    return primary().dropCollectionAsync(collectionName);
+  }
+
+  @Override
+  public void createIndex(@Nonnull Index index) {
+    primary().createIndex(index);
+  }
+
+  @Override
+  public ListenableFuture<Void> createIndexAsync(@Nonnull Index index) {
+    return primary().createIndexAsync(index);
+  }
+
+  @Override
+  public void createPartition(String collectionName, String tag) {
+    primary().createPartition(collectionName, tag);
+  }
+
+  @Override
+  public ListenableFuture<Void> createPartitionAsync(String collectionName, String tag) {
+    return primary().createPartitionAsync(collectionName, tag);
+  }
+
+  @Override
+  public boolean hasPartition(String collectionName, String tag) {
+    return primary().hasPartition(collectionName, tag);
+  }
+
+  @Override
+  public ListenableFuture<Boolean> hasPartitionAsync(String collectionName, String tag) {
+    return primary().hasPartitionAsync(collectionName, tag);
+  }
+
+  @Override
+  public List<String> listPartitions(String collectionName) {
+    return primary().listPartitions(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<List<String>> listPartitionsAsync(String collectionName) {
+    return primary().listPartitionsAsync(collectionName);
+  }
+
+  @Override
+  public void dropPartition(String collectionName, String tag) {
+    primary().dropPartition(collectionName, tag);
+  }
+
+  @Override
+  public ListenableFuture<Void> dropPartitionAsync(String collectionName, String tag) {
+    return primary().dropPartitionAsync(collectionName, tag);
+  }
+
+  @Override
+  public List<Long> insert(@Nonnull InsertParam insertParam) {
+    return primary().insert(insertParam);
+  }
+
+  @Override
+  public ListenableFuture<List<Long>> insertAsync(@Nonnull InsertParam insertParam) {
+    return primary().insertAsync(insertParam);
+  }
+
+  @Override
+  public SearchResult search(@Nonnull SearchParam searchParam) {
+    return get(searchAsync(searchParam));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAsync(@Nonnull SearchParam searchParam) {
+    return hedged(replica -> replica.searchAsync(searchParam));
+  }
+
+  @Override
+  public SearchResult search(@Nonnull PreparedSearch.Bound boundSearch) {
+    return get(searchAsync(boundSearch));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAsync(@Nonnull PreparedSearch.Bound boundSearch) {
+    return hedged(replica -> replica.searchAsync(boundSearch));
+  }
+
+  @Override
+  public SearchResult searchPB(@Nonnull SearchPBParam searchPBParam) {
+    return get(searchPBAsync(searchPBParam));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchPBAsync(@Nonnull SearchPBParam searchPBParam) {
+    return hedged(replica -> replica.searchPBAsync(searchPBParam));
+  }
+
+  @Override
+  public SearchResult searchAndFetch(@Nonnull SearchParam searchParam, @Nonnull List<String> fieldNames) {
+    return get(searchAndFetchAsync(searchParam, fieldNames));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAndFetchAsync(
+      @Nonnull SearchParam searchParam, @Nonnull List<String> fieldNames) {
+    return hedged(replica -> replica.searchAndFetchAsync(searchParam, fieldNames));
+  }
+
+  @Override
+  public SearchResult searchInSegments(@Nonnull SearchInSegmentParam searchInSegmentParam) {
+    return get(searchInSegmentsAsync(searchInSegmentParam));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchInSegmentsAsync(@Nonnull SearchInSegmentParam searchInSegmentParam) {
+    return hedged(replica -> replica.searchInSegmentsAsync(searchInSegmentParam));
+  }
+
+  @Override
+  public CollectionMapping getCollectionInfo(@Nonnull String collectionName) {
+    return primary().getCollectionInfo(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<CollectionMapping> getCollectionInfoAsync(@Nonnull String collectionName) {
+    return primary().getCollectionInfoAsync(collectionName);
+  }
+
+  @Override
+  public List<String> listCollections() {
+    return primary().listCollections();
+  }
+
+  @Override
+  public ListenableFuture<List<String>> listCollectionsAsync() {
+    return primary().listCollectionsAsync();
+  }
+
+  @Override
+  public long countEntities(@Nonnull String collectionName) {
+    return primary().countEntities(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<Long> countEntitiesAsync(@Nonnull String collectionName) {
+    return primary().countEntitiesAsync(collectionName);
+  }
+
+  @Override
+  public String getServerStatus() {
+    return primary().getServerStatus();
+  }
+
+  @Override
+  public ListenableFuture<String> getServerStatusAsync() {
+    return primary().getServerStatusAsync();
+  }
+
+  @Override
+  public String getServerVersion() {
+    return primary().getServerVersion();
+  }
+
+  @Override
+  public ListenableFuture<String> getServerVersionAsync() {
+    return primary().getServerVersionAsync();
+  }
+
+  @Override
+  public String command(@Nonnull String command) {
+    return primary().command(command);
+  }
+
+  @Override
+  public ListenableFuture<String> commandAsync(@Nonnull String command) {
+    return primary().commandAsync(command);
+  }
+
+  @Override
+  public void loadCollection(@Nonnull String collectionName) {
+    primary().loadCollection(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<Void> loadCollectionAsync(@Nonnull String collectionName) {
+    return primary().loadCollectionAsync(collectionName);
+  }
+
+  @Override
+  public void dropIndex(String collectionName, String fieldName) {
+    primary().dropIndex(collectionName, fieldName);
+  }
+
+  @Override
+  public ListenableFuture<Void> dropIndexAsync(String collectionName, String fieldName) {
+    return primary().dropIndexAsync(collectionName, fieldName);
+  }
+
+  @Override
+  public String getCollectionStats(String collectionName) {
+    return primary().getCollectionStats(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<String> getCollectionStatsAsync(String collectionName) {
+    return primary().getCollectionStatsAsync(collectionName);
+  }
+
+  @Override
+  public Map<Long, Map<String, Object>> getEntityByID(String collectionName, List<Long> ids, List<String> fieldNames) {
+    return get(getEntityByIDAsync(collectionName, ids, fieldNames));
+  }
+
+  @Override
+  public ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames) {
+    return hedged(replica -> replica.getEntityByIDAsync(collectionName, ids, fieldNames));
+  }
+
+  @Override
+  public Map<Long, Map<String, Object>> getEntityByID(String collectionName, List<Long> ids) {
+    return getEntityByID(collectionName, ids, Collections.emptyList());
+  }
+
+  @Override
+  public ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(String collectionName, List<Long> ids) {
+    return getEntityByIDAsync(collectionName, ids, Collections.emptyList());
+  }
+
+  @Override
+  public ColumnarEntities getEntityByIDColumnar(String collectionName, List<Long> ids, List<String> fieldNames) {
+    return get(getEntityByIDColumnarAsync(collectionName, ids, fieldNames));
+  }
+
+  @Override
+  public ListenableFuture<ColumnarEntities> getEntityByIDColumnarAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames) {
+    return hedged(replica -> replica.getEntityByIDColumnarAsync(collectionName, ids, fieldNames));
+  }
+
+  @Override
+  public List<Long> listIDInSegment(String collectionName, Long segmentId) {
+    return primary().listIDInSegment(collectionName, segmentId);
+  }
+
+  @Override
+  public ListenableFuture<List<Long>> listIDInSegmentAsync(String collectionName, Long segmentId) {
+    return primary().listIDInSegmentAsync(collectionName, segmentId);
+  }
+
+  @Override
+  public void deleteEntityByID(String collectionName, List<Long> ids) {
+    primary().deleteEntityByID(collectionName, ids);
+  }
+
+  @Override
+  public ListenableFuture<Void> deleteEntityByIDAsync(String collectionName, List<Long> ids) {
+    return primary().deleteEntityByIDAsync(collectionName, ids);
+  }
+
+  @Override
+  public void flush(List<String> collectionNames) {
+    primary().flush(collectionNames);
+  }
+
+  @Override
+  public ListenableFuture<Void> flushAsync(@Nonnull List<String> collectionNames) {
+    return primary().flushAsync(collectionNames);
+  }
+
+  @Override
+  public void flush(String collectionName) {
+    primary().flush(collectionName);
+  }
+
+  @Override
+  public ListenableFuture<Void> flushAsync(String collectionName) {
+    return primary().flushAsync(collectionName);
+  }
+
+  @Override
+  public void compact(@Nonnull CompactParam compactParam) {
+    primary().compact(compactParam);
+  }
+
+  @Override
+  public ListenableFuture<Void> compactAsync(@Nonnull CompactParam compactParam) {
+    return primary().compactAsync(compactParam);
+  }
+
+  private MilvusClient primary() {
+    return replicas.get(0);
+  }
+
+  private <T> ListenableFuture<T> hedged(Function<MilvusClient, ListenableFuture<T>> call) {
+    int first = Math.floorMod(state.nextReplica.getAndIncrement(), replicas.size());
+    state.budget.deposit();
+    Hedge<T> hedge = new Hedge<>(call, first);
+    hedge.attempt(first);
+    if (replicas.size() > 1) {
+      synchronized (hedge) {
+        if (!hedge.result.isDone()) {
+          hedge.timer = state.scheduler.schedule(hedge::hedge, state.hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        }
+      }
+    }
+    return hedge.result;
+  }
+
+  /** Waits for <code>future</code>, cancelling it if the waiting thread is interrupted. */
+  private <T> T get(ListenableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ClientSideMilvusException(target(), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof MilvusException) {
+        throw (MilvusException) e.getCause();
+      }
+      throw new ClientSideMilvusException(target(), e.getCause());
+    }
+  }
+
+  /** One hedged call: the first attempt and at most one hedge to the next replica. */
+  private class Hedge<T> {
+    final SettableFuture<T> result = SettableFuture.create();
+    final Function<MilvusClient, ListenableFuture<T>> call;
+    final int first;
+    final List<ListenableFuture<T>> attempts = new ArrayList<>(2);
+    final long startNanos = System.nanoTime();
+    ScheduledFuture<?> timer;
+    boolean hedged;
+    int pending = 1;
+
+    Hedge(Function<MilvusClient, ListenableFuture<T>> call, int first) {
+      this.call = call;
+      this.first = first;
+      result.addListener(() -> {
+        if (result.isCancelled()) {
+          cancelAll();
+        }
+      }, MoreExecutors.directExecutor());
+    }
+
+    void hedge() {
+      synchronized (this) {
+        if (result.isDone() || hedged || !state.budget.withdraw()) {
+          // no hedge can start anymore, so the last failed attempt completes the result
+          timer = null;
+          return;
+        }
+        hedged = true;
+        pending++;
+      }
+      attempt((first + 1) % replicas.size());
+    }
+
+    void attempt(int replica) {
+      ListenableFuture<T> attempt;
+      try {
+        attempt = call.apply(replicas.get(replica));
+      } catch (Throwable t) {
+        attempt = Futures.immediateFailedFuture(t);
+      }
+      synchronized (this) {
+        attempts.add(attempt);
+      }
+      if (result.isDone()) {
+        attempt.cancel(true);
+      }
+      Futures.addCallback(attempt, new FutureCallback<T>() {
+        @Override
+        public void onSuccess(T value) {
+          if (result.set(value)) {
+            // the whole call, so that a winning hedge also counts the delay before it was sent
+            state.latencies.record(System.nanoTime() - startNanos);
+            cancelAll();
+          }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          boolean last;
+          synchronized (Hedge.this) {
+            // a failure is not a slow reply, so no hedge is sent after it
+            last = --pending == 0 && (hedged || timer == null || timer.cancel(false));
+          }
+          if (last) {
+            result.setException(t);
+          }
+        }
+      }, MoreExecutors.directExecutor());
+    }
+
+    void cancelAll() {
+      List<ListenableFuture<T>> outstanding;
+      synchronized (this) {
+        if (timer != null) {
+          timer.cancel(false);
+        }
+        outstanding = new ArrayList<>(attempts);
+      }
+      outstanding.forEach(attempt -> attempt.cancel(true));
+    }
+  }
+
+  /**
+   * Allows one hedge for every <code>1 / maxHedgeRatio</code> calls. The balance is capped at one
+   * hedge, so that a quiet period does not allow a burst of hedges.
+   */
+  private static class HedgeBudget {
+    private static final double MAX_BALANCE = 1;
+    private final double maxHedgeRatio;
+    private double balance;
+
+    HedgeBudget(double maxHedgeRatio) {
+      this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    synchronized void deposit() {
+      balance = Math.min(MAX_BALANCE, balance + maxHedgeRatio);
+    }
+
+    synchronized boolean withdraw() {
+      if (balance < 1) {
+        return false;
+      }
+      balance -= 1;
+      return true;
+    }
+  }
+
+  /**
+   * The latencies of the latest successful calls, from the start of the call to its first reply
+   * including any hedge delay, for a percentile hedge delay.
+   */
+  private static class LatencyWindow {
+    private static final int SIZE = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final int REFRESH_INTERVAL = 64;
+    private final double percentile;
+    private final long[] latencies = new long[SIZE];
+    private long count;
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(double percentile) {
+      this.percentile = percentile;
+    }
+
+    void record(long latencyNanos) {
+      if (percentile <= 0) {
+        return;
+      }
+      long[] window;
+      synchronized (this) {
+        latencies[(int) (count++ % SIZE)] = latencyNanos;
+        if (count < MIN_SAMPLES || count % REFRESH_INTERVAL != 0) {
+          return;
+        }
+        window = Arrays.copyOf(latencies, (int) Math.min(count, SIZE));
+      }
+      Arrays.sort(window);
+      percentileNanos = window[(int) Math.max(0, Math.ceil(window.length * percentile / 100) - 1)];
+    }
+
+    /** @return the percentile latency, or -1 until enough calls have completed */
+    long percentileNanos() {
+      return percentileNanos;
+    }
+  }
+
+  /** State shared by a client and the clients derived from it with <code>withTimeout</code>. */
+  private static class State {
+    final AtomicInteger nextReplica = new AtomicInteger();
+    final long hedgeDelayNanos;
+    final HedgeBudget budget;
+    final LatencyWindow latencies;
+    final ScheduledExecutorService scheduler;
+    final boolean ownScheduler;
+
+    State(Builder builder) {
+      this.hedgeDelayNanos = builder.hedgeDelayNanos;
+      this.budget = new HedgeBudget(builder.maxHedgeRatio);
+      this.latencies = new LatencyWindow(builder.hedgePercentile);
+      this.ownScheduler = builder.scheduler == null;
+      this.scheduler = ownScheduler
+          ? Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat("milvus-hedge-timer-%d").build())
+          : builder.scheduler;
+    }
+
+    long hedgeDelayNanos() {
+      long percentileNanos = latencies.percentileNanos();
+      return percentileNanos >= 0 ? percentileNanos : hedgeDelayNanos;
+    }
+  }
+
+  /** Builder for <code>HedgedMilvusClient</code> */
+  public static class Builder {
+    private final List<MilvusClient> replicas;
+    // Optional parameters - initialized to default values
+    private long hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(20);
+    private double hedgePercentile = 0;
+    private double maxHedgeRatio = 0.1;
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * @param replicas clients of servers holding the same data. The first also receives all
+     *     operations which are not hedged.
+     * @throws IllegalArgumentException
+     */
+    public Builder(@Nonnull List<? extends MilvusClient> replicas) throws IllegalArgumentException {
+      if (replicas.isEmpty()) {
+        throw new IllegalArgumentException("At least one replica must be given!");
+      }
+      this.replicas = new ArrayList<>(replicas);
+    }
+
+    /**
+     * Optional. Defaults to 20 milliseconds. Also used with <code>withHedgePercentile</code>
+     * until 100 calls have completed.
+     *
+     * @param hedgeDelay a call is hedged if it has not completed after this long
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withHedgeDelay(long hedgeDelay, @Nonnull TimeUnit timeUnit) throws IllegalArgumentException {
+      if (hedgeDelay < 0L) {
+        throw new IllegalArgumentException("Hedge delay must not be negative!");
+      }
+      this.hedgeDelayNanos = timeUnit.toNanos(hedgeDelay);
+      return this;
+    }
+
+    /**
+     * Optional. By default the fixed hedge delay is used.
+     *
+     * @param hedgePercentile a call is hedged if it takes longer than this percentile of the
+     *     latencies of the latest 1024 calls, e.g. 95
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withHedgePercentile(double hedgePercentile) throws IllegalArgumentException {
+      if (hedgePercentile <= 0 || hedgePercentile >= 100) {
+        throw new IllegalArgumentException("Hedge percentile must be between 0 and 100!");
+      }
+      this.hedgePercentile = hedgePercentile;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 0.1.
+     *
+     * @param maxHedgeRatio the maximum number of hedges per call, at most 1 so that hedges never
+     *     more than double the load
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxHedgeRatio(double maxHedgeRatio) throws IllegalArgumentException {
+      if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+        throw new IllegalArgumentException("Max hedge ratio must be between 0 and 1!");
+      }
+      this.maxHedgeRatio = maxHedgeRatio;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to a single daemon thread owned by the <code>HedgedMilvusClient</code>.
+     *
+     * @param scheduler the executor running hedge timers
+     * @return <code>Builder</code>
+     */
+    public Builder withScheduler(@Nonnull ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    public HedgedMilvusClient build() {
+      return new HedgedMilvusClient(replicas, new State(this));
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.WireFormat;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.milvus.grpc.Entities;
+import io.milvus.grpc.KeyValuePair;
+import io.milvus.grpc.QueryResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A response marshaller for <code>Search</code> which skips the entity fields of the result while
+ * parsing, so that they are neither copied nor decoded. The other fields are read straight into
+ * the result.
+ */
+class IdsOnlyQueryResultMarshaller implements MethodDescriptor.Marshaller<QueryResult> {
+  private static final int QUERY_RESULT_STATUS = 1;
+  private static final int QUERY_RESULT_ENTITIES = 2;
+  private static final int QUERY_RESULT_ROW_NUM = 3;
+  private static final int QUERY_RESULT_SCORES = 4;
+  private static final int QUERY_RESULT_DISTANCES = 5;
+  private static final int QUERY_RESULT_EXTRA_PARAMS = 6;
+  private static final int ENTITIES_STATUS = 1;
+  private static final int ENTITIES_IDS = 2;
+  private static final int ENTITIES_VALID_ROW = 3;
+
+  @Override
+  public InputStream stream(QueryResult value) {
+    return value.toByteString().newInput();
+  }
+
+  @Override
+  public QueryResult parse(InputStream stream) {
+    try {
+      CodedInputStream input = CodedInputStream.newInstance(stream);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      ExtensionRegistryLite registry = ExtensionRegistryLite.getEmptyRegistry();
+      QueryResult.Builder result = QueryResult.newBuilder();
+      for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+        int wireType = WireFormat.getTagWireType(tag);
+        switch (WireFormat.getTagFieldNumber(tag)) {
+          case QUERY_RESULT_STATUS:
+            result.setStatus(input.readMessage(io.milvus.grpc.Status.parser(), registry));
+            break;
+          case QUERY_RESULT_ENTITIES:
+            int limit = input.pushLimit(input.readRawVarint32());
+            result.setEntities(readEntities(input, registry));
+            input.popLimit(limit);
+            break;
+          case QUERY_RESULT_ROW_NUM:
+            result.setRowNum(input.readInt64());
+            break;
+          case QUERY_RESULT_SCORES:
+            if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+              int scoresLimit = input.pushLimit(input.readRawVarint32());
+              while (input.getBytesUntilLimit() > 0) {
+                result.addScores(input.readFloat());
+              }
+              input.popLimit(scoresLimit);
+            } else {
+              result.addScores(input.readFloat());
+            }
+            break;
+          case QUERY_RESULT_DISTANCES:
+            if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+              int distancesLimit = input.pushLimit(input.readRawVarint32());
+              while (input.getBytesUntilLimit() > 0) {
+                result.addDistances(input.readFloat());
+              }
+              input.popLimit(distancesLimit);
+            } else {
+              result.addDistances(input.readFloat());
+            }
+            break;
+          case QUERY_RESULT_EXTRA_PARAMS:
+            result.addExtraParams(input.readMessage(KeyValuePair.parser(), registry));
+            break;
+          default:
+            input.skipField(tag);
+        }
+      }
+      return result.build();
+    } catch (IOException e) {
+      throw Status.INTERNAL.withDescription("Invalid search response").withCause(e).asRuntimeException();
+    }
+  }
+
+  /** Reads <code>Entities</code> up to the current limit, skipping its fields. */
+  private static Entities readEntities(CodedInputStream input, ExtensionRegistryLite registry) throws IOException {
+    Entities.Builder entities = Entities.newBuilder();
+    for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+      boolean packed = WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED;
+      switch (WireFormat.getTagFieldNumber(tag)) {
+        case ENTITIES_STATUS:
+          entities.setStatus(input.readMessage(io.milvus.grpc.Status.parser(), registry));
+          break;
+        case ENTITIES_IDS:
+          if (packed) {
+            int limit = input.pushLimit(input.readRawVarint32());
+            while (input.getBytesUntilLimit() > 0) {
+              entities.addIds(input.readInt64());
+            }
+            input.popLimit(limit);
+          } else {
+            entities.addIds(input.readInt64());
+          }
+          break;
+        case ENTITIES_VALID_ROW:
+          if (packed) {
+            int limit = input.pushLimit(input.readRawVarint32());
+            while (input.getBytesUntilLimit() > 0) {
+              entities.addValidRow(input.readBool());
+            }
+            input.popLimit(limit);
+          } else {
+            entities.addValidRow(input.readBool());
+          }
+          break;
+        default:
+          // the entity fields are not needed
+          input.skipField(tag);
+      }
+    }
+    return entities.build();
+  }
+}
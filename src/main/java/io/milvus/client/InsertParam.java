@@ -19,93 +19,1041 @@
 
 package io.milvus.client;
 
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import io.milvus.client.exception.UnsupportedDataType;
 import io.milvus.grpc.AttrRecord;
 import io.milvus.grpc.FieldValue;
 import io.milvus.grpc.VectorRecord;
 import io.milvus.grpc.VectorRowRecord;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
-/** Contains parameters for <code>insert</code> */
+import static io.milvus.client.StreamingMarshaller.lengthDelimitedSize;
+import static io.milvus.client.StreamingMarshaller.writeLengthDelimitedTag;
+
+/**
+ * Contains parameters for <code>insert</code>
+ *
+ * <p>Field values are kept in the arrays they were given in and are encoded straight into the
+ * outbound request by {@link #MARSHALLER}. Primitive arrays and buffers passed in are not copied,
+ * so they must not be modified until the insert completes.</p>
+ */
 public class InsertParam {
-  private io.milvus.grpc.InsertParam.Builder builder;
+  static final StreamingMarshaller<InsertParam> MARSHALLER = new StreamingMarshaller<InsertParam>() {
+    @Override
+    int getSerializedSize(InsertParam value) {
+      return value.getSerializedSize();
+    }
+
+    @Override
+    void writeTo(InsertParam value, CodedOutputStream output) throws IOException {
+      value.writeTo(output);
+    }
+  };
+
+  private static final long[] NO_IDS = new long[0];
+
+  private final String collectionName;
+  private final List<Field> fields = new ArrayList<>();
+  private long[] entityIds = NO_IDS;
+  private String partitionTag = "";
+  private int serializedSize = -1;
 
   public static InsertParam create(String collectionName) {
     return new InsertParam(collectionName);
   }
 
   private InsertParam(String collectionName) {
-    this.builder = io.milvus.grpc.InsertParam.newBuilder();
-    builder.setCollectionName(collectionName);
+    this.collectionName = collectionName;
   }
 
   public InsertParam setEntityIds(List<Long> entityIds) {
-    builder.addAllEntityIdArray(entityIds);
-    return this;
+    return setEntityIds(Longs.toArray(entityIds));
+  }
+
+  /**
+   * Sets entity ids from a primitive array.
+   *
+   * @param entityIds the entity ids, one per entity
+   * @return this InsertParam
+   */
+  public InsertParam setEntityIds(long[] entityIds) {
+    this.entityIds = entityIds;
+    return changed();
   }
 
   public <T> InsertParam addField(String name, DataType type, List<T> values) {
-    AttrRecord.Builder record = AttrRecord.newBuilder();
     switch (type) {
       case INT32:
-        record.addAllInt32Value((List<Integer>) values);
-        break;
+        return addField(name, Ints.toArray((List<Integer>) values));
       case INT64:
-        record.addAllInt64Value((List<Long>) values);
-        break;
+        return addField(name, Longs.toArray((List<Long>) values));
       case FLOAT:
-        record.addAllFloatValue((List<Float>) values);
-        break;
+        return addField(name, Floats.toArray((List<Float>) values));
       case DOUBLE:
-        record.addAllDoubleValue((List<Double>) values);
-        break;
+        return addField(name, Doubles.toArray((List<Double>) values));
       default:
         throw new UnsupportedDataType("Unsupported data type: " + type.name());
     }
-    builder.addFields(FieldValue.newBuilder()
-        .setFieldName(name)
-        .setTypeValue(type.getVal())
-        .setAttrRecord(record.build())
-        .build());
-    return this;
+  }
+
+  /**
+   * Adds an <code>INT32</code> field. The values are written into the packed field directly.
+   *
+   * @param name the field name
+   * @param values the field values, one per entity
+   * @return this InsertParam
+   */
+  public InsertParam addField(String name, int[] values) {
+    return addField(new Int32Field(name, values, 0, values.length));
+  }
+
+  /**
+   * Adds an <code>INT64</code> field. The values are written into the packed field directly.
+   *
+   * @param name the field name
+   * @param values the field values, one per entity
+   * @return this InsertParam
+   */
+  public InsertParam addField(String name, long[] values) {
+    return addField(new Int64Field(name, values, 0, values.length));
+  }
+
+  /**
+   * Adds a <code>FLOAT</code> field. The values are written into the packed field directly.
+   *
+   * @param name the field name
+   * @param values the field values, one per entity
+   * @return this InsertParam
+   */
+  public InsertParam addField(String name, float[] values) {
+    return addField(new FloatField(name, values, 0, values.length));
+  }
+
+  /**
+   * Adds a <code>DOUBLE</code> field. The values are written into the packed field directly.
+   *
+   * @param name the field name
+   * @param values the field values, one per entity
+   * @return this InsertParam
+   */
+  public InsertParam addField(String name, double[] values) {
+    return addField(new DoubleField(name, values, 0, values.length));
   }
 
   public <T> InsertParam addVectorField(String name, DataType type, List<T> values) {
-    VectorRecord.Builder record = VectorRecord.newBuilder();
     switch (type) {
       case VECTOR_FLOAT:
-        record.addAllRecords(
-            ((List<List<Float>>) values).stream()
-                .map(row -> VectorRowRecord.newBuilder().addAllFloatData(row).build())
-                .collect(Collectors.toList()));
-        break;
+        return addVectorField(name, ((List<List<Float>>) values).stream()
+            .map(Floats::toArray)
+            .toArray(float[][]::new));
       case VECTOR_BINARY:
-        record.addAllRecords(
-            ((List<ByteBuffer>) values).stream()
-                .map(row -> VectorRowRecord.newBuilder().setBinaryData(ByteString.copyFrom(row.slice())).build())
-                .collect(Collectors.toList()));
-        break;
+        return addField(new BinaryVectorField(name, (List<ByteBuffer>) values));
       default:
         throw new UnsupportedDataType("Unsupported data type: " + type.name());
     }
-    builder.addFields(FieldValue.newBuilder()
-        .setFieldName(name)
-        .setTypeValue(type.getVal())
-        .setVectorRecord(record.build())
-        .build());
-    return this;
+  }
+
+  /**
+   * Adds a float vector field, one <code>float[]</code> per entity. The values are encoded
+   * straight into the request without boxing.
+   *
+   * @param name the field name
+   * @param vectors the vectors, all of the same dimension
+   * @return this InsertParam
+   */
+  public InsertParam addVectorField(String name, float[][] vectors) {
+    return addField(new FloatArraysField(name, vectors, 0, vectors.length));
+  }
+
+  /**
+   * Adds a float vector field from a flat array holding <code>vectors.length / dimension</code>
+   * vectors back to back.
+   *
+   * @param name the field name
+   * @param vectors the concatenated vectors
+   * @param dimension the vector dimension
+   * @return this InsertParam
+   */
+  public InsertParam addVectorField(String name, float[] vectors, int dimension) {
+    return addVectorField(name, FloatBuffer.wrap(vectors), dimension);
+  }
+
+  /**
+   * Adds a float vector field from the remaining floats of <code>vectors</code>, which hold
+   * <code>vectors.remaining() / dimension</code> vectors back to back. The buffer may be direct.
+   * Its position is left unchanged.
+   *
+   * @param name the field name
+   * @param vectors the concatenated vectors
+   * @param dimension the vector dimension
+   * @return this InsertParam
+   */
+  public InsertParam addVectorField(String name, FloatBuffer vectors, int dimension) {
+    if (dimension <= 0 || vectors.remaining() % dimension != 0) {
+      throw new IllegalArgumentException(String.format(
+          "%d floats can not be split into vectors of dimension %d", vectors.remaining(), dimension));
+    }
+    return addField(new FloatBufferField(name, vectors.slice(), dimension));
   }
 
   public InsertParam setPartitionTag(String partitionTag) {
-    builder.setPartitionTag(partitionTag);
-    return this;
+    this.partitionTag = partitionTag;
+    return changed();
+  }
+
+  public String getCollectionName() {
+    return collectionName;
+  }
+
+  public String getPartitionTag() {
+    return partitionTag;
+  }
+
+  /** @return the number of entities in this insert */
+  public int getRowCount() {
+    return fields.isEmpty() ? entityIds.length : fields.get(0).rowCount();
+  }
+
+  /**
+   * @return a key that is equal for inserts which can be merged, i.e. which go to the same
+   *     collection and partition with the same fields and either all or none have entity ids
+   */
+  String mergeKey() {
+    StringBuilder key = new StringBuilder()
+        .append(collectionName).append('\0')
+        .append(partitionTag).append('\0')
+        .append(entityIds.length > 0);
+    for (Field field : fields) {
+      key.append('\0').append(field.name).append(':').append(field.type);
+    }
+    return key.toString();
+  }
+
+  /**
+   * Concatenates inserts with equal {@link #mergeKey()} into one, in the given order. Field values
+   * are not copied: the merged insert encodes them from the columns of the original inserts.
+   */
+  static InsertParam merge(List<InsertParam> insertParams) {
+    InsertParam first = insertParams.get(0);
+    if (insertParams.size() == 1) {
+      return first;
+    }
+    String mergeKey = first.mergeKey();
+    int idCount = 0;
+    for (InsertParam insertParam : insertParams) {
+      if (!mergeKey.equals(insertParam.mergeKey())) {
+        throw new IllegalArgumentException("Can not merge " + insertParam + " into " + first);
+      }
+      idCount += insertParam.entityIds.length;
+    }
+
+    InsertParam merged = new InsertParam(first.collectionName).setPartitionTag(first.partitionTag);
+    for (int i = 0; i < first.fields.size(); i++) {
+      List<Field> parts = new ArrayList<>(insertParams.size());
+      for (InsertParam insertParam : insertParams) {
+        parts.add(insertParam.fields.get(i));
+      }
+      merged.addField(Field.concat(parts));
+    }
+    if (idCount > 0) {
+      long[] entityIds = new long[idCount];
+      int offset = 0;
+      for (InsertParam insertParam : insertParams) {
+        System.arraycopy(insertParam.entityIds, 0, entityIds, offset, insertParam.entityIds.length);
+        offset += insertParam.entityIds.length;
+      }
+      merged.setEntityIds(entityIds);
+    }
+    return merged;
+  }
+
+  /**
+   * @param rows row indices in ascending order
+   * @return an insert of the given rows of this insert
+   */
+  InsertParam select(int[] rows) {
+    InsertParam selected = new InsertParam(collectionName).setPartitionTag(partitionTag);
+    for (Field field : fields) {
+      selected.addField(field.select(rows));
+    }
+    if (entityIds.length > 0) {
+      long[] selectedIds = new long[rows.length];
+      for (int i = 0; i < rows.length; i++) {
+        selectedIds[i] = entityIds[rows[i]];
+      }
+      selected.setEntityIds(selectedIds);
+    }
+    return selected;
+  }
+
+  /** @return the entity ids set on this insert, or an empty array if none are */
+  long[] getEntityIds() {
+    return entityIds;
+  }
+
+  /**
+   * Splits this insert by rows into parts whose serialized size is at most
+   * <code>maxSerializedSize</code>, assuming rows are of about equal size.
+   *
+   * @return the parts in row order, or just this insert if it is small enough
+   */
+  List<InsertParam> split(int maxSerializedSize) {
+    int rowCount = getRowCount();
+    int size = getSerializedSize();
+    if (size <= maxSerializedSize || rowCount <= 1) {
+      return Collections.singletonList(this);
+    }
+    int parts = (int) Math.min(rowCount, (size + (long) maxSerializedSize - 1) / maxSerializedSize);
+    int rowsPerPart = (rowCount + parts - 1) / parts;
+    List<InsertParam> insertParams = new ArrayList<>(parts);
+    for (int from = 0; from < rowCount; from += rowsPerPart) {
+      int to = Math.min(rowCount, from + rowsPerPart);
+      InsertParam part = new InsertParam(collectionName).setPartitionTag(partitionTag);
+      for (Field field : fields) {
+        part.addField(field.slice(from, to));
+      }
+      if (entityIds.length > 0) {
+        part.setEntityIds(Arrays.copyOfRange(entityIds, from, to));
+      }
+      insertParams.add(part);
+    }
+    return insertParams;
+  }
+
+  @Override
+  public String toString() {
+    return "InsertParam {"
+        + "collectionName="
+        + collectionName
+        + ", partitionTag="
+        + partitionTag
+        + ", fields="
+        + fields.stream().map(field -> field.name).collect(Collectors.toList())
+        + ", rowCount="
+        + getRowCount()
+        + '}';
   }
 
   io.milvus.grpc.InsertParam grpc() {
+    io.milvus.grpc.InsertParam.Builder builder = io.milvus.grpc.InsertParam.newBuilder()
+        .setCollectionName(collectionName)
+        .setPartitionTag(partitionTag);
+    for (Field field : fields) {
+      builder.addFields(field.grpc());
+    }
+    for (long entityId : entityIds) {
+      builder.addEntityIdArray(entityId);
+    }
     return builder.build();
   }
+
+  int getSerializedSize() {
+    if (serializedSize < 0) {
+      int size = 0;
+      if (!collectionName.isEmpty()) {
+        size += CodedOutputStream.computeStringSize(1, collectionName);
+      }
+      for (Field field : fields) {
+        size += lengthDelimitedSize(2, field.getSerializedSize());
+      }
+      if (entityIds.length > 0) {
+        size += lengthDelimitedSize(3, int64DataSize(entityIds, 0, entityIds.length));
+      }
+      if (!partitionTag.isEmpty()) {
+        size += CodedOutputStream.computeStringSize(4, partitionTag);
+      }
+      serializedSize = size;
+    }
+    return serializedSize;
+  }
+
+  /** Writes this request as an <code>io.milvus.grpc.InsertParam</code> message. */
+  void writeTo(CodedOutputStream output) throws IOException {
+    if (!collectionName.isEmpty()) {
+      output.writeString(1, collectionName);
+    }
+    for (Field field : fields) {
+      writeLengthDelimitedTag(output, 2, field.getSerializedSize());
+      field.writeTo(output);
+    }
+    if (entityIds.length > 0) {
+      writeLengthDelimitedTag(output, 3, int64DataSize(entityIds, 0, entityIds.length));
+      for (long entityId : entityIds) {
+        output.writeInt64NoTag(entityId);
+      }
+    }
+    if (!partitionTag.isEmpty()) {
+      output.writeString(4, partitionTag);
+    }
+  }
+
+  private InsertParam addField(Field field) {
+    fields.add(field);
+    return changed();
+  }
+
+  private InsertParam changed() {
+    serializedSize = -1;
+    return this;
+  }
+
+  private static int int64DataSize(long[] values, int offset, int length) {
+    int size = 0;
+    for (int i = offset; i < offset + length; i++) {
+      size += CodedOutputStream.computeInt64SizeNoTag(values[i]);
+    }
+    return size;
+  }
+
+  /**
+   * A column of field values, encoded as an <code>io.milvus.grpc.FieldValue</code> message. The
+   * record holding the values is written as field <code>recordFieldNumber</code> of it.
+   */
+  abstract static class Field {
+    final String name;
+    final DataType type;
+    private int recordSize = -1;
+
+    Field(String name, DataType type) {
+      this.name = name;
+      this.type = type;
+    }
+
+    abstract int rowCount();
+
+    /** @return a field reading rows <code>[from, to)</code> of this field */
+    abstract Field slice(int from, int to);
+
+    /** @return a field reading the given rows of this field, which must be in ascending order */
+    Field select(int[] rows) {
+      List<Field> runs = new ArrayList<>();
+      for (int start = 0; start < rows.length; ) {
+        int end = start + 1;
+        while (end < rows.length && rows[end] == rows[end - 1] + 1) {
+          end++;
+        }
+        runs.add(slice(rows[start], rows[end - 1] + 1));
+        start = end;
+      }
+      return runs.isEmpty() ? slice(0, 0) : concat(runs);
+    }
+
+    /** @return the size of the <code>AttrRecord</code> or <code>VectorRecord</code> payload */
+    abstract int computeRecordSize();
+
+    abstract void writeRecord(CodedOutputStream output) throws IOException;
+
+    abstract FieldValue.Builder grpcRecord(FieldValue.Builder builder);
+
+    int recordFieldNumber() {
+      return type == DataType.VECTOR_FLOAT || type == DataType.VECTOR_BINARY ? 4 : 3;
+    }
+
+    final int recordSize() {
+      if (recordSize < 0) {
+        recordSize = computeRecordSize();
+      }
+      return recordSize;
+    }
+
+    final int getSerializedSize() {
+      return (name.isEmpty() ? 0 : CodedOutputStream.computeStringSize(1, name))
+          + CodedOutputStream.computeEnumSize(2, type.getVal())
+          + lengthDelimitedSize(recordFieldNumber(), recordSize());
+    }
+
+    final void writeTo(CodedOutputStream output) throws IOException {
+      if (!name.isEmpty()) {
+        output.writeString(1, name);
+      }
+      output.writeEnum(2, type.getVal());
+      writeLengthDelimitedTag(output, recordFieldNumber(), recordSize());
+      writeRecord(output);
+    }
+
+    final FieldValue grpc() {
+      return grpcRecord(FieldValue.newBuilder()
+          .setFieldName(name)
+          .setTypeValue(type.getVal()))
+          .build();
+    }
+
+    /** @return a field reading the rows of <code>parts</code> one after another */
+    static Field concat(List<? extends Field> parts) {
+      if (parts.size() == 1) {
+        return parts.get(0);
+      }
+      return parts.get(0) instanceof AttrField ? new ConcatAttrField(parts) : new ConcatVectorField(parts);
+    }
+
+    /** @return a field reading rows <code>[from, to)</code> of <code>parts</code> read one after another */
+    static Field slice(List<? extends Field> parts, int from, int to) {
+      List<Field> slices = new ArrayList<>();
+      int start = 0;
+      for (Field part : parts) {
+        int end = start + part.rowCount();
+        if (end > from && start < to) {
+          slices.add(part.slice(Math.max(from, start) - start, Math.min(to, end) - start));
+        }
+        start = end;
+      }
+      return slices.isEmpty() ? parts.get(0).slice(0, 0) : concat(slices);
+    }
+  }
+
+  /** An attribute column, written as the single packed field <code>packedFieldNumber</code>. */
+  private abstract static class AttrField extends Field {
+    private final int packedFieldNumber;
+
+    AttrField(String name, DataType type, int packedFieldNumber) {
+      super(name, type);
+      this.packedFieldNumber = packedFieldNumber;
+    }
+
+    abstract int dataSize();
+
+    abstract void writeData(CodedOutputStream output) throws IOException;
+
+    abstract void grpcData(AttrRecord.Builder builder);
+
+    @Override
+    int computeRecordSize() {
+      return rowCount() == 0 ? 0 : lengthDelimitedSize(packedFieldNumber, dataSize());
+    }
+
+    @Override
+    void writeRecord(CodedOutputStream output) throws IOException {
+      if (rowCount() > 0) {
+        writeLengthDelimitedTag(output, packedFieldNumber, dataSize());
+        writeData(output);
+      }
+    }
+
+    @Override
+    FieldValue.Builder grpcRecord(FieldValue.Builder builder) {
+      AttrRecord.Builder record = AttrRecord.newBuilder();
+      grpcData(record);
+      return builder.setAttrRecord(record);
+    }
+  }
+
+  private static class ConcatAttrField extends AttrField {
+    private final List<AttrField> parts;
+    private final int rowCount;
+
+    ConcatAttrField(List<? extends Field> parts) {
+      super(parts.get(0).name, parts.get(0).type, ((AttrField) parts.get(0)).packedFieldNumber);
+      this.parts = parts.stream().map(part -> (AttrField) part).collect(Collectors.toList());
+      this.rowCount = this.parts.stream().mapToInt(Field::rowCount).sum();
+    }
+
+    @Override
+    int rowCount() {
+      return rowCount;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return Field.slice(parts, from, to);
+    }
+
+    @Override
+    int dataSize() {
+      return parts.stream().mapToInt(AttrField::dataSize).sum();
+    }
+
+    @Override
+    void writeData(CodedOutputStream output) throws IOException {
+      for (AttrField part : parts) {
+        part.writeData(output);
+      }
+    }
+
+    @Override
+    void grpcData(AttrRecord.Builder builder) {
+      parts.forEach(part -> part.grpcData(builder));
+    }
+  }
+
+  private static class Int32Field extends AttrField {
+    private final int[] values;
+    private final int offset;
+    private final int length;
+    private int dataSize = -1;
+
+    Int32Field(String name, int[] values, int offset, int length) {
+      super(name, DataType.INT32, 1);
+      this.values = values;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    int rowCount() {
+      return length;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return new Int32Field(name, values, offset + from, to - from);
+    }
+
+    @Override
+    Field select(int[] rows) {
+      int[] selected = new int[rows.length];
+      for (int i = 0; i < rows.length; i++) {
+        selected[i] = values[offset + rows[i]];
+      }
+      return new Int32Field(name, selected, 0, selected.length);
+    }
+
+    @Override
+    int dataSize() {
+      if (dataSize < 0) {
+        int size = 0;
+        for (int i = offset; i < offset + length; i++) {
+          size += CodedOutputStream.computeInt32SizeNoTag(values[i]);
+        }
+        dataSize = size;
+      }
+      return dataSize;
+    }
+
+    @Override
+    void writeData(CodedOutputStream output) throws IOException {
+      for (int i = offset; i < offset + length; i++) {
+        output.writeInt32NoTag(values[i]);
+      }
+    }
+
+    @Override
+    void grpcData(AttrRecord.Builder builder) {
+      for (int i = offset; i < offset + length; i++) {
+        builder.addInt32Value(values[i]);
+      }
+    }
+  }
+
+  private static class Int64Field extends AttrField {
+    private final long[] values;
+    private final int offset;
+    private final int length;
+    private int dataSize = -1;
+
+    Int64Field(String name, long[] values, int offset, int length) {
+      super(name, DataType.INT64, 2);
+      this.values = values;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    int rowCount() {
+      return length;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return new Int64Field(name, values, offset + from, to - from);
+    }
+
+    @Override
+    Field select(int[] rows) {
+      long[] selected = new long[rows.length];
+      for (int i = 0; i < rows.length; i++) {
+        selected[i] = values[offset + rows[i]];
+      }
+      return new Int64Field(name, selected, 0, selected.length);
+    }
+
+    @Override
+    int dataSize() {
+      if (dataSize < 0) {
+        dataSize = int64DataSize(values, offset, length);
+      }
+      return dataSize;
+    }
+
+    @Override
+    void writeData(CodedOutputStream output) throws IOException {
+      for (int i = offset; i < offset + length; i++) {
+        output.writeInt64NoTag(values[i]);
+      }
+    }
+
+    @Override
+    void grpcData(AttrRecord.Builder builder) {
+      for (int i = offset; i < offset + length; i++) {
+        builder.addInt64Value(values[i]);
+      }
+    }
+  }
+
+  private static class FloatField extends AttrField {
+    private final float[] values;
+    private final int offset;
+    private final int length;
+
+    FloatField(String name, float[] values, int offset, int length) {
+      super(name, DataType.FLOAT, 3);
+      this.values = values;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    int rowCount() {
+      return length;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return new FloatField(name, values, offset + from, to - from);
+    }
+
+    @Override
+    Field select(int[] rows) {
+      float[] selected = new float[rows.length];
+      for (int i = 0; i < rows.length; i++) {
+        selected[i] = values[offset + rows[i]];
+      }
+      return new FloatField(name, selected, 0, selected.length);
+    }
+
+    @Override
+    int dataSize() {
+      return length * Float.BYTES;
+    }
+
+    @Override
+    void writeData(CodedOutputStream output) throws IOException {
+      for (int i = offset; i < offset + length; i++) {
+        output.writeFloatNoTag(values[i]);
+      }
+    }
+
+    @Override
+    void grpcData(AttrRecord.Builder builder) {
+      for (int i = offset; i < offset + length; i++) {
+        builder.addFloatValue(values[i]);
+      }
+    }
+  }
+
+  private static class DoubleField extends AttrField {
+    private final double[] values;
+    private final int offset;
+    private final int length;
+
+    DoubleField(String name, double[] values, int offset, int length) {
+      super(name, DataType.DOUBLE, 4);
+      this.values = values;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    int rowCount() {
+      return length;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return new DoubleField(name, values, offset + from, to - from);
+    }
+
+    @Override
+    Field select(int[] rows) {
+      double[] selected = new double[rows.length];
+      for (int i = 0; i < rows.length; i++) {
+        selected[i] = values[offset + rows[i]];
+      }
+      return new DoubleField(name, selected, 0, selected.length);
+    }
+
+    @Override
+    int dataSize() {
+      return length * Double.BYTES;
+    }
+
+    @Override
+    void writeData(CodedOutputStream output) throws IOException {
+      for (int i = offset; i < offset + length; i++) {
+        output.writeDoubleNoTag(values[i]);
+      }
+    }
+
+    @Override
+    void grpcData(AttrRecord.Builder builder) {
+      for (int i = offset; i < offset + length; i++) {
+        builder.addDoubleValue(values[i]);
+      }
+    }
+  }
+
+  /**
+   * A vector column, written as one <code>VectorRowRecord</code> per row in the repeated
+   * <code>records</code> field of <code>VectorRecord</code>.
+   */
+  abstract static class VectorField extends Field {
+    VectorField(String name, DataType type) {
+      super(name, type);
+    }
+
+    /** @return the size of the <code>VectorRowRecord</code> payload of <code>row</code> */
+    abstract int rowSize(int row);
+
+    abstract void writeRow(int row, CodedOutputStream output) throws IOException;
+
+    abstract VectorRowRecord.Builder grpcRow(int row, VectorRowRecord.Builder builder);
+
+    @Override
+    int computeRecordSize() {
+      int size = 0;
+      for (int row = 0; row < rowCount(); row++) {
+        size += lengthDelimitedSize(1, rowSize(row));
+      }
+      return size;
+    }
+
+    @Override
+    void writeRecord(CodedOutputStream output) throws IOException {
+      for (int row = 0; row < rowCount(); row++) {
+        writeLengthDelimitedTag(output, 1, rowSize(row));
+        writeRow(row, output);
+      }
+    }
+
+    @Override
+    FieldValue.Builder grpcRecord(FieldValue.Builder builder) {
+      VectorRecord.Builder record = VectorRecord.newBuilder();
+      for (int row = 0; row < rowCount(); row++) {
+        grpcRow(row, record.addRecordsBuilder());
+      }
+      return builder.setVectorRecord(record);
+    }
+  }
+
+  private static class ConcatVectorField extends VectorField {
+    private final List<VectorField> parts;
+    private final int[] startRows;
+    private final int rowCount;
+
+    ConcatVectorField(List<? extends Field> parts) {
+      super(parts.get(0).name, parts.get(0).type);
+      this.parts = parts.stream().map(part -> (VectorField) part).collect(Collectors.toList());
+      this.startRows = new int[parts.size()];
+      int rowCount = 0;
+      for (int i = 0; i < parts.size(); i++) {
+        startRows[i] = rowCount;
+        rowCount += parts.get(i).rowCount();
+      }
+      this.rowCount = rowCount;
+    }
+
+    @Override
+    int rowCount() {
+      return rowCount;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return Field.slice(parts, from, to);
+    }
+
+    @Override
+    int rowSize(int row) {
+      int part = partOf(row);
+      return parts.get(part).rowSize(row - startRows[part]);
+    }
+
+    @Override
+    void writeRow(int row, CodedOutputStream output) throws IOException {
+      int part = partOf(row);
+      parts.get(part).writeRow(row - startRows[part], output);
+    }
+
+    @Override
+    VectorRowRecord.Builder grpcRow(int row, VectorRowRecord.Builder builder) {
+      int part = partOf(row);
+      return parts.get(part).grpcRow(row - startRows[part], builder);
+    }
+
+    private int partOf(int row) {
+      int index = Arrays.binarySearch(startRows, row);
+      if (index < 0) {
+        return -index - 2;
+      }
+      // skip empty parts starting at the same row
+      while (index + 1 < startRows.length && startRows[index + 1] == row) {
+        index++;
+      }
+      return index;
+    }
+  }
+
+  /** A float vector column, written as the packed <code>float_data</code> of each row. */
+  abstract static class FloatVectorField extends VectorField {
+    FloatVectorField(String name) {
+      super(name, DataType.VECTOR_FLOAT);
+    }
+
+    abstract int dimension(int row);
+
+    abstract float get(int row, int index);
+
+    @Override
+    int rowSize(int row) {
+      int dimension = dimension(row);
+      return dimension == 0 ? 0 : lengthDelimitedSize(1, dimension * Float.BYTES);
+    }
+
+    @Override
+    void writeRow(int row, CodedOutputStream output) throws IOException {
+      int dimension = dimension(row);
+      if (dimension > 0) {
+        writeLengthDelimitedTag(output, 1, dimension * Float.BYTES);
+        for (int i = 0; i < dimension; i++) {
+          output.writeFloatNoTag(get(row, i));
+        }
+      }
+    }
+
+    @Override
+    VectorRowRecord.Builder grpcRow(int row, VectorRowRecord.Builder builder) {
+      int dimension = dimension(row);
+      for (int i = 0; i < dimension; i++) {
+        builder.addFloatData(get(row, i));
+      }
+      return builder;
+    }
+  }
+
+  static class FloatArraysField extends FloatVectorField {
+    private final float[][] vectors;
+    private final int offset;
+    private final int length;
+
+    FloatArraysField(String name, float[][] vectors, int offset, int length) {
+      super(name);
+      this.vectors = vectors;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    int rowCount() {
+      return length;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return new FloatArraysField(name, vectors, offset + from, to - from);
+    }
+
+    @Override
+    Field select(int[] rows) {
+      float[][] selected = new float[rows.length][];
+      for (int i = 0; i < rows.length; i++) {
+        selected[i] = vectors[offset + rows[i]];
+      }
+      return new FloatArraysField(name, selected, 0, selected.length);
+    }
+
+    @Override
+    int dimension(int row) {
+      return vectors[offset + row].length;
+    }
+
+    @Override
+    float get(int row, int index) {
+      return vectors[offset + row][index];
+    }
+  }
+
+  static class FloatBufferField extends FloatVectorField {
+    private final FloatBuffer vectors;
+    private final int dimension;
+
+    FloatBufferField(String name, FloatBuffer vectors, int dimension) {
+      super(name);
+      this.vectors = vectors;
+      this.dimension = dimension;
+    }
+
+    @Override
+    int rowCount() {
+      return vectors.limit() / dimension;
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      FloatBuffer slice = vectors.duplicate();
+      slice.limit(to * dimension).position(from * dimension);
+      return new FloatBufferField(name, slice.slice(), dimension);
+    }
+
+    @Override
+    int dimension(int row) {
+      return dimension;
+    }
+
+    @Override
+    float get(int row, int index) {
+      return vectors.get(row * dimension + index);
+    }
+  }
+
+  /** A binary vector column, written as the <code>binary_data</code> of each row. */
+  static class BinaryVectorField extends VectorField {
+    private final List<ByteBuffer> vectors;
+
+    BinaryVectorField(String name, List<ByteBuffer> vectors) {
+      super(name, DataType.VECTOR_BINARY);
+      this.vectors = vectors;
+    }
+
+    @Override
+    int rowCount() {
+      return vectors.size();
+    }
+
+    @Override
+    Field slice(int from, int to) {
+      return new BinaryVectorField(name, vectors.subList(from, to));
+    }
+
+    @Override
+    int rowSize(int row) {
+      int length = vectors.get(row).remaining();
+      return length == 0 ? 0 : lengthDelimitedSize(2, length);
+    }
+
+    @Override
+    void writeRow(int row, CodedOutputStream output) throws IOException {
+      ByteBuffer vector = vectors.get(row);
+      if (vector.hasRemaining()) {
+        writeLengthDelimitedTag(output, 2, vector.remaining());
+        output.write(vector.duplicate());
+      }
+    }
+
+    @Override
+    VectorRowRecord.Builder grpcRow(int row, VectorRowRecord.Builder builder) {
+      return builder.setBinaryData(ByteString.copyFrom(vectors.get(row).slice()));
+    }
+  }
 }
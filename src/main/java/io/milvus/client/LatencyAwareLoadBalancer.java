@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.LoadBalancerRegistry;
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Balances calls over all resolved servers by the calls each has outstanding and by the latency
+ * observed of its calls, rather than in turn.
+ *
+ * @see ConnectParam.LoadBalancingPolicy
+ */
+class LatencyAwareLoadBalancer extends LoadBalancer {
+  private static final AtomicBoolean registered = new AtomicBoolean();
+
+  private final Helper helper;
+  private final ConnectParam.LoadBalancingPolicy policy;
+  private final Map<EquivalentAddressGroup, Endpoint> endpoints = new HashMap<>();
+  private Status resolutionError;
+
+  LatencyAwareLoadBalancer(Helper helper, ConnectParam.LoadBalancingPolicy policy) {
+    this.helper = helper;
+    this.policy = policy;
+  }
+
+  /** Registers the latency-aware policies with the default <code>LoadBalancerRegistry</code> once. */
+  static void register() {
+    if (registered.compareAndSet(false, true)) {
+      for (ConnectParam.LoadBalancingPolicy policy : ConnectParam.LoadBalancingPolicy.values()) {
+        if (policy.isLatencyAware()) {
+          LoadBalancerRegistry.getDefaultRegistry().register(new Provider(policy));
+        }
+      }
+    }
+  }
+
+  @Override
+  public void handleResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+    resolutionError = null;
+    Map<EquivalentAddressGroup, Endpoint> removed = new HashMap<>(endpoints);
+    for (EquivalentAddressGroup addressGroup : resolvedAddresses.getAddresses()) {
+      // subchannels are identified by their addresses only
+      EquivalentAddressGroup addresses = new EquivalentAddressGroup(addressGroup.getAddresses());
+      if (removed.remove(addresses) == null) {
+        Subchannel subchannel = helper.createSubchannel(CreateSubchannelArgs.newBuilder()
+            .setAddresses(addresses)
+            .build());
+        Endpoint endpoint = new Endpoint(subchannel);
+        endpoints.put(addresses, endpoint);
+        subchannel.start(state -> updateState(endpoint, state));
+        subchannel.requestConnection();
+      }
+    }
+    removed.forEach((addresses, endpoint) -> {
+      endpoints.remove(addresses);
+      endpoint.subchannel.shutdown();
+    });
+    updateBalancingState();
+  }
+
+  @Override
+  public void handleNameResolutionError(Status error) {
+    resolutionError = error;
+    updateBalancingState();
+  }
+
+  @Override
+  public void shutdown() {
+    endpoints.values().forEach(endpoint -> endpoint.subchannel.shutdown());
+    endpoints.clear();
+  }
+
+  private void updateState(Endpoint endpoint, ConnectivityStateInfo state) {
+    if (endpoints.get(endpoint.subchannel.getAddresses()) != endpoint) {
+      return;
+    }
+    if (state.getState() == ConnectivityState.IDLE) {
+      endpoint.subchannel.requestConnection();
+    }
+    endpoint.state = state;
+    updateBalancingState();
+  }
+
+  private void updateBalancingState() {
+    List<Endpoint> ready = new ArrayList<>(endpoints.size());
+    boolean connecting = false;
+    Status failure = resolutionError;
+    for (Endpoint endpoint : endpoints.values()) {
+      ConnectivityState state = endpoint.state.getState();
+      if (state == ConnectivityState.READY) {
+        ready.add(endpoint);
+      } else if (state == ConnectivityState.CONNECTING || state == ConnectivityState.IDLE) {
+        connecting = true;
+      } else if (failure == null && state == ConnectivityState.TRANSIENT_FAILURE) {
+        failure = endpoint.state.getStatus();
+      }
+    }
+    if (!ready.isEmpty()) {
+      helper.updateBalancingState(ConnectivityState.READY, new Picker(ready, policy));
+    } else if (connecting) {
+      helper.updateBalancingState(ConnectivityState.CONNECTING, new SubchannelPicker() {
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+          return PickResult.withNoResult();
+        }
+      });
+    } else {
+      Status error = failure != null ? failure : Status.UNAVAILABLE.withDescription("No servers resolved");
+      helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE, new SubchannelPicker() {
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+          return PickResult.withError(error);
+        }
+      });
+    }
+  }
+
+  /** Picks a ready server for each call by the load balancing policy. */
+  static class Picker extends SubchannelPicker {
+    private final List<Endpoint> ready;
+    private final ConnectParam.LoadBalancingPolicy policy;
+
+    Picker(List<Endpoint> ready, ConnectParam.LoadBalancingPolicy policy) {
+      this.ready = ready;
+      this.policy = policy;
+    }
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      Endpoint endpoint = pick();
+      return PickResult.withSubchannel(endpoint.subchannel, endpoint.tracerFactory);
+    }
+
+    Endpoint pick() {
+      int size = ready.size();
+      if (size == 1) {
+        return ready.get(0);
+      }
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      switch (policy) {
+        case POWER_OF_TWO_CHOICES: {
+          int first = random.nextInt(size);
+          int second = (first + 1 + random.nextInt(size - 1)) % size;
+          Endpoint a = ready.get(first);
+          Endpoint b = ready.get(second);
+          return b.outstanding.get() < a.outstanding.get() ? b : a;
+        }
+        case PEAK_EWMA: {
+          int start = random.nextInt(size);
+          Endpoint best = ready.get(start);
+          double bestCost = best.cost();
+          for (int i = 1; i < size; i++) {
+            Endpoint endpoint = ready.get((start + i) % size);
+            double cost = endpoint.cost();
+            if (cost < bestCost) {
+              best = endpoint;
+              bestCost = cost;
+            }
+          }
+          return best;
+        }
+        default: {
+          // least outstanding, scanning from a random start to spread ties
+          int start = random.nextInt(size);
+          Endpoint best = ready.get(start);
+          for (int i = 1; i < size; i++) {
+            Endpoint endpoint = ready.get((start + i) % size);
+            if (endpoint.outstanding.get() < best.outstanding.get()) {
+              best = endpoint;
+            }
+          }
+          return best;
+        }
+      }
+    }
+  }
+
+  /** A server with the calls outstanding on it and the peak-EWMA of their latencies. */
+  static class Endpoint {
+    // the time over which the weight of an observed latency decays to 1/e
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // the latency assumed of calls failed by the transport, and of servers yet without latencies
+    // but with calls
+    private static final double PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    final Subchannel subchannel;
+    final AtomicInteger outstanding = new AtomicInteger();
+    final ClientStreamTracer.Factory tracerFactory;
+    volatile ConnectivityStateInfo state = ConnectivityStateInfo.forNonError(ConnectivityState.IDLE);
+    private double ewmaNanos;
+    private long lastObservedNanos = System.nanoTime();
+
+    Endpoint(Subchannel subchannel) {
+      this.subchannel = subchannel;
+      this.tracerFactory = new ClientStreamTracer.Factory() {
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+          return newTracer();
+        }
+      };
+    }
+
+    ClientStreamTracer newTracer() {
+      outstanding.incrementAndGet();
+      long startNanos = System.nanoTime();
+      AtomicBoolean closed = new AtomicBoolean();
+      return new ClientStreamTracer() {
+        @Override
+        public void streamClosed(Status status) {
+          if (closed.compareAndSet(false, true)) {
+            outstanding.decrementAndGet();
+            long nanoTime = System.nanoTime();
+            if (isTransportFailure(status)) {
+              observe(PENALTY_NANOS, nanoTime);
+            } else if (status.getCode() != Status.Code.CANCELLED) {
+              // application errors still took a round trip, but cancelled calls say nothing
+              observe(nanoTime - startNanos, nanoTime);
+            }
+          }
+        }
+      };
+    }
+
+    /**
+     * @return whether <code>status</code> blames the server or the connection to it, unlike a
+     *     cancelled call or an application error such as an unknown collection
+     */
+    static boolean isTransportFailure(Status status) {
+      return status.getCode() == Status.Code.UNAVAILABLE || status.getCode() == Status.Code.DEADLINE_EXCEEDED;
+    }
+
+    /** Takes a latency higher than the average at once and decays towards lower ones over time. */
+    synchronized void observe(double latencyNanos, long nanoTime) {
+      if (latencyNanos > ewmaNanos) {
+        ewmaNanos = latencyNanos;
+      } else {
+        double weight = Math.exp(-Math.max(nanoTime - lastObservedNanos, 0) / DECAY_NANOS);
+        ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+      }
+      lastObservedNanos = nanoTime;
+    }
+
+    /** @return the expected latency of one more call, by which servers are compared */
+    synchronized double cost() {
+      int calls = outstanding.get();
+      double latency = ewmaNanos == 0 && calls > 0 ? PENALTY_NANOS : ewmaNanos;
+      return latency * (calls + 1);
+    }
+  }
+
+  private static class Provider extends LoadBalancerProvider {
+    private final ConnectParam.LoadBalancingPolicy policy;
+
+    Provider(ConnectParam.LoadBalancingPolicy policy) {
+      this.policy = policy;
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return true;
+    }
+
+    @Override
+    public int getPriority() {
+      return 5;
+    }
+
+    @Override
+    public String getPolicyName() {
+      return policy.getPolicyName();
+    }
+
+    @Override
+    public LoadBalancer newLoadBalancer(Helper helper) {
+      return new LatencyAwareLoadBalancer(helper, policy);
+    }
+  }
+}
@@ -92,6 +92,15 @@ public interface MilvusClient {
    */
   void createCollection(CollectionMapping collectionMapping);
 
+  /**
+   * Creates collection specified by <code>collectionMapping</code> asynchronously
+   *
+   * @param collectionMapping the <code>CollectionMapping</code> object
+   * @return <code>ListenableFuture</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<Void> createCollectionAsync(CollectionMapping collectionMapping);
+
   /**
    * Checks whether the collection exists
    *
@@ -100,6 +109,15 @@ public interface MilvusClient {
    */
   boolean hasCollection(String collectionName);
 
+  /**
+   * Checks whether the collection exists asynchronously
+   *
+   * @param collectionName collection to check
+   * @return a <code>ListenableFuture</code> object which holds whether the collection exists
+   * @see ListenableFuture
+   */
+  ListenableFuture<Boolean> hasCollectionAsync(String collectionName);
+
   /**
    * Drops collection
    *
@@ -107,6 +125,15 @@ public interface MilvusClient {
    */
   void dropCollection(String collectionName);
 
+  /**
+   * Drops collection asynchronously
+   *
+   * @param collectionName collection to drop
+   * @return <code>ListenableFuture</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<Void> dropCollectionAsync(String collectionName);
+
   /**
    * Creates index specified by <code>index</code>
    *
@@ -155,6 +182,16 @@ public interface MilvusClient {
    */
   void createPartition(String collectionName, String tag);
 
+  /**
+   * Creates a partition specified by <code>collectionName</code> and <code>tag</code> asynchronously
+   *
+   * @param collectionName collection name
+   * @param tag partition tag
+   * @return <code>ListenableFuture</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<Void> createPartitionAsync(String collectionName, String tag);
+
   /**
    * Checks whether the partition exists
    *
@@ -164,6 +201,16 @@ public interface MilvusClient {
    */
   boolean hasPartition(String collectionName, String tag);
 
+  /**
+   * Checks whether the partition exists asynchronously
+   *
+   * @param collectionName collection name
+   * @param tag partition tag
+   * @return a <code>ListenableFuture</code> object which holds whether the partition exists
+   * @see ListenableFuture
+   */
+  ListenableFuture<Boolean> hasPartitionAsync(String collectionName, String tag);
+
   /**
    * Lists current partitions of a collection
    *
@@ -172,6 +219,15 @@ public interface MilvusClient {
    */
   List<String> listPartitions(String collectionName);
 
+  /**
+   * Lists current partitions of a collection asynchronously
+   *
+   * @param collectionName collection name
+   * @return a <code>ListenableFuture</code> object which holds a list of partition names
+   * @see ListenableFuture
+   */
+  ListenableFuture<List<String>> listPartitionsAsync(String collectionName);
+
   /**
    * Drops partition specified by <code>collectionName</code> and <code>tag</code>
    *
@@ -180,6 +236,16 @@ public interface MilvusClient {
    */
   void dropPartition(String collectionName, String tag);
 
+  /**
+   * Drops partition specified by <code>collectionName</code> and <code>tag</code> asynchronously
+   *
+   * @param collectionName collection name
+   * @param tag partition tag
+   * @return <code>ListenableFuture</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<Void> dropPartitionAsync(String collectionName, String tag);
+
   /**
    * Inserts data specified by <code>insertParam</code>
    *
@@ -264,6 +330,123 @@ public interface MilvusClient {
    */
   ListenableFuture<SearchResult> searchAsync(SearchParam searchParam);
 
+  /**
+   * Runs a prepared search with the query vectors bound to it
+   *
+   * @param boundSearch a <code>PreparedSearch</code> bound to query vectors
+   * <pre>
+   * example usage:
+   * <code>
+   * PreparedSearch preparedSearch = PreparedSearch.prepare(searchParam);
+   * SearchResult searchResult = client.search(preparedSearch.bind(queryVectors));
+   * </code>
+   * </pre>
+   *
+   * @return <code>SearchResult</code>
+   * @see PreparedSearch
+   * @see SearchResult
+   */
+  SearchResult search(PreparedSearch.Bound boundSearch);
+
+  /**
+   * Runs a prepared search with the query vectors bound to it asynchronously
+   *
+   * @param boundSearch a <code>PreparedSearch</code> bound to query vectors
+   * @return a <code>ListenableFuture</code> object which holds the <code>SearchResult</code>
+   * @see PreparedSearch
+   * @see SearchResult
+   * @see ListenableFuture
+   */
+  ListenableFuture<SearchResult> searchAsync(PreparedSearch.Bound boundSearch);
+
+  /**
+   * Searches entities with the typed query of <code>searchPBParam</code>, sent through the
+   * <code>SearchPB</code> RPC
+   *
+   * @param searchPBParam the <code>SearchPBParam</code> object
+   * <pre>
+   * example usage:
+   * <code>
+   * SearchPBParam searchPBParam = SearchPBParam.create(collectionName)
+   *     .setQuery(Query.must(
+   *         Query.term("A", 1L, 2L),
+   *         Query.vector("float_vec").setTopK(10).addVector(queryVector)))
+   *     .setPartitionTags(partitionTagsList);
+   * </code>
+   * </pre>
+   *
+   * @return <code>SearchResult</code>
+   * @see SearchPBParam
+   * @see Query
+   * @see SearchResult
+   */
+  SearchResult searchPB(SearchPBParam searchPBParam);
+
+  /**
+   * Searches entities with the typed query of <code>searchPBParam</code> asynchronously
+   *
+   * @param searchPBParam the <code>SearchPBParam</code> object
+   * @return a <code>ListenableFuture</code> object which holds the <code>SearchResult</code>
+   * @see SearchPBParam
+   * @see SearchResult
+   * @see ListenableFuture
+   */
+  ListenableFuture<SearchResult> searchPBAsync(SearchPBParam searchPBParam);
+
+  /**
+   * Searches for the ids of the hits of <code>searchParam</code> and fetches their fields with
+   * <code>getEntityByID</code>. The fields of each chunk of queries are fetched as soon as its
+   * results arrive, and each id is fetched once however many queries it is a hit of.
+   *
+   * @param searchParam the <code>SearchParam</code> object; its result fields are ignored
+   * @param fieldNames the fields to fetch, or an empty list for all fields
+   * @return <code>SearchResult</code> whose <code>getFieldsMap</code> holds the fetched fields
+   * @see SearchParam#setQueryChunkSize(int)
+   */
+  SearchResult searchAndFetch(SearchParam searchParam, List<String> fieldNames);
+
+  /**
+   * Searches for the ids of the hits of <code>searchParam</code> and fetches their fields
+   * asynchronously
+   *
+   * @param searchParam the <code>SearchParam</code> object; its result fields are ignored
+   * @param fieldNames the fields to fetch, or an empty list for all fields
+   * @return a <code>ListenableFuture</code> object which holds the <code>SearchResult</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<SearchResult> searchAndFetchAsync(SearchParam searchParam, List<String> fieldNames);
+
+  /**
+   * Runs the search of <code>searchInSegmentParam</code> over groups of segments through the
+   * <code>SearchInSegment</code> RPC, several groups at a time, and merges their top-K results
+   *
+   * @param searchInSegmentParam the <code>SearchInSegmentParam</code> object
+   * <pre>
+   * example usage:
+   * <code>
+   * SearchInSegmentParam searchInSegmentParam = SearchInSegmentParam.create(searchParam)
+   *     .setSegmentIds(newSegmentIds)
+   *     .setMaxConcurrentRequests(16);
+   * </code>
+   * </pre>
+   *
+   * @return <code>SearchResult</code>
+   * @see SearchInSegmentParam
+   * @see SearchResult
+   */
+  SearchResult searchInSegments(SearchInSegmentParam searchInSegmentParam);
+
+  /**
+   * Runs the search of <code>searchInSegmentParam</code> over groups of segments asynchronously
+   *
+   * @param searchInSegmentParam the <code>SearchInSegmentParam</code> object
+   * @return a <code>ListenableFuture</code> object which holds the <code>SearchResult</code>
+   * @see SearchInSegmentParam
+   * @see SearchResult
+   * @see ListenableFuture
+   */
+  ListenableFuture<SearchResult> searchInSegmentsAsync(SearchInSegmentParam searchInSegmentParam);
+
   /**
    * Gets collection info
    *
@@ -273,6 +456,15 @@ public interface MilvusClient {
    */
   CollectionMapping getCollectionInfo(String collectionName);
 
+  /**
+   * Gets collection info asynchronously
+   *
+   * @param collectionName collection to describe
+   * @return a <code>ListenableFuture</code> object which holds the <code>CollectionMapping</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<CollectionMapping> getCollectionInfoAsync(String collectionName);
+
   /**
    * Lists current collections
    *
@@ -280,6 +472,14 @@ public interface MilvusClient {
    */
   List<String> listCollections();
 
+  /**
+   * Lists current collections asynchronously
+   *
+   * @return a <code>ListenableFuture</code> object which holds a list of collection names
+   * @see ListenableFuture
+   */
+  ListenableFuture<List<String>> listCollectionsAsync();
+
   /**
    * Gets current entity count of a collection
    *
@@ -288,6 +488,15 @@ public interface MilvusClient {
    */
   long countEntities(String collectionName);
 
+  /**
+   * Gets current entity count of a collection asynchronously
+   *
+   * @param collectionName collection name
+   * @return a <code>ListenableFuture</code> object which holds a count of entities in the collection
+   * @see ListenableFuture
+   */
+  ListenableFuture<Long> countEntitiesAsync(String collectionName);
+
   /**
    * Gets server status
    *
@@ -295,6 +504,14 @@ public interface MilvusClient {
    */
   String getServerStatus();
 
+  /**
+   * Gets server status asynchronously
+   *
+   * @return a <code>ListenableFuture</code> object which holds a server status string
+   * @see ListenableFuture
+   */
+  ListenableFuture<String> getServerStatusAsync();
+
   /**
    * Gets server version
    *
@@ -302,6 +519,14 @@ public interface MilvusClient {
    */
   String getServerVersion();
 
+  /**
+   * Gets server version asynchronously
+   *
+   * @return a <code>ListenableFuture</code> object which holds a server version string
+   * @see ListenableFuture
+   */
+  ListenableFuture<String> getServerVersionAsync();
+
   /**
    * Sends a command to server
    *
@@ -309,6 +534,15 @@ public interface MilvusClient {
    */
   String command(String command);
 
+  /**
+   * Sends a command to server asynchronously
+   *
+   * @param command the command string
+   * @return a <code>ListenableFuture</code> object which holds a message string
+   * @see ListenableFuture
+   */
+  ListenableFuture<String> commandAsync(String command);
+
   /**
    * Pre-loads collection to memory
    *
@@ -316,6 +550,15 @@ public interface MilvusClient {
    */
   void loadCollection(String collectionName);
 
+  /**
+   * Pre-loads collection to memory asynchronously
+   *
+   * @param collectionName collection to load
+   * @return <code>ListenableFuture</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<Void> loadCollectionAsync(String collectionName);
+
   /**
    * Drops collection index
    *
@@ -325,6 +568,16 @@ public interface MilvusClient {
    */
   void dropIndex(String collectionName, String fieldName);
 
+  /**
+   * Drops collection index asynchronously
+   *
+   * @param collectionName The collection to drop index.
+   * @param fieldName Name of the field to drop index for, or an empty string for all fields.
+   * @return <code>ListenableFuture</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<Void> dropIndexAsync(String collectionName, String fieldName);
+
   /**
    * Shows collection information. A collection consists of one or multiple partitions (including
    * the default partition), and a partitions consists of one or more segments. Each partition or
@@ -335,6 +588,15 @@ public interface MilvusClient {
    */
   String getCollectionStats(String collectionName);
 
+  /**
+   * Shows collection information as a JSON string asynchronously
+   *
+   * @param collectionName collection to show info from
+   * @return a <code>ListenableFuture</code> object which holds the JSON string
+   * @see ListenableFuture
+   */
+  ListenableFuture<String> getCollectionStatsAsync(String collectionName);
+
   /**
    * Gets entities data by id array
    *
@@ -346,6 +608,19 @@ public interface MilvusClient {
    */
   Map<Long, Map<String, Object>> getEntityByID(String collectionName, List<Long> ids, List<String> fieldNames);
 
+  /**
+   * Gets entities data by id array asynchronously
+   *
+   * @param collectionName collection to get entities from
+   * @param ids a <code>List</code> of entity ids
+   * @param fieldNames a <code>List</code> of field names. Server will only return entity
+   *                   information for these fields.
+   * @return a <code>ListenableFuture</code> object which holds a map of entity id to entity properties
+   * @see ListenableFuture
+   */
+  ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames);
+
   /**
    * Gets entities data by id array
    *
@@ -355,6 +630,41 @@ public interface MilvusClient {
    */
   Map<Long, Map<String, Object>> getEntityByID(String collectionName, List<Long> ids);
 
+  /**
+   * Gets entities data by id array asynchronously
+   *
+   * @param collectionName collection to get entities from
+   * @param ids a <code>List</code> of entity ids
+   * @return a <code>ListenableFuture</code> object which holds a map of entity id to entity properties
+   * @see ListenableFuture
+   */
+  ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(String collectionName, List<Long> ids);
+
+  /**
+   * Gets entities data by id array into primitive arrays, one per field, without boxing each value
+   *
+   * @param collectionName collection to get entities from
+   * @param ids a <code>List</code> of entity ids
+   * @param fieldNames a <code>List</code> of field names, or an empty list for all fields
+   * @return <code>ColumnarEntities</code> whose row <code>i</code> holds the entity of
+   *     <code>ids.get(i)</code>
+   * @see ColumnarEntities
+   */
+  ColumnarEntities getEntityByIDColumnar(String collectionName, List<Long> ids, List<String> fieldNames);
+
+  /**
+   * Gets entities data by id array into primitive arrays asynchronously
+   *
+   * @param collectionName collection to get entities from
+   * @param ids a <code>List</code> of entity ids
+   * @param fieldNames a <code>List</code> of field names, or an empty list for all fields
+   * @return a <code>ListenableFuture</code> object which holds the <code>ColumnarEntities</code>
+   * @see ColumnarEntities
+   * @see ListenableFuture
+   */
+  ListenableFuture<ColumnarEntities> getEntityByIDColumnarAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames);
+
   /**
    * Gets all entity ids in a segment
    *
@@ -364,6 +674,16 @@ public interface MilvusClient {
    */
   List<Long> listIDInSegment(String collectionName, Long segmentId);
 
+  /**
+   * Gets all entity ids in a segment asynchronously
+   *
+   * @param collectionName collection to get entity ids from
+   * @param segmentId segment id in the collection
+   * @return a <code>ListenableFuture</code> object which holds a list of entity ids in the segment
+   * @see ListenableFuture
+   */
+  ListenableFuture<List<Long>> listIDInSegmentAsync(String collectionName, Long segmentId);
+
   /**
    * Deletes data in a collection by a list of ids
    *
@@ -372,6 +692,16 @@ public interface MilvusClient {
    */
   void deleteEntityByID(String collectionName, List<Long> ids);
 
+  /**
+   * Deletes data in a collection by a list of ids asynchronously
+   *
+   * @param collectionName collection to delete ids from
+   * @param ids a <code>List</code> of entity ids to delete
+   * @return <code>ListenableFuture</code>
+   * @see ListenableFuture
+   */
+  ListenableFuture<Void> deleteEntityByIDAsync(String collectionName, List<Long> ids);
+
   /**
    * Flushes data in a list collections. Newly inserted or modifications on data will be visible
    * after <code>flush</code> returned
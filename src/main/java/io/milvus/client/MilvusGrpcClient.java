@@ -19,9 +19,15 @@
 
 package io.milvus.client;
 
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.ByteString;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
 import io.grpc.ClientCall;
@@ -29,11 +35,14 @@ import io.grpc.ClientInterceptor;
 import io.grpc.ForwardingClientCall;
 import io.grpc.ForwardingClientCallListener;
 import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ClientCalls;
 import io.milvus.client.exception.ClientSideMilvusException;
 import io.milvus.client.exception.MilvusException;
+import io.milvus.client.exception.PartialFailureException;
 import io.milvus.client.exception.ServerSideMilvusException;
 import io.milvus.client.exception.UnsupportedServerVersion;
 import io.milvus.grpc.*;
@@ -42,12 +51,21 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -58,23 +76,30 @@ public class MilvusGrpcClient extends AbstractMilvusGrpcClient {
   private static final String SUPPORTED_SERVER_VERSION = "0.11";
 
   private final String target;
+  private final ConnectParam connectParam;
+  private final SearchCache searchCache;
+  private final SearchSingleFlight searchSingleFlight;
+  private final EntityCache entityCache;
   private final ManagedChannel channel;
-  private final MilvusServiceGrpc.MilvusServiceBlockingStub blockingStub;
   private final MilvusServiceGrpc.MilvusServiceFutureStub futureStub;
 
   public MilvusGrpcClient(ConnectParam connectParam) {
     target = connectParam.getTarget();
-    channel = ManagedChannelBuilder
-        .forTarget(connectParam.getTarget())
-        .usePlaintext()
-        .maxInboundMessageSize(Integer.MAX_VALUE)
-        .defaultLoadBalancingPolicy(connectParam.getDefaultLoadBalancingPolicy())
-        .keepAliveTime(connectParam.getKeepAliveTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
-        .keepAliveTimeout(connectParam.getKeepAliveTimeout(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
-        .keepAliveWithoutCalls(connectParam.isKeepAliveWithoutCalls())
-        .idleTimeout(connectParam.getIdleTimeout(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
-        .build();
-    blockingStub = MilvusServiceGrpc.newBlockingStub(channel);
+    this.connectParam = connectParam;
+    searchCache = new SearchCache(
+        connectParam.getSearchCacheSize(), connectParam.getSearchCacheTtl(TimeUnit.NANOSECONDS));
+    searchSingleFlight = connectParam.isSearchSingleFlight() ? new SearchSingleFlight() : null;
+    entityCache = new EntityCache(
+        connectParam.getEntityCacheSize(), connectParam.getEntityCacheTtl(TimeUnit.NANOSECONDS));
+    if (connectParam.getChannelCount() == 1) {
+      channel = newChannel(connectParam);
+    } else {
+      List<ManagedChannel> channels = new ArrayList<>(connectParam.getChannelCount());
+      for (int i = 0; i < connectParam.getChannelCount(); i++) {
+        channels.add(newChannel(connectParam));
+      }
+      channel = new ChannelPool(channels, connectParam.getChannelSelection(), connectParam.isPinInserts());
+    }
     futureStub = MilvusServiceGrpc.newFutureStub(channel);
     try {
       String serverVersion = getServerVersion();
@@ -87,14 +112,64 @@ public class MilvusGrpcClient extends AbstractMilvusGrpcClient {
     }
   }
 
+  private static ManagedChannel newChannel(ConnectParam connectParam) {
+    LatencyAwareLoadBalancer.register();
+    StaticNameResolverProvider.registerDefault();
+    NettyChannelBuilder builder = NettyChannelBuilder
+        .forTarget(connectParam.getTarget())
+        .usePlaintext()
+        .maxInboundMessageSize(connectParam.getMaxInboundMessageSize())
+        .defaultLoadBalancingPolicy(connectParam.getDefaultLoadBalancingPolicy())
+        .keepAliveTime(connectParam.getKeepAliveTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+        .keepAliveTimeout(connectParam.getKeepAliveTimeout(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+        .keepAliveWithoutCalls(connectParam.isKeepAliveWithoutCalls())
+        .idleTimeout(connectParam.getIdleTimeout(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    if (connectParam.getEventLoopGroup() != null) {
+      builder.eventLoopGroup(connectParam.getEventLoopGroup()).channelType(connectParam.getChannelType());
+    }
+    if (connectParam.getFlowControlWindow() > 0) {
+      builder.flowControlWindow(connectParam.getFlowControlWindow());
+    }
+    if (connectParam.isDirectExecutor()) {
+      builder.directExecutor();
+    } else if (connectParam.getExecutor() != null) {
+      builder.executor(connectParam.getExecutor());
+    }
+    return builder.build();
+  }
+
   @Override
   public String target() {
     return target;
   }
 
   @Override
-  protected MilvusServiceGrpc.MilvusServiceBlockingStub blockingStub() {
-    return blockingStub;
+  protected ConnectParam connectParam() {
+    return connectParam;
+  }
+
+  @Override
+  protected SearchCache searchCache() {
+    return searchCache;
+  }
+
+  @Override
+  protected SearchSingleFlight searchSingleFlight() {
+    return searchSingleFlight;
+  }
+
+  @Override
+  protected EntityCache entityCache() {
+    return entityCache;
+  }
+
+  /**
+   * @return the hit, miss and eviction counts of the entity cache, shared by the clients returned
+   *     by <code>withLogging</code> and <code>withTimeout</code>
+   * @see ConnectParam.Builder#withEntityCache(long, long, TimeUnit)
+   */
+  public CacheStats getEntityCacheStats() {
+    return entityCache.stats();
   }
 
   @Override
@@ -129,8 +204,6 @@ public class MilvusGrpcClient extends AbstractMilvusGrpcClient {
   }
 
   private MilvusClient withInterceptors(ClientInterceptor... interceptors) {
-    final MilvusServiceGrpc.MilvusServiceBlockingStub blockingStub =
-        this.blockingStub.withInterceptors(interceptors);
     final MilvusServiceGrpc.MilvusServiceFutureStub futureStub =
         this.futureStub.withInterceptors(interceptors);
 
@@ -141,8 +214,23 @@ public class MilvusGrpcClient extends AbstractMilvusGrpcClient {
       }
 
       @Override
-      protected MilvusServiceGrpc.MilvusServiceBlockingStub blockingStub() {
-        return blockingStub;
+      protected ConnectParam connectParam() {
+        return MilvusGrpcClient.this.connectParam();
+      }
+
+      @Override
+      protected SearchCache searchCache() {
+        return MilvusGrpcClient.this.searchCache();
+      }
+
+      @Override
+      protected SearchSingleFlight searchSingleFlight() {
+        return MilvusGrpcClient.this.searchSingleFlight();
+      }
+
+      @Override
+      protected EntityCache entityCache() {
+        return MilvusGrpcClient.this.entityCache();
       }
 
       @Override
@@ -211,9 +299,175 @@ public class MilvusGrpcClient extends AbstractMilvusGrpcClient {
 }
 
 abstract class AbstractMilvusGrpcClient implements MilvusClient {
-  protected abstract MilvusServiceGrpc.MilvusServiceBlockingStub blockingStub();
+  // Insert requests are encoded straight from the InsertParam columns, see StreamingMarshaller
+  private static final MethodDescriptor<InsertParam, EntityIds> INSERT_METHOD =
+      MilvusServiceGrpc.getInsertMethod()
+          .toBuilder(InsertParam.MARSHALLER, ProtoUtils.marshaller(EntityIds.getDefaultInstance()))
+          .build();
+  // Search responses parsed without their entity fields, for SearchParam.ResultFields.IDS_ONLY
+  private static final MethodDescriptor<io.milvus.grpc.SearchParam, QueryResult> SEARCH_IDS_ONLY_METHOD =
+      MilvusServiceGrpc.getSearchMethod()
+          .toBuilder(ProtoUtils.marshaller(io.milvus.grpc.SearchParam.getDefaultInstance()),
+              new IdsOnlyQueryResultMarshaller())
+          .build();
+  // Prepared searches are encoded from their cached request prefix and bound vectors
+  private static final MethodDescriptor<PreparedSearch.Bound, QueryResult> PREPARED_SEARCH_METHOD =
+      MilvusServiceGrpc.getSearchMethod()
+          .toBuilder(PreparedSearch.Bound.MARSHALLER, ProtoUtils.marshaller(QueryResult.getDefaultInstance()))
+          .build();
+  private static final MethodDescriptor<PreparedSearch.Bound, QueryResult> PREPARED_SEARCH_IDS_ONLY_METHOD =
+      MilvusServiceGrpc.getSearchMethod()
+          .toBuilder(PreparedSearch.Bound.MARSHALLER, new IdsOnlyQueryResultMarshaller())
+          .build();
+  private static final MethodDescriptor<SearchParamPB, QueryResult> SEARCH_PB_IDS_ONLY_METHOD =
+      MilvusServiceGrpc.getSearchPBMethod()
+          .toBuilder(ProtoUtils.marshaller(SearchParamPB.getDefaultInstance()),
+              new IdsOnlyQueryResultMarshaller())
+          .build();
+  // the most bytes an id takes in a request
+  private static final int MAX_VARINT_BYTES = 10;
+
+  protected abstract ConnectParam connectParam();
+  protected abstract SearchCache searchCache();
+  /** @return the shared in-flight searches, or <code>null</code> if single-flight is off */
+  protected abstract SearchSingleFlight searchSingleFlight();
+  protected abstract EntityCache entityCache();
   protected abstract MilvusServiceGrpc.MilvusServiceFutureStub futureStub();
 
+  /**
+   * Starts a unary call of <code>method</code> on the channel and with the call options of
+   * <code>futureStub()</code>, so that interceptors and deadlines still apply to methods whose
+   * marshallers differ from the generated ones.
+   */
+  private <ReqT, RespT> ListenableFuture<RespT> futureUnaryCall(
+      MethodDescriptor<ReqT, RespT> method, ReqT request) {
+    MilvusServiceGrpc.MilvusServiceFutureStub stub = futureStub();
+    return ClientCalls.futureUnaryCall(stub.getChannel().newCall(method, stub.getCallOptions()), request);
+  }
+
+  /**
+   * Splits <code>ids</code> into chunks of at most <code>idChunkSize</code> ids, each of which fits
+   * in <code>maxRequestSize</code> bytes. An empty list still makes one chunk.
+   */
+  private List<List<Long>> idChunks(List<Long> ids) {
+    int chunkSize = Math.min(connectParam().getIdChunkSize(),
+        Math.max(1, connectParam().getMaxRequestSize() / MAX_VARINT_BYTES));
+    return ids.size() <= chunkSize ? Collections.singletonList(ids) : Lists.partition(ids, chunkSize);
+  }
+
+  /**
+   * Sends <code>requests</code> with at most <code>maxConcurrent</code> of them awaiting a response
+   * at a time; each further request is sent when an earlier one completes. Sends are run in a loop
+   * by one thread at a time, so responses completing inline do not deepen the stack.
+   *
+   * @return the responses in request order
+   */
+  private <ReqT, RespT> List<ListenableFuture<RespT>> sendConcurrently(
+      List<ReqT> requests, int maxConcurrent, Function<ReqT, ListenableFuture<RespT>> send) {
+    if (requests.size() == 1) {
+      return Collections.singletonList(send.apply(requests.get(0)));
+    }
+    List<SettableFuture<RespT>> responses = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      responses.add(SettableFuture.create());
+    }
+    AtomicInteger next = new AtomicInteger();
+    // the sends asked for but not yet made; whoever raises it from 0 makes them all
+    AtomicInteger wanted = new AtomicInteger();
+    Runnable sendNext = new Runnable() {
+      @Override
+      public void run() {
+        if (wanted.getAndIncrement() != 0) {
+          return;
+        }
+        do {
+          sendOne();
+        } while (wanted.decrementAndGet() != 0);
+      }
+
+      private void sendOne() {
+        for (int i = next.getAndIncrement(); i < requests.size(); i = next.getAndIncrement()) {
+          SettableFuture<RespT> response = responses.get(i);
+          if (response.isCancelled()) {
+            continue;
+          }
+          ListenableFuture<RespT> sent;
+          try {
+            sent = send.apply(requests.get(i));
+          } catch (Throwable t) {
+            sent = Futures.immediateFailedFuture(t);
+          }
+          response.setFuture(sent);
+          sent.addListener(this, MoreExecutors.directExecutor());
+          return;
+        }
+      }
+    };
+    for (int i = 0; i < Math.min(maxConcurrent, requests.size()); i++) {
+      sendNext.run();
+    }
+    return new ArrayList<>(responses);
+  }
+
+  /**
+   * Runs <code>search</code> through the search cache and then through single-flight, for those
+   * which are enabled.
+   */
+  private ListenableFuture<SearchResult> cachedSearch(
+      String collectionName, String kind, Supplier<ByteString> request,
+      Supplier<ListenableFuture<SearchResult>> search) {
+    SearchCache searchCache = searchCache();
+    SearchSingleFlight searchSingleFlight = searchSingleFlight();
+    if (!searchCache.isEnabled() && searchSingleFlight == null) {
+      return search.get();
+    }
+    SearchCache.Key key = new SearchCache.Key(collectionName, kind, request.get());
+    Supplier<ListenableFuture<SearchResult>> sharedSearch =
+        searchSingleFlight == null ? search : () -> searchSingleFlight.get(key, search);
+    return searchCache.isEnabled() ? searchCache.get(key, sharedSearch) : sharedSearch.get();
+  }
+
+  /**
+   * Runs <code>modification</code> of the given collections, dropping their cached search results
+   * both when it starts and when it completes.
+   */
+  private <T> ListenableFuture<T> invalidatingSearches(
+      List<String> collectionNames, Supplier<ListenableFuture<T>> modification) {
+    collectionNames.forEach(this::invalidateSearches);
+    ListenableFuture<T> result = modification.get();
+    result.addListener(() -> collectionNames.forEach(this::invalidateSearches), MoreExecutors.directExecutor());
+    return result;
+  }
+
+  /**
+   * Runs <code>modification</code> of entities of a collection, dropping the cached entities of
+   * <code>ids</code>, or of the whole collection if <code>null</code>, both when it starts and when
+   * it completes.
+   */
+  private <T> ListenableFuture<T> invalidatingEntities(
+      String collectionName, Collection<Long> ids, Supplier<ListenableFuture<T>> modification) {
+    EntityCache entityCache = entityCache();
+    if (!entityCache.isEnabled()) {
+      return modification.get();
+    }
+    Runnable invalidate = ids == null
+        ? () -> entityCache.invalidate(collectionName)
+        : () -> entityCache.invalidate(collectionName, ids);
+    invalidate.run();
+    ListenableFuture<T> result = modification.get();
+    result.addListener(invalidate, MoreExecutors.directExecutor());
+    return result;
+  }
+
+  /** Keeps searches of <code>collectionName</code> from reusing results of earlier searches. */
+  private void invalidateSearches(String collectionName) {
+    searchCache().invalidate(collectionName);
+    SearchSingleFlight searchSingleFlight = searchSingleFlight();
+    if (searchSingleFlight != null) {
+      searchSingleFlight.forget(collectionName);
+    }
+  }
+
   private void translateExceptions(Runnable body) {
     translateExceptions(() -> {
       body.run();
@@ -237,12 +491,32 @@ abstract class AbstractMilvusGrpcClient implements MilvusClient {
   }
 
   private <R> R translate(Throwable e) {
+    throw milvusException(e);
+  }
+
+  /**
+   * Waits for <code>future</code> on behalf of a blocking method. If the waiting thread is
+   * interrupted, the call is cancelled and the thread stays interrupted.
+   */
+  private <T> T await(ListenableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ClientSideMilvusException(target(), e);
+    } catch (ExecutionException e) {
+      throw milvusException(e.getCause());
+    }
+  }
+
+  private MilvusException milvusException(Throwable e) {
     if (e instanceof MilvusException) {
-      throw (MilvusException) e;
+      return (MilvusException) e;
     } else if (e.getCause() == null || e.getCause() == e) {
-      throw new ClientSideMilvusException(target(), e);
+      return new ClientSideMilvusException(target(), e);
     } else {
-      return translate(e.getCause());
+      return milvusException(e.getCause());
     }
   }
 
@@ -255,35 +529,56 @@ abstract class AbstractMilvusGrpcClient implements MilvusClient {
 
   @Override
   public void createCollection(@Nonnull CollectionMapping collectionMapping) {
-    translateExceptions(() -> {
-      Status response = blockingStub().createCollection(collectionMapping.grpc());
-      checkResponseStatus(response);
+    translateExceptions(() -> await(createCollectionAsync(collectionMapping)));
+  }
+
+  @Override
+  public ListenableFuture<Void> createCollectionAsync(@Nonnull CollectionMapping collectionMapping) {
+    return translateExceptions(() -> {
+      ListenableFuture<Status> response = futureStub().createCollection(collectionMapping.grpc());
+      return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public boolean hasCollection(@Nonnull String collectionName) {
+    return translateExceptions(() -> await(hasCollectionAsync(collectionName)));
+  }
+
+  @Override
+  public ListenableFuture<Boolean> hasCollectionAsync(@Nonnull String collectionName) {
     return translateExceptions(() -> {
       CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
-      BoolReply response = blockingStub().hasCollection(request);
-      checkResponseStatus(response.getStatus());
-      return response.getBoolReply();
+      return Futures.transform(futureStub().hasCollection(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getBoolReply();
+      }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public void dropCollection(@Nonnull String collectionName) {
-    translateExceptions(() -> {
+    translateExceptions(() -> await(dropCollectionAsync(collectionName)));
+  }
+
+  @Override
+  public ListenableFuture<Void> dropCollectionAsync(@Nonnull String collectionName) {
+    return translateExceptions(() -> {
       CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
-      Status response = blockingStub().dropCollection(request);
-      checkResponseStatus(response);
+      ListenableFuture<Void> result = invalidatingEntities(collectionName, null, () ->
+          invalidatingSearches(Collections.singletonList(collectionName), () -> {
+            ListenableFuture<Status> response = futureStub().dropCollection(request);
+            return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
+          }));
+      result.addListener(() -> searchCache().forget(collectionName), MoreExecutors.directExecutor());
+      return result;
     });
   }
 
   @Override
   public void createIndex(@Nonnull Index index) {
     translateExceptions(() -> {
-      Futures.getUnchecked(createIndexAsync(index));
+      await(createIndexAsync(index));
     });
   }
 
@@ -291,111 +586,347 @@ abstract class AbstractMilvusGrpcClient implements MilvusClient {
   public ListenableFuture<Void> createIndexAsync(@Nonnull Index index) {
     return translateExceptions(() -> {
       IndexParam request = index.grpc();
-      ListenableFuture<Status> responseFuture = futureStub().createIndex(request);
-      return Futures.transform(responseFuture, this::checkResponseStatus, MoreExecutors.directExecutor());
+      return invalidatingSearches(Collections.singletonList(index.getCollectionName()), () -> {
+        ListenableFuture<Status> responseFuture = futureStub().createIndex(request);
+        return Futures.transform(responseFuture, this::checkResponseStatus, MoreExecutors.directExecutor());
+      });
     });
   }
 
   @Override
   public void createPartition(String collectionName, String tag) {
-    translateExceptions(() -> {
+    translateExceptions(() -> await(createPartitionAsync(collectionName, tag)));
+  }
+
+  @Override
+  public ListenableFuture<Void> createPartitionAsync(String collectionName, String tag) {
+    return translateExceptions(() -> {
       PartitionParam request = PartitionParam.newBuilder().setCollectionName(collectionName).setTag(tag).build();
-      Status response = blockingStub().createPartition(request);
-      checkResponseStatus(response);
+      ListenableFuture<Status> response = futureStub().createPartition(request);
+      return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public boolean hasPartition(String collectionName, String tag) {
+    return translateExceptions(() -> await(hasPartitionAsync(collectionName, tag)));
+  }
+
+  @Override
+  public ListenableFuture<Boolean> hasPartitionAsync(String collectionName, String tag) {
     return translateExceptions(() -> {
       PartitionParam request = PartitionParam.newBuilder().setCollectionName(collectionName).setTag(tag).build();
-      BoolReply response = blockingStub().hasPartition(request);
-      checkResponseStatus(response.getStatus());
-      return response.getBoolReply();
+      return Futures.transform(futureStub().hasPartition(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getBoolReply();
+      }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public List<String> listPartitions(String collectionName) {
+    return translateExceptions(() -> await(listPartitionsAsync(collectionName)));
+  }
+
+  @Override
+  public ListenableFuture<List<String>> listPartitionsAsync(String collectionName) {
     return translateExceptions(() -> {
       CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
-      PartitionList response = blockingStub().showPartitions(request);
-      checkResponseStatus(response.getStatus());
-      return response.getPartitionTagArrayList();
+      return Futures.transform(futureStub().showPartitions(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getPartitionTagArrayList();
+      }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public void dropPartition(String collectionName, String tag) {
-    translateExceptions(() -> {
+    translateExceptions(() -> await(dropPartitionAsync(collectionName, tag)));
+  }
+
+  @Override
+  public ListenableFuture<Void> dropPartitionAsync(String collectionName, String tag) {
+    return translateExceptions(() -> {
       PartitionParam request =
           PartitionParam.newBuilder().setCollectionName(collectionName).setTag(tag).build();
-      Status response = blockingStub().dropPartition(request);
-      checkResponseStatus(response);
+      return invalidatingEntities(collectionName, null, () ->
+          invalidatingSearches(Collections.singletonList(collectionName), () -> {
+            ListenableFuture<Status> response = futureStub().dropPartition(request);
+            return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
+          }));
     });
   }
 
   @Override
   public List<Long> insert(@Nonnull InsertParam insertParam) {
-    return translateExceptions(() -> Futures.getUnchecked(insertAsync(insertParam)));
+    return translateExceptions(() -> await(insertAsync(insertParam)));
   }
 
   @Override
   public ListenableFuture<List<Long>> insertAsync(@Nonnull InsertParam insertParam) {
     return translateExceptions(() -> {
-      io.milvus.grpc.InsertParam request = insertParam.grpc();
-      ListenableFuture<EntityIds> responseFuture = futureStub().insert(request);
-      return Futures.transform(responseFuture, entityIds -> {
-        checkResponseStatus(entityIds.getStatus());
-        return entityIds.getEntityIdArrayList();
+      List<InsertParam> parts = insertParam.split(connectParam().getMaxRequestSize());
+      List<ListenableFuture<EntityIds>> responseFutures = new ArrayList<>(parts.size());
+      Supplier<ListenableFuture<List<EntityIds>>> insert = () -> invalidatingSearches(
+          Collections.singletonList(insertParam.getCollectionName()), () -> {
+            for (InsertParam part : parts) {
+              responseFutures.add(futureUnaryCall(INSERT_METHOD, part));
+            }
+            return Futures.allAsList(responseFutures);
+          });
+      long[] insertIds = insertParam.getEntityIds();
+      // inserting an existing id replaces its entity
+      ListenableFuture<List<EntityIds>> allResponses = insertIds.length == 0 ? insert.get()
+          : invalidatingEntities(insertParam.getCollectionName(), Longs.asList(insertIds), insert);
+      return Futures.transform(allResponses, responses -> {
+        if (responses.size() == 1) {
+          checkResponseStatus(responses.get(0).getStatus());
+          return responses.get(0).getEntityIdArrayList();
+        }
+        List<Long> entityIds = new ArrayList<>(insertParam.getRowCount());
+        for (EntityIds response : responses) {
+          checkResponseStatus(response.getStatus());
+          entityIds.addAll(response.getEntityIdArrayList());
+        }
+        return entityIds;
       }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public SearchResult search(@Nonnull SearchParam searchParam) {
-    return translateExceptions(() -> Futures.getUnchecked(searchAsync(searchParam)));
+    return translateExceptions(() -> await(searchAsync(searchParam)));
   }
 
   @Override
   public ListenableFuture<SearchResult> searchAsync(@Nonnull SearchParam searchParam) {
     return translateExceptions(() -> {
-      io.milvus.grpc.SearchParam request = searchParam.grpc();
-      ListenableFuture<QueryResult> responseFuture = futureStub().search(request);
-      return Futures.transform(responseFuture, queryResult -> {
-        checkResponseStatus(queryResult.getStatus());
-        return buildSearchResponse(queryResult);
+      io.milvus.grpc.SearchParam searchRequest = searchParam.grpc();
+      SearchParam.ResultFields resultFields = searchParam.getResultFields();
+      return cachedSearch(searchRequest.getCollectionName(), "Search/" + resultFields,
+          searchRequest::toByteString, () -> {
+            List<io.milvus.grpc.SearchParam> requests = searchParam.split(connectParam().getMaxRequestSize());
+            List<ListenableFuture<QueryResult>> responseFutures = sendConcurrently(
+                requests, searchParam.getMaxConcurrentChunks(), request ->
+                    resultFields == SearchParam.ResultFields.IDS_ONLY
+                        ? futureUnaryCall(SEARCH_IDS_ONLY_METHOD, request)
+                        : futureStub().search(request));
+            return mergeSearchResponses(responseFutures, resultFields);
+          });
+    });
+  }
+
+  @Override
+  public SearchResult search(@Nonnull PreparedSearch.Bound boundSearch) {
+    return translateExceptions(() -> await(searchAsync(boundSearch)));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAsync(@Nonnull PreparedSearch.Bound boundSearch) {
+    return translateExceptions(() -> {
+      PreparedSearch preparedSearch = boundSearch.getPreparedSearch();
+      SearchParam.ResultFields resultFields = preparedSearch.getResultFields();
+      return cachedSearch(preparedSearch.getCollectionName(), "PreparedSearch/" + resultFields,
+          boundSearch::toByteString, () -> {
+            List<PreparedSearch.Bound> requests = boundSearch.split(connectParam().getMaxRequestSize());
+            List<ListenableFuture<QueryResult>> responseFutures = sendConcurrently(
+                requests, preparedSearch.getMaxConcurrentChunks(), request ->
+                    futureUnaryCall(resultFields == SearchParam.ResultFields.IDS_ONLY
+                        ? PREPARED_SEARCH_IDS_ONLY_METHOD
+                        : PREPARED_SEARCH_METHOD, request));
+            return mergeSearchResponses(responseFutures, resultFields);
+          });
+    });
+  }
+
+  /** Checks and merges the responses to the parts of a search, in query order. */
+  private ListenableFuture<SearchResult> mergeSearchResponses(
+      List<ListenableFuture<QueryResult>> responseFutures, SearchParam.ResultFields resultFields) {
+    return Futures.transform(Futures.allAsList(responseFutures), queryResults -> {
+      queryResults.forEach(queryResult -> checkResponseStatus(queryResult.getStatus()));
+      return buildSearchResponse(mergeQueryResults(queryResults),
+          resultFields == SearchParam.ResultFields.LAZY);
+    }, MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public SearchResult searchPB(@Nonnull SearchPBParam searchPBParam) {
+    return translateExceptions(() -> await(searchPBAsync(searchPBParam)));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchPBAsync(@Nonnull SearchPBParam searchPBParam) {
+    return translateExceptions(() -> {
+      SearchParamPB request = searchPBParam.grpc();
+      SearchParam.ResultFields resultFields = searchPBParam.getResultFields();
+      return cachedSearch(request.getCollectionName(), "SearchPB/" + resultFields, request::toByteString, () -> {
+        ListenableFuture<QueryResult> responseFuture = resultFields == SearchParam.ResultFields.IDS_ONLY
+            ? futureUnaryCall(SEARCH_PB_IDS_ONLY_METHOD, request)
+            : futureStub().searchPB(request);
+        return Futures.transform(responseFuture, queryResult -> {
+          checkResponseStatus(queryResult.getStatus());
+          return buildSearchResponse(queryResult, resultFields == SearchParam.ResultFields.LAZY);
+        }, MoreExecutors.directExecutor());
+      });
+    });
+  }
+
+  @Override
+  public SearchResult searchAndFetch(@Nonnull SearchParam searchParam, @Nonnull List<String> fieldNames) {
+    return translateExceptions(() -> await(searchAndFetchAsync(searchParam, fieldNames)));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAndFetchAsync(
+      @Nonnull SearchParam searchParam, @Nonnull List<String> fieldNames) {
+    return translateExceptions(() -> {
+      SearchParam idsOnly = SearchParam.of(searchParam.grpc(), searchParam)
+          .setResultFields(SearchParam.ResultFields.IDS_ONLY);
+      String collectionName = searchParam.grpc().getCollectionName();
+      List<io.milvus.grpc.SearchParam> requests = idsOnly.split(connectParam().getMaxRequestSize());
+      List<ListenableFuture<QueryResult>> responseFutures = sendConcurrently(
+          requests, idsOnly.getMaxConcurrentChunks(), request -> futureUnaryCall(SEARCH_IDS_ONLY_METHOD, request));
+
+      // each chunk fetches the ids no earlier chunk has, once its results arrive
+      Set<Long> fetchedIds = ConcurrentHashMap.newKeySet();
+      List<ListenableFuture<Map<Long, Map<String, Object>>>> fetches = new CopyOnWriteArrayList<>();
+      AtomicBoolean failed = new AtomicBoolean();
+      List<ListenableFuture<QueryResult>> chunks = new ArrayList<>(responseFutures.size());
+      for (ListenableFuture<QueryResult> responseFuture : responseFutures) {
+        chunks.add(Futures.transform(responseFuture, queryResult -> {
+          checkResponseStatus(queryResult.getStatus());
+          List<Long> ids = queryResult.getEntities().getIdsList().stream()
+              .filter(id -> id != -1 && fetchedIds.add(id))
+              .collect(Collectors.toList());
+          if (!ids.isEmpty() && !failed.get()) {
+            ListenableFuture<Map<Long, Map<String, Object>>> fetch =
+                getEntityByIDAsync(collectionName, ids, fieldNames);
+            fetches.add(fetch);
+            // the search may have failed while the fetch was being sent
+            if (failed.get()) {
+              fetch.cancel(true);
+            }
+          }
+          return queryResult;
+        }, MoreExecutors.directExecutor()));
+      }
+      ListenableFuture<SearchResult> result = Futures.transformAsync(Futures.allAsList(chunks), queryResults -> {
+        SearchResult searchResult = buildSearchResponse(mergeQueryResults(queryResults), false);
+        return Futures.transform(Futures.allAsList(fetches), entityMaps -> {
+          Map<Long, Map<String, Object>> entities = new HashMap<>(fetchedIds.size());
+          entityMaps.forEach(entities::putAll);
+          return searchResult.withEntities(entities);
+        }, MoreExecutors.directExecutor());
+      }, MoreExecutors.directExecutor());
+      // a failed chunk or a cancelled search stops the other chunks and fetches
+      Futures.addCallback(result, new FutureCallback<SearchResult>() {
+        @Override
+        public void onSuccess(SearchResult searchResult) {
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          failed.set(true);
+          responseFutures.forEach(responseFuture -> responseFuture.cancel(true));
+          fetches.forEach(fetch -> fetch.cancel(true));
+        }
+      }, MoreExecutors.directExecutor());
+      return result;
+    });
+  }
+
+  @Override
+  public SearchResult searchInSegments(@Nonnull SearchInSegmentParam searchInSegmentParam) {
+    return translateExceptions(() -> await(searchInSegmentsAsync(searchInSegmentParam)));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchInSegmentsAsync(@Nonnull SearchInSegmentParam searchInSegmentParam) {
+    return translateExceptions(() -> {
+      SearchParam searchParam = searchInSegmentParam.getSearchParam();
+      String collectionName = searchParam.grpc().getCollectionName();
+      ListenableFuture<List<Long>> segmentIds;
+      if (searchInSegmentParam.getSegmentIds() != null) {
+        segmentIds = Futures.immediateFuture(searchInSegmentParam.getSegmentIds());
+      } else {
+        CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
+        segmentIds = Futures.transform(futureStub().showCollectionInfo(request), response -> {
+          checkResponseStatus(response.getStatus());
+          return SearchInSegmentParam.segmentIdsOf(response.getJsonInfo());
+        }, MoreExecutors.directExecutor());
+      }
+      return Futures.transformAsync(segmentIds, ids -> {
+        List<ListenableFuture<QueryResult>> responseFutures = sendConcurrently(
+            searchInSegmentParam.grpc(ids), searchInSegmentParam.getMaxConcurrentRequests(),
+            request -> futureStub().searchInSegment(request));
+        boolean lazyFields = searchParam.getResultFields() == SearchParam.ResultFields.LAZY;
+        return Futures.transform(Futures.allAsList(responseFutures), queryResults -> {
+          if (queryResults.isEmpty()) {
+            io.milvus.grpc.SearchParam request = searchParam.grpc();
+            int numQueries = request.getVectorParamCount() == 1
+                ? request.getVectorParam(0).getRowRecord().getRecordsCount()
+                : 0;
+            return new SearchResult(numQueries, 0, Collections.nCopies(numQueries, Collections.emptyList()),
+                Collections.nCopies(numQueries, Collections.emptyList()), Collections.emptyList());
+          }
+          List<SearchResult> results = new ArrayList<>(queryResults.size());
+          for (QueryResult queryResult : queryResults) {
+            checkResponseStatus(queryResult.getStatus());
+            results.add(buildSearchResponse(queryResult, lazyFields));
+          }
+          MetricType metricType = searchParam.getMetricType();
+          return SearchResult.merge(results,
+              metricType != null ? metricType == MetricType.IP : SearchResult.isDescending(results));
+        }, MoreExecutors.directExecutor());
       }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public CollectionMapping getCollectionInfo(@Nonnull String collectionName) {
+    return translateExceptions(() -> await(getCollectionInfoAsync(collectionName)));
+  }
+
+  @Override
+  public ListenableFuture<CollectionMapping> getCollectionInfoAsync(@Nonnull String collectionName) {
     return translateExceptions(() -> {
       CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
-      Mapping response = blockingStub().describeCollection(request);
-      checkResponseStatus(response.getStatus());
-      return new CollectionMapping(response);
+      return Futures.transform(futureStub().describeCollection(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return new CollectionMapping(response);
+      }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public List<String> listCollections() {
+    return translateExceptions(() -> await(listCollectionsAsync()));
+  }
+
+  @Override
+  public ListenableFuture<List<String>> listCollectionsAsync() {
     return translateExceptions(() -> {
       Command request = Command.newBuilder().setCmd("").build();
-      CollectionNameList response = blockingStub().showCollections(request);
-      checkResponseStatus(response.getStatus());
-      return response.getCollectionNamesList();
+      return Futures.transform(futureStub().showCollections(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getCollectionNamesList();
+      }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public long countEntities(@Nonnull String collectionName) {
+    return translateExceptions(() -> await(countEntitiesAsync(collectionName)));
+  }
+
+  @Override
+  public ListenableFuture<Long> countEntitiesAsync(@Nonnull String collectionName) {
     return translateExceptions(() -> {
       CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
-      CollectionRowCount response = blockingStub().countCollection(request);
-      checkResponseStatus(response.getStatus());
-      return response.getCollectionRowCount();
+      return Futures.transform(futureStub().countCollection(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getCollectionRowCount();
+      }, MoreExecutors.directExecutor());
     });
   }
 
@@ -404,74 +935,138 @@ abstract class AbstractMilvusGrpcClient implements MilvusClient {
     return command("status");
   }
 
+  @Override
+  public ListenableFuture<String> getServerStatusAsync() {
+    return commandAsync("status");
+  }
+
   @Override
   public String getServerVersion() {
     return command("version");
   }
 
+  @Override
+  public ListenableFuture<String> getServerVersionAsync() {
+    return commandAsync("version");
+  }
+
+  @Override
   public String command(@Nonnull String command) {
+    return translateExceptions(() -> await(commandAsync(command)));
+  }
+
+  @Override
+  public ListenableFuture<String> commandAsync(@Nonnull String command) {
     return translateExceptions(() -> {
       Command request = Command.newBuilder().setCmd(command).build();
-      StringReply response = blockingStub().cmd(request);
-      checkResponseStatus(response.getStatus());
-      return response.getStringReply();
+      return Futures.transform(futureStub().cmd(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getStringReply();
+      }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public void loadCollection(@Nonnull String collectionName) {
-    translateExceptions(() -> {
+    translateExceptions(() -> await(loadCollectionAsync(collectionName)));
+  }
+
+  @Override
+  public ListenableFuture<Void> loadCollectionAsync(@Nonnull String collectionName) {
+    return translateExceptions(() -> {
       CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
-      Status response = blockingStub().preloadCollection(request);
-      checkResponseStatus(response);
+      ListenableFuture<Status> response = futureStub().preloadCollection(request);
+      return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public void dropIndex(String collectionName, String fieldName) {
-    translateExceptions(() -> {
+    translateExceptions(() -> await(dropIndexAsync(collectionName, fieldName)));
+  }
+
+  @Override
+  public ListenableFuture<Void> dropIndexAsync(String collectionName, String fieldName) {
+    return translateExceptions(() -> {
       IndexParam request = IndexParam.newBuilder()
           .setCollectionName(collectionName)
           .setFieldName(fieldName)
           .build();
-      Status response = blockingStub().dropIndex(request);
-      checkResponseStatus(response);
+      ListenableFuture<Status> response = futureStub().dropIndex(request);
+      return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public String getCollectionStats(String collectionName) {
+    return translateExceptions(() -> await(getCollectionStatsAsync(collectionName)));
+  }
+
+  @Override
+  public ListenableFuture<String> getCollectionStatsAsync(String collectionName) {
     return translateExceptions(() -> {
       CollectionName request = CollectionName.newBuilder().setCollectionName(collectionName).build();
-      CollectionInfo response = blockingStub().showCollectionInfo(request);
-      checkResponseStatus(response.getStatus());
-      return response.getJsonInfo();
+      return Futures.transform(futureStub().showCollectionInfo(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getJsonInfo();
+      }, MoreExecutors.directExecutor());
     });
   }
   
   @Override
   public Map<Long, Map<String, Object>> getEntityByID(String collectionName, List<Long> ids, List<String> fieldNames) {
+    return translateExceptions(() -> await(getEntityByIDAsync(collectionName, ids, fieldNames)));
+  }
+
+  @Override
+  public ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames) {
     return translateExceptions(() -> {
+      EntityCache entityCache = entityCache();
+      if (!entityCache.isEnabled()) {
+        return fetchEntities(collectionName, ids, fieldNames);
+      }
+      return entityCache.get(collectionName, ids, fieldNames,
+          missingIds -> fetchEntities(collectionName, missingIds, fieldNames));
+    });
+  }
+
+  private ListenableFuture<Map<Long, Map<String, Object>>> fetchEntities(
+      String collectionName, List<Long> ids, List<String> fieldNames) {
+    return translateExceptions(() -> {
+      List<List<Long>> chunks = idChunks(ids);
+      ListenableFuture<List<Entities>> responses = getEntityByIDChunks(collectionName, chunks, fieldNames);
+      return Futures.transform(responses, chunkResponses -> {
+        Map<Long, Map<String, Object>> entities = new HashMap<>(ids.size());
+        for (int i = 0; i < chunks.size(); i++) {
+          Entities response = chunkResponses.get(i);
+          checkResponseStatus(response.getStatus());
+          Map<String, Iterator<?>> fieldIterators = response.getFieldsList()
+              .stream()
+              .collect(Collectors.toMap(FieldValue::getFieldName, this::fieldValueIterator));
+          Iterator<Long> idIterator = chunks.get(i).iterator();
+          for (boolean valid : response.getValidRowList()) {
+            long id = idIterator.next();
+            if (valid) {
+              entities.put(id, toMap(fieldIterators));
+            }
+          }
+        }
+        return entities;
+      }, MoreExecutors.directExecutor());
+    });
+  }
+
+  private ListenableFuture<List<Entities>> getEntityByIDChunks(
+      String collectionName, List<List<Long>> chunks, List<String> fieldNames) {
+    return Futures.allAsList(sendConcurrently(chunks, connectParam().getMaxConcurrentIdChunks(), chunk -> {
       EntityIdentity request = EntityIdentity.newBuilder()
           .setCollectionName(collectionName)
-          .addAllIdArray(ids)
+          .addAllIdArray(chunk)
           .addAllFieldNames(fieldNames)
           .build();
-      Entities response = blockingStub().getEntityByID(request);
-      checkResponseStatus(response.getStatus());
-      Map<String, Iterator<?>> fieldIterators = response.getFieldsList()
-          .stream()
-          .collect(Collectors.toMap(FieldValue::getFieldName, this::fieldValueIterator));
-      Iterator<Long> idIterator = ids.iterator();
-      Map<Long, Map<String, Object>> entities = new HashMap<>(response.getValidRowList().size());
-      for (boolean valid : response.getValidRowList()) {
-        long id = idIterator.next();
-        if (valid) {
-          entities.put(id, toMap(fieldIterators));
-        }
-      }
-      return entities;
-    });
+      return futureStub().getEntityByID(request);
+    }));
   }
   
   private Map<String, Object> toMap(Map<String, Iterator<?>> fieldIterators) {
@@ -505,42 +1100,117 @@ abstract class AbstractMilvusGrpcClient implements MilvusClient {
     return getEntityByID(collectionName, ids, Collections.emptyList());
   }
 
+  @Override
+  public ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(String collectionName, List<Long> ids) {
+    return getEntityByIDAsync(collectionName, ids, Collections.emptyList());
+  }
+
+  @Override
+  public ColumnarEntities getEntityByIDColumnar(String collectionName, List<Long> ids, List<String> fieldNames) {
+    return translateExceptions(() -> await(getEntityByIDColumnarAsync(collectionName, ids, fieldNames)));
+  }
+
+  @Override
+  public ListenableFuture<ColumnarEntities> getEntityByIDColumnarAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames) {
+    return translateExceptions(() -> {
+      List<List<Long>> chunks = idChunks(ids);
+      ListenableFuture<List<Entities>> responses = getEntityByIDChunks(collectionName, chunks, fieldNames);
+      return Futures.transform(responses, chunkResponses -> {
+        List<ColumnarEntities> parts = new ArrayList<>(chunks.size());
+        List<int[]> rowsOfParts = new ArrayList<>(chunks.size());
+        int offset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+          checkResponseStatus(chunkResponses.get(i).getStatus());
+          List<Long> chunk = chunks.get(i);
+          parts.add(ColumnarEntities.of(chunk, chunkResponses.get(i)));
+          int[] rows = new int[chunk.size()];
+          for (int j = 0; j < rows.length; j++) {
+            rows[j] = offset++;
+          }
+          rowsOfParts.add(rows);
+        }
+        return parts.size() == 1 ? parts.get(0) : ColumnarEntities.gather(ids.size(), parts, rowsOfParts);
+      }, MoreExecutors.directExecutor());
+    });
+  }
+
   @Override
   public List<Long> listIDInSegment(String collectionName, Long segmentId) {
+    return translateExceptions(() -> await(listIDInSegmentAsync(collectionName, segmentId)));
+  }
+
+  @Override
+  public ListenableFuture<List<Long>> listIDInSegmentAsync(String collectionName, Long segmentId) {
     return translateExceptions(() -> {
       GetEntityIDsParam request = GetEntityIDsParam.newBuilder()
           .setCollectionName(collectionName)
           .setSegmentId(segmentId)
           .build();
-      EntityIds response = blockingStub().getEntityIDs(request);
-      checkResponseStatus(response.getStatus());
-      return response.getEntityIdArrayList();
+      return Futures.transform(futureStub().getEntityIDs(request), response -> {
+        checkResponseStatus(response.getStatus());
+        return response.getEntityIdArrayList();
+      }, MoreExecutors.directExecutor());
     });
   }
 
   @Override
   public void deleteEntityByID(String collectionName, List<Long> ids) {
-    translateExceptions(() -> {
-      DeleteByIDParam request = DeleteByIDParam.newBuilder()
-          .setCollectionName(collectionName)
-          .addAllIdArray(ids)
-          .build();
-      Status response = blockingStub().deleteByID(request);
-      checkResponseStatus(response);
-    });
+    translateExceptions(() -> await(deleteEntityByIDAsync(collectionName, ids)));
+  }
+
+  @Override
+  public ListenableFuture<Void> deleteEntityByIDAsync(String collectionName, List<Long> ids) {
+    return translateExceptions(() -> invalidatingEntities(collectionName, ids, () ->
+        invalidatingSearches(Collections.singletonList(collectionName), () -> deleteIdChunks(collectionName, ids))));
+  }
+
+  private ListenableFuture<Void> deleteIdChunks(String collectionName, List<Long> ids) {
+    List<List<Long>> chunks = idChunks(ids);
+    List<ListenableFuture<Void>> responses = sendConcurrently(
+        chunks, connectParam().getMaxConcurrentIdChunks(), chunk -> {
+          DeleteByIDParam request = DeleteByIDParam.newBuilder()
+              .setCollectionName(collectionName)
+              .addAllIdArray(chunk)
+              .build();
+          ListenableFuture<Status> response = futureStub().deleteByID(request);
+          return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
+        });
+    if (responses.size() == 1) {
+      return responses.get(0);
+    }
+    // wait for every chunk, then report all failed ones together
+    return Futures.whenAllComplete(responses).call(() -> {
+      List<Long> failedIds = new ArrayList<>();
+      List<MilvusException> causes = new ArrayList<>();
+      for (int i = 0; i < responses.size(); i++) {
+        try {
+          Futures.getDone(responses.get(i));
+        } catch (ExecutionException | RuntimeException e) {
+          failedIds.addAll(chunks.get(i));
+          causes.add(milvusException(e));
+        }
+      }
+      if (!causes.isEmpty()) {
+        throw new PartialFailureException(target(), failedIds, ids.size(), causes);
+      }
+      return null;
+    }, MoreExecutors.directExecutor());
   }
 
   @Override
   public void flush(List<String> collectionNames) {
-    translateExceptions(() -> Futures.getUnchecked(flushAsync(collectionNames)));
+    translateExceptions(() -> await(flushAsync(collectionNames)));
   }
 
   @Override
   public ListenableFuture<Void> flushAsync(@Nonnull List<String> collectionNames) {
     return translateExceptions(() -> {
       FlushParam request = FlushParam.newBuilder().addAllCollectionNameArray(collectionNames).build();
-      ListenableFuture<Status> response = futureStub().flush(request);
-      return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
+      return invalidatingSearches(collectionNames, () -> {
+        ListenableFuture<Status> response = futureStub().flush(request);
+        return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
+      });
     });
   }
 
@@ -556,76 +1226,77 @@ abstract class AbstractMilvusGrpcClient implements MilvusClient {
 
   @Override
   public void compact(CompactParam compactParam) {
-    translateExceptions(() -> Futures.getUnchecked(compactAsync(compactParam)));
+    translateExceptions(() -> await(compactAsync(compactParam)));
   }
 
   @Override
   public ListenableFuture<Void> compactAsync(@Nonnull CompactParam compactParam) {
     return translateExceptions(() -> {
       io.milvus.grpc.CompactParam request = compactParam.grpc();
-      ListenableFuture<Status> response = futureStub().compact(request);
-      return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
+      return invalidatingSearches(Collections.singletonList(request.getCollectionName()), () -> {
+        ListenableFuture<Status> response = futureStub().compact(request);
+        return Futures.transform(response, this::checkResponseStatus, MoreExecutors.directExecutor());
+      });
     });
   }
 
   ///////////////////// Util Functions/////////////////////
-  private SearchResult buildSearchResponse(QueryResult topKQueryResult) {
+  /** Concatenates the results of the parts of a split search, in query order. */
+  private QueryResult mergeQueryResults(List<QueryResult> queryResults) {
+    if (queryResults.size() == 1) {
+      return queryResults.get(0);
+    }
+    QueryResult.Builder merged = queryResults.get(0).toBuilder();
+    Entities.Builder entities = merged.getEntitiesBuilder();
+    for (QueryResult queryResult : queryResults.subList(1, queryResults.size())) {
+      merged.setRowNum(merged.getRowNum() + queryResult.getRowNum())
+          .addAllDistances(queryResult.getDistancesList())
+          .addAllScores(queryResult.getScoresList());
+      Entities part = queryResult.getEntities();
+      entities.addAllIds(part.getIdsList()).addAllValidRow(part.getValidRowList());
+      for (int i = 0; i < part.getFieldsCount(); i++) {
+        if (i < entities.getFieldsCount()) {
+          entities.getFieldsBuilder(i).mergeFrom(part.getFields(i));
+        } else {
+          entities.addFields(part.getFields(i));
+        }
+      }
+    }
+    return merged.build();
+  }
+
+  private SearchResult buildSearchResponse(QueryResult topKQueryResult, boolean lazyFields) {
     final int numQueries = (int) topKQueryResult.getRowNum();
     final int topK = numQueries == 0 ? 0 : topKQueryResult.getDistancesCount() / numQueries;
 
-    List<List<Long>> resultIdsList = new ArrayList<>(numQueries);
-    List<List<Float>> resultDistancesList = new ArrayList<>(numQueries);
-    List<List<Map<String, Object>>> resultFieldsMap = new ArrayList<>(numQueries);
-
     Entities entities = topKQueryResult.getEntities();
-    List<Long> queryIdsList = entities.getIdsList();
-    List<Float> queryDistancesList = topKQueryResult.getDistancesList();
 
-    // If fields specified, put it into searchResponse
-    List<Map<String, Object>> fieldsMap = new ArrayList<>();
-    for (int i = 0; i < queryIdsList.size(); i++) {
-      fieldsMap.add(new HashMap<>());
-    }
-    if (entities.getValidRowCount() != 0) {
-      List<FieldValue> fieldValueList = entities.getFieldsList();
-      for (FieldValue fieldValue : fieldValueList) {
-        String fieldName = fieldValue.getFieldName();
-        for (int j = 0; j < queryIdsList.size(); j++) {
-          if (fieldValue.getAttrRecord().getInt32ValueCount() > 0) {
-            fieldsMap.get(j).put(fieldName, fieldValue.getAttrRecord().getInt32ValueList().get(j));
-          } else if (fieldValue.getAttrRecord().getInt64ValueCount() > 0) {
-            fieldsMap.get(j).put(fieldName, fieldValue.getAttrRecord().getInt64ValueList().get(j));
-          } else if (fieldValue.getAttrRecord().getDoubleValueCount() > 0) {
-            fieldsMap.get(j).put(fieldName, fieldValue.getAttrRecord().getDoubleValueList().get(j));
-          } else if (fieldValue.getAttrRecord().getFloatValueCount() > 0) {
-            fieldsMap.get(j).put(fieldName, fieldValue.getAttrRecord().getFloatValueList().get(j));
-          } else {
-            // the object is vector
-            List<VectorRowRecord> vectorRowRecordList =
-                fieldValue.getVectorRecord().getRecordsList();
-            if (vectorRowRecordList.get(j).getFloatDataCount() > 0) {
-              fieldsMap.get(j).put(fieldName, vectorRowRecordList.get(j).getFloatDataList());
-            } else {
-              fieldsMap.get(j).put(fieldName, vectorRowRecordList.get(j).getBinaryData().asReadOnlyByteBuffer());
-            }
-          }
-        }
+    // Copy the results into primitive arrays, dropping the -1 padding of queries with less than
+    // topK results
+    long[] ids = new long[numQueries * topK];
+    float[] distances = new float[numQueries * topK];
+    int[] offsets = new int[numQueries + 1];
+    int count = 0;
+    for (int i = 0; i < numQueries; i++) {
+      // Process result of query i
+      offsets[i] = count;
+      int pos = i * topK;
+      while (pos < i * topK + topK && entities.getIds(pos) != -1) {
+        ids[count] = entities.getIds(pos);
+        distances[count] = topKQueryResult.getDistances(pos);
+        count++;
+        pos++;
       }
     }
-
-    if (topK > 0) {
-      for (int i = 0; i < numQueries; i++) {
-        // Process result of query i
-        int pos = i * topK;
-        while (pos < i * topK + topK && queryIdsList.get(pos) != -1) {
-          pos++;
-        }
-        resultIdsList.add(queryIdsList.subList(i * topK, pos));
-        resultDistancesList.add(queryDistancesList.subList(i * topK, pos));
-        resultFieldsMap.add(fieldsMap.subList(i * topK, pos));
-      }
+    offsets[numQueries] = count;
+    if (count < ids.length) {
+      ids = Arrays.copyOf(ids, count);
+      distances = Arrays.copyOf(distances, count);
     }
 
-    return new SearchResult(numQueries, topK, resultIdsList, resultDistancesList, resultFieldsMap);
+    // Fields are decoded by column in SearchResult, see SearchParam.ResultFields
+    List<FieldValue> fieldValues =
+        entities.getValidRowCount() != 0 ? entities.getFieldsList() : Collections.emptyList();
+    return new SearchResult(numQueries, topK, ids, distances, offsets, fieldValues, lazyFields);
   }
 }
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import io.milvus.grpc.VectorParam;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.milvus.client.StreamingMarshaller.lengthDelimitedSize;
+import static io.milvus.client.StreamingMarshaller.writeLengthDelimitedTag;
+
+/**
+ * A search whose DSL, partitions and params are parsed and serialized once, to be run many times
+ * with different query vectors. Only the query vectors are encoded per call.
+ *
+ * <p>A <code>PreparedSearch</code> is immutable and may be shared between threads.</p>
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * PreparedSearch preparedSearch = PreparedSearch.prepare(
+ *     SearchParam.create(collectionName)
+ *                .setDsl("{\"bool\": {\"must\": [{\"vector\": {\"float_vec\": "
+ *                    + "{\"topk\": 10, \"metric_type\": \"L2\", \"type\": \"float\", \"query\": []}}}]}}"));
+ * ...
+ * SearchResult searchResult = client.search(preparedSearch.bind(queryVector));
+ * </code>
+ * </pre>
+ */
+public class PreparedSearch {
+  private final String collectionName;
+  private final DataType vectorType;
+  private final SearchParam.ResultFields resultFields;
+  private final MetricType metricType;
+  private final int maxConcurrentChunks;
+  // io.milvus.grpc.SearchParam without its vector_param
+  private final byte[] requestPrefix;
+  // io.milvus.grpc.VectorParam without its row_record
+  private final byte[] vectorParamPrefix;
+
+  private PreparedSearch(String collectionName, DataType vectorType, SearchParam.ResultFields resultFields,
+                         MetricType metricType, int maxConcurrentChunks,
+                         byte[] requestPrefix, byte[] vectorParamPrefix) {
+    this.collectionName = collectionName;
+    this.vectorType = vectorType;
+    this.resultFields = resultFields;
+    this.metricType = metricType;
+    this.maxConcurrentChunks = maxConcurrentChunks;
+    this.requestPrefix = requestPrefix;
+    this.vectorParamPrefix = vectorParamPrefix;
+  }
+
+  /**
+   * Prepares the search of <code>searchParam</code>. Query vectors given in its DSL are ignored; the
+   * DSL may pass an empty <code>query</code> array.
+   *
+   * @param searchParam a <code>SearchParam</code> with its DSL set
+   * @return <code>PreparedSearch</code>
+   * @throws IllegalArgumentException if no DSL is set on <code>searchParam</code>
+   */
+  public static PreparedSearch prepare(@Nonnull SearchParam searchParam) throws IllegalArgumentException {
+    io.milvus.grpc.SearchParam request = searchParam.grpc();
+    if (request.getVectorParamCount() != 1 || searchParam.getVectorType() == null) {
+      throw new IllegalArgumentException("A DSL with a vector query must be set to prepare a search");
+    }
+    VectorParam vectorParam = request.getVectorParam(0);
+    return new PreparedSearch(
+        request.getCollectionName(),
+        searchParam.getVectorType(),
+        searchParam.getResultFields(),
+        searchParam.getMetricType(),
+        searchParam.getMaxConcurrentChunks(),
+        request.toBuilder().clearVectorParam().build().toByteArray(),
+        vectorParam.toBuilder().clearRowRecord().build().toByteArray());
+  }
+
+  public String getCollectionName() {
+    return collectionName;
+  }
+
+  public SearchParam.ResultFields getResultFields() {
+    return resultFields;
+  }
+
+  public int getMaxConcurrentChunks() {
+    return maxConcurrentChunks;
+  }
+
+  /** @return the metric named in the DSL, or <code>null</code> if it names none */
+  MetricType getMetricType() {
+    return metricType;
+  }
+
+  /** @return this search with float query vectors <code>vectors</code> */
+  public Bound bind(float[]... vectors) {
+    return bind(new InsertParam.FloatArraysField("", vectors, 0, vectors.length), DataType.VECTOR_FLOAT);
+  }
+
+  /** @return this search with the float query vectors stored one after another in <code>vectors</code> */
+  public Bound bind(float[] vectors, int dimension) {
+    if (dimension <= 0 || vectors.length % dimension != 0) {
+      throw new IllegalArgumentException(
+          "Vector data of length " + vectors.length + " is not a multiple of dimension " + dimension);
+    }
+    return bind(new InsertParam.FloatBufferField("", FloatBuffer.wrap(vectors), dimension), DataType.VECTOR_FLOAT);
+  }
+
+  /** @return this search with binary query vectors <code>vectors</code> */
+  public Bound bind(List<ByteBuffer> vectors) {
+    return bind(new InsertParam.BinaryVectorField("", vectors), DataType.VECTOR_BINARY);
+  }
+
+  private Bound bind(InsertParam.VectorField vectors, DataType type) {
+    if (type != vectorType) {
+      throw new IllegalArgumentException(
+          "Query vectors of type " + type + " given for a search of type " + vectorType);
+    }
+    return new Bound(this, vectors);
+  }
+
+  /** A <code>PreparedSearch</code> with its query vectors, to pass to <code>search</code> */
+  public static final class Bound {
+    static final StreamingMarshaller<Bound> MARSHALLER = new StreamingMarshaller<Bound>() {
+      @Override
+      int getSerializedSize(Bound value) {
+        return value.getSerializedSize();
+      }
+
+      @Override
+      void writeTo(Bound value, CodedOutputStream output) throws IOException {
+        value.writeTo(output);
+      }
+    };
+
+    private final PreparedSearch preparedSearch;
+    private final InsertParam.VectorField vectors;
+
+    private Bound(PreparedSearch preparedSearch, InsertParam.VectorField vectors) {
+      this.preparedSearch = preparedSearch;
+      this.vectors = vectors;
+    }
+
+    public PreparedSearch getPreparedSearch() {
+      return preparedSearch;
+    }
+
+    public int getQueryCount() {
+      return vectors.rowCount();
+    }
+
+    /**
+     * Splits the query vectors into searches whose serialized size is at most
+     * <code>maxSerializedSize</code>, assuming vectors are of about equal size.
+     */
+    List<Bound> split(int maxSerializedSize) {
+      int size = getSerializedSize();
+      int queryCount = getQueryCount();
+      if (size <= maxSerializedSize || queryCount <= 1) {
+        return Collections.singletonList(this);
+      }
+      int parts = (int) Math.min(queryCount, (size + (long) maxSerializedSize - 1) / maxSerializedSize);
+      int queriesPerPart = (queryCount + parts - 1) / parts;
+      List<Bound> bounds = new ArrayList<>(parts);
+      for (int from = 0; from < queryCount; from += queriesPerPart) {
+        InsertParam.Field part = vectors.slice(from, Math.min(queryCount, from + queriesPerPart));
+        bounds.add(new Bound(preparedSearch, (InsertParam.VectorField) part));
+      }
+      return bounds;
+    }
+
+    /**
+     * @return the request as sent. It parses to the equivalent <code>SearchParam</code>, but its
+     *     bytes differ, since <code>vector_param</code> is written after <code>dsl</code> and
+     *     <code>extra_params</code>.
+     */
+    ByteString toByteString() {
+      byte[] bytes = new byte[getSerializedSize()];
+      CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+      try {
+        writeTo(output);
+        output.checkNoSpaceLeft();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return UnsafeByteOperations.unsafeWrap(bytes);
+    }
+
+    private int vectorParamSize() {
+      return preparedSearch.vectorParamPrefix.length + lengthDelimitedSize(2, vectors.recordSize());
+    }
+
+    int getSerializedSize() {
+      return preparedSearch.requestPrefix.length + lengthDelimitedSize(3, vectorParamSize());
+    }
+
+    /**
+     * Writes the cached request followed by the single <code>vector_param</code>. Fields may come
+     * in any order on the wire, so this parses as the equivalent <code>SearchParam</code>.
+     */
+    void writeTo(CodedOutputStream output) throws IOException {
+      output.writeRawBytes(preparedSearch.requestPrefix);
+      writeLengthDelimitedTag(output, 3, vectorParamSize());
+      output.writeRawBytes(preparedSearch.vectorParamPrefix);
+      writeLengthDelimitedTag(output, 2, vectors.recordSize());
+      vectors.writeRecord(output);
+    }
+  }
+}
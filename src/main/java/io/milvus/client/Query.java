@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.protobuf.UnsafeByteOperations;
+import io.milvus.grpc.CompareExpr;
+import io.milvus.grpc.CompareOperator;
+import io.milvus.grpc.GeneralQuery;
+import io.milvus.grpc.KeyValuePair;
+import io.milvus.grpc.Occur;
+import io.milvus.grpc.VectorRowRecord;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A typed query tree for {@link MilvusClient#searchPB}, built directly into protobuf messages
+ * without going through a JSON DSL.
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * Query query = Query.must(
+ *     Query.range("age").gte(20).lt(30),
+ *     Query.vector("float_vec")
+ *          .setTopK(10)
+ *          .setParamsInJson("{\"nprobe\": 20}")
+ *          .addVector(queryVector));
+ * </code>
+ * </pre>
+ */
+public abstract class Query {
+
+  Query() {
+  }
+
+  abstract GeneralQuery grpc();
+
+  /** @return a query matching entities which match all of <code>queries</code> */
+  public static BooleanQuery must(Query... queries) {
+    return new BooleanQuery(Occur.MUST, queries);
+  }
+
+  /** @return a query matching entities which match any of <code>queries</code> */
+  public static BooleanQuery should(Query... queries) {
+    return new BooleanQuery(Occur.SHOULD, queries);
+  }
+
+  /** @return a query matching entities which match none of <code>queries</code> */
+  public static BooleanQuery mustNot(Query... queries) {
+    return new BooleanQuery(Occur.MUST_NOT, queries);
+  }
+
+  /** @return a query matching entities whose <code>fieldName</code> is one of <code>values</code> */
+  public static TermQuery term(String fieldName, long... values) {
+    return new TermQuery(fieldName).addValues(values);
+  }
+
+  /** @return a query matching entities whose <code>fieldName</code> is one of <code>values</code> */
+  public static TermQuery term(String fieldName, double... values) {
+    return new TermQuery(fieldName).addValues(values);
+  }
+
+  /** @return a query on the range of <code>fieldName</code>, bounded with <code>gt</code>, <code>lt</code>, etc. */
+  public static RangeQuery range(String fieldName) {
+    return new RangeQuery(fieldName);
+  }
+
+  /** @return a top-k nearest neighbor query on vector field <code>fieldName</code> */
+  public static VectorQuery vector(String fieldName) {
+    return new VectorQuery(fieldName);
+  }
+
+  /** Combines queries with <code>MUST</code>, <code>SHOULD</code> or <code>MUST_NOT</code> */
+  public static class BooleanQuery extends Query {
+    private final Occur occur;
+    private final List<Query> queries = new ArrayList<>();
+
+    private BooleanQuery(Occur occur, Query... queries) {
+      this.occur = occur;
+      for (Query query : queries) {
+        add(query);
+      }
+    }
+
+    public BooleanQuery add(Query query) {
+      queries.add(query);
+      return this;
+    }
+
+    @Override
+    GeneralQuery grpc() {
+      io.milvus.grpc.BooleanQuery.Builder builder = io.milvus.grpc.BooleanQuery.newBuilder().setOccur(occur);
+      for (Query query : queries) {
+        builder.addGeneralQuery(query.grpc());
+      }
+      return GeneralQuery.newBuilder().setBooleanQuery(builder.build()).build();
+    }
+  }
+
+  /** Matches entities whose scalar field equals one of a set of values */
+  public static class TermQuery extends Query {
+    private final io.milvus.grpc.TermQuery.Builder builder;
+
+    private TermQuery(String fieldName) {
+      builder = io.milvus.grpc.TermQuery.newBuilder().setFieldName(fieldName);
+    }
+
+    public TermQuery addValues(long... values) {
+      for (long value : values) {
+        builder.addIntValue(value);
+      }
+      builder.setValueNum(builder.getValueNum() + values.length);
+      return this;
+    }
+
+    public TermQuery addValues(double... values) {
+      for (double value : values) {
+        builder.addDoubleValue(value);
+      }
+      builder.setValueNum(builder.getValueNum() + values.length);
+      return this;
+    }
+
+    public TermQuery setBoost(float boost) {
+      builder.setBoost(boost);
+      return this;
+    }
+
+    @Override
+    GeneralQuery grpc() {
+      return GeneralQuery.newBuilder().setTermQuery(builder.build()).build();
+    }
+  }
+
+  /** Matches entities whose scalar field lies within all of its bounds */
+  public static class RangeQuery extends Query {
+    private final io.milvus.grpc.RangeQuery.Builder builder;
+
+    private RangeQuery(String fieldName) {
+      builder = io.milvus.grpc.RangeQuery.newBuilder().setFieldName(fieldName);
+    }
+
+    public RangeQuery lt(Number value) {
+      return compare(CompareOperator.LT, value);
+    }
+
+    public RangeQuery lte(Number value) {
+      return compare(CompareOperator.LTE, value);
+    }
+
+    public RangeQuery eq(Number value) {
+      return compare(CompareOperator.EQ, value);
+    }
+
+    public RangeQuery gt(Number value) {
+      return compare(CompareOperator.GT, value);
+    }
+
+    public RangeQuery gte(Number value) {
+      return compare(CompareOperator.GTE, value);
+    }
+
+    public RangeQuery ne(Number value) {
+      return compare(CompareOperator.NE, value);
+    }
+
+    public RangeQuery setBoost(float boost) {
+      builder.setBoost(boost);
+      return this;
+    }
+
+    private RangeQuery compare(CompareOperator operator, Number value) {
+      builder.addOperand(CompareExpr.newBuilder()
+          .setOperator(operator)
+          .setOperand(String.valueOf(value))
+          .build());
+      return this;
+    }
+
+    @Override
+    GeneralQuery grpc() {
+      return GeneralQuery.newBuilder().setRangeQuery(builder.build()).build();
+    }
+  }
+
+  /** Finds the <code>topK</code> nearest neighbors of each query vector */
+  public static class VectorQuery extends Query {
+    private final io.milvus.grpc.VectorQuery.Builder builder;
+    private final List<VectorRowRecord> records = new ArrayList<>();
+
+    private VectorQuery(String fieldName) {
+      builder = io.milvus.grpc.VectorQuery.newBuilder().setFieldName(fieldName);
+    }
+
+    public VectorQuery setTopK(long topK) {
+      builder.setTopk(topK);
+      return this;
+    }
+
+    public VectorQuery setBoost(float boost) {
+      builder.setQueryBoost(boost);
+      return this;
+    }
+
+    /**
+     * @param paramsInJson index specific search parameters, e.g. <code>{"nprobe": 20}</code>
+     * @return <code>VectorQuery</code>
+     */
+    public VectorQuery setParamsInJson(String paramsInJson) {
+      builder.addExtraParams(KeyValuePair.newBuilder()
+          .setKey(MilvusClient.extraParamKey)
+          .setValue(paramsInJson)
+          .build());
+      return this;
+    }
+
+    /** Adds a float query vector. */
+    public VectorQuery addVector(float[] vector) {
+      records.add(floatRecord(vector, 0, vector.length));
+      return this;
+    }
+
+    /** Adds <code>vectors.length / dimension</code> float query vectors stored one after another. */
+    public VectorQuery addVectors(float[] vectors, int dimension) {
+      if (dimension <= 0 || vectors.length % dimension != 0) {
+        throw new IllegalArgumentException(
+            "Vector data of length " + vectors.length + " is not a multiple of dimension " + dimension);
+      }
+      for (int offset = 0; offset < vectors.length; offset += dimension) {
+        records.add(floatRecord(vectors, offset, dimension));
+      }
+      return this;
+    }
+
+    /** Adds a binary query vector. */
+    public VectorQuery addVector(ByteBuffer vector) {
+      records.add(VectorRowRecord.newBuilder()
+          .setBinaryData(UnsafeByteOperations.unsafeWrap(vector.duplicate()))
+          .build());
+      return this;
+    }
+
+    /** @return the number of query vectors added */
+    public int getQueryCount() {
+      return records.size();
+    }
+
+    @Override
+    GeneralQuery grpc() {
+      return GeneralQuery.newBuilder()
+          .setVectorQuery(builder.clone().addAllRecords(records).build())
+          .build();
+    }
+
+    private static VectorRowRecord floatRecord(float[] vector, int offset, int dimension) {
+      VectorRowRecord.Builder record = VectorRowRecord.newBuilder();
+      for (int i = offset; i < offset + dimension; i++) {
+        record.addFloatData(vector[i]);
+      }
+      return record.build();
+    }
+  }
+}
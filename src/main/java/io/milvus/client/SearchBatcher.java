@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import io.milvus.client.exception.ClientSideMilvusException;
+import io.milvus.grpc.VectorParam;
+import io.milvus.grpc.VectorRecord;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent searches into multi-vector searches on top of
+ * {@link MilvusClient#searchAsync(SearchParam)}.
+ *
+ * <p>Searches that differ only in their query vectors, i.e. with the same collection, partitions,
+ * DSL, params and result fields, are collected for up to <code>maxDelay</code> or until they hold
+ * <code>maxBatchQueries</code> query vectors. They are then sent as one search, and each caller
+ * gets the results of its own query vectors.</p>
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * SearchBatcher batcher = new SearchBatcher.Builder(client)
+ *                                          .withMaxDelay(500, TimeUnit.MICROSECONDS)
+ *                                          .withMaxBatchQueries(64)
+ *                                          .build();
+ * ListenableFuture&lt;SearchResult&gt; searchResult = batcher.searchAsync(searchParam);
+ * ...
+ * batcher.close();
+ * </code>
+ * </pre>
+ */
+public class SearchBatcher implements AutoCloseable {
+  private final MilvusClient client;
+  private final long maxDelayNanos;
+  private final int maxBatchQueries;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+  private final Map<Key, Batch> batches = new HashMap<>();
+  private boolean closed;
+
+  private SearchBatcher(@Nonnull Builder builder) {
+    this.client = builder.client;
+    this.maxDelayNanos = builder.maxDelayNanos;
+    this.maxBatchQueries = builder.maxBatchQueries;
+    this.ownScheduler = builder.scheduler == null;
+    this.scheduler = ownScheduler
+        ? Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("milvus-search-batcher-%d").build())
+        : builder.scheduler;
+  }
+
+  /**
+   * Adds the search of <code>searchParam</code> to the batch of compatible searches. Searches with
+   * <code>maxBatchQueries</code> or more query vectors are sent on their own.
+   *
+   * @param searchParam the search
+   * @return a <code>ListenableFuture</code> holding the results of the query vectors of
+   *     <code>searchParam</code>
+   */
+  public ListenableFuture<SearchResult> searchAsync(@Nonnull SearchParam searchParam) {
+    io.milvus.grpc.SearchParam request = searchParam.grpc();
+    if (request.getVectorParamCount() != 1) {
+      return client.searchAsync(searchParam);
+    }
+    VectorParam vectorParam = request.getVectorParam(0);
+    int queries = vectorParam.getRowRecord().getRecordsCount();
+    if (queries == 0 || queries >= maxBatchQueries) {
+      return client.searchAsync(searchParam);
+    }
+    Key key = new Key(searchParam.getResultFields(), request.toBuilder()
+        .setVectorParam(0, vectorParam.toBuilder().clearRowRecord().build())
+        .build()
+        .toByteString());
+    SettableFuture<SearchResult> result = SettableFuture.create();
+    List<Batch> ready = new ArrayList<>(2);
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("SearchBatcher is closed");
+      }
+      Batch batch = batches.get(key);
+      if (batch != null && batch.queries + queries > maxBatchQueries) {
+        ready.add(detach(key));
+        batch = null;
+      }
+      if (batch == null) {
+        batch = new Batch(key, searchParam, request);
+        batches.put(key, batch);
+        Batch delayed = batch;
+        batch.delayTimer = scheduler.schedule(() -> flush(delayed), maxDelayNanos, TimeUnit.NANOSECONDS);
+      }
+      batch.add(vectorParam.getRowRecord(), result);
+      if (batch.queries >= maxBatchQueries) {
+        ready.add(detach(key));
+      }
+    }
+    ready.forEach(this::send);
+    return result;
+  }
+
+  /** Sends all pending searches now and stops batching. */
+  @Override
+  public void close() {
+    List<Batch> ready;
+    synchronized (this) {
+      closed = true;
+      ready = new ArrayList<>(batches.size());
+      for (Key key : new ArrayList<>(batches.keySet())) {
+        ready.add(detach(key));
+      }
+    }
+    ready.forEach(this::send);
+    if (ownScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private void flush(Batch batch) {
+    Batch ready;
+    synchronized (this) {
+      if (batches.get(batch.key) != batch) {
+        return;
+      }
+      ready = detach(batch.key);
+    }
+    send(ready);
+  }
+
+  private Batch detach(Key key) {
+    Batch batch = batches.remove(key);
+    batch.delayTimer.cancel(false);
+    return batch;
+  }
+
+  private void send(Batch batch) {
+    ListenableFuture<SearchResult> response;
+    try {
+      response = client.searchAsync(batch.searchParam());
+    } catch (Throwable t) {
+      batch.fail(t);
+      return;
+    }
+    Futures.addCallback(response, new FutureCallback<SearchResult>() {
+      @Override
+      public void onSuccess(SearchResult searchResult) {
+        if (searchResult.getNumQueries() != batch.queries) {
+          batch.fail(new ClientSideMilvusException(client.target(), "Expected results of "
+              + batch.queries + " queries in a batched search, got " + searchResult.getNumQueries()));
+          return;
+        }
+        int from = 0;
+        for (int i = 0; i < batch.results.size(); i++) {
+          int to = from + batch.queryRecords.get(i).getRecordsCount();
+          batch.results.get(i).set(searchResult.slice(from, to));
+          from = to;
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        batch.fail(t);
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private static class Key {
+    final SearchParam.ResultFields resultFields;
+    // the serialized search without its query vectors
+    final ByteString request;
+
+    Key(SearchParam.ResultFields resultFields, ByteString request) {
+      this.resultFields = resultFields;
+      this.request = request;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return resultFields == other.resultFields && request.equals(other.request);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * resultFields.hashCode() + request.hashCode();
+    }
+  }
+
+  private static class Batch {
+    final Key key;
+    final SearchParam template;
+    final io.milvus.grpc.SearchParam request;
+    final List<VectorRecord> queryRecords = new ArrayList<>();
+    final List<SettableFuture<SearchResult>> results = new ArrayList<>();
+    ScheduledFuture<?> delayTimer;
+    int queries;
+
+    Batch(Key key, SearchParam template, io.milvus.grpc.SearchParam request) {
+      this.key = key;
+      this.template = template;
+      this.request = request;
+    }
+
+    void add(VectorRecord queryRecord, SettableFuture<SearchResult> result) {
+      queryRecords.add(queryRecord);
+      results.add(result);
+      queries += queryRecord.getRecordsCount();
+    }
+
+    /** @return the search of all query vectors of the batch, in the order they were added */
+    SearchParam searchParam() {
+      VectorRecord.Builder records = VectorRecord.newBuilder();
+      queryRecords.forEach(queryRecord -> records.addAllRecords(queryRecord.getRecordsList()));
+      VectorParam vectorParam = request.getVectorParam(0).toBuilder().setRowRecord(records.build()).build();
+      return SearchParam.of(request.toBuilder().setVectorParam(0, vectorParam).build(), template);
+    }
+
+    void fail(Throwable t) {
+      results.forEach(result -> result.setException(t));
+    }
+  }
+
+  /** Builder for <code>SearchBatcher</code> */
+  public static class Builder {
+    private final MilvusClient client;
+    // Optional parameters - initialized to default values
+    private long maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(500);
+    private int maxBatchQueries = 64;
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * @param client the client to send batched searches with
+     */
+    public Builder(@Nonnull MilvusClient client) {
+      this.client = client;
+    }
+
+    /**
+     * Optional. Defaults to 500 microseconds.
+     *
+     * @param maxDelay a batch is sent at the latest this long after its first search was added
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxDelay(long maxDelay, @Nonnull TimeUnit timeUnit) throws IllegalArgumentException {
+      if (maxDelay < 0L) {
+        throw new IllegalArgumentException("Max delay must not be negative!");
+      }
+      this.maxDelayNanos = timeUnit.toNanos(maxDelay);
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 64.
+     *
+     * @param maxBatchQueries a batch is sent once it holds this many query vectors
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withMaxBatchQueries(int maxBatchQueries) throws IllegalArgumentException {
+      if (maxBatchQueries <= 0) {
+        throw new IllegalArgumentException("Max batch queries must be positive!");
+      }
+      this.maxBatchQueries = maxBatchQueries;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to a single daemon thread owned by the <code>SearchBatcher</code>.
+     *
+     * @param scheduler the executor running batch delay timers
+     * @return <code>Builder</code>
+     */
+    public Builder withScheduler(@Nonnull ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    public SearchBatcher build() {
+      return new SearchBatcher(this);
+    }
+  }
+}
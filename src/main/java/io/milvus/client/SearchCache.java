@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.ByteString;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches search results by their exact serialized request. All entries of a collection are dropped
+ * when the client modifies it; a search that was in flight meanwhile does not populate the cache.
+ * Cached results are shared, so their fields map is read-only.
+ *
+ * <p>Entries remember the generation of their collection when they were searched, so that
+ * modifying a collection only increments its generation; stale entries are dropped when they are
+ * next looked up, or else age out.</p>
+ */
+class SearchCache {
+  private final Cache<Key, Entry> cache;
+  // only searches in flight and cached entries hold a generation, so a collection's generation
+  // goes once none are left, e.g. after it is dropped
+  private final ConcurrentMap<String, AtomicLong> generations = new MapMaker().weakValues().makeMap();
+
+  /** @param maximumSize the maximum number of cached results, or 0 to disable caching */
+  SearchCache(long maximumSize, long expireAfterWriteNanos) {
+    this.cache = maximumSize == 0 ? null : CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWriteNanos, TimeUnit.NANOSECONDS)
+        .build();
+  }
+
+  boolean isEnabled() {
+    return cache != null;
+  }
+
+  /** @return the cached result, or the result of <code>search</code> which is cached on success */
+  ListenableFuture<SearchResult> get(Key key, Supplier<ListenableFuture<SearchResult>> search) {
+    String collectionName = key.collectionName;
+    Entry cached = cache.getIfPresent(key);
+    if (cached != null) {
+      if (cached.isCurrent()) {
+        return Futures.immediateFuture(cached.searchResult);
+      }
+      cache.invalidate(key);
+    }
+    AtomicLong generation = generation(collectionName);
+    long expected = generation.get();
+    ListenableFuture<SearchResult> result = Futures.transform(
+        search.get(), SearchResult::withUnmodifiableFields, MoreExecutors.directExecutor());
+    Futures.addCallback(result, new FutureCallback<SearchResult>() {
+      @Override
+      public void onSuccess(SearchResult searchResult) {
+        if (generation.get() == expected) {
+          // if the collection is modified meanwhile, the entry is stale on its first lookup
+          cache.put(key, new Entry(searchResult, generation, expected));
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        // failures are not cached
+      }
+    }, MoreExecutors.directExecutor());
+    return result;
+  }
+
+  /** Drops the cached results of <code>collectionName</code> and of searches on it still in flight. */
+  void invalidate(String collectionName) {
+    if (cache != null) {
+      // without a generation, nothing of the collection is cached or in flight
+      AtomicLong generation = generations.get(collectionName);
+      if (generation != null) {
+        generation.incrementAndGet();
+      }
+    }
+  }
+
+  /** Drops everything kept for <code>collectionName</code>, once it has been dropped. */
+  void forget(String collectionName) {
+    if (cache != null) {
+      invalidate(collectionName);
+      generations.remove(collectionName);
+    }
+  }
+
+  private AtomicLong generation(String collectionName) {
+    return generations.computeIfAbsent(collectionName, name -> new AtomicLong());
+  }
+
+  /** A cached result and the generation of its collection it was searched in */
+  private static class Entry {
+    final SearchResult searchResult;
+    final AtomicLong generation;
+    final long expected;
+
+    Entry(SearchResult searchResult, AtomicLong generation, long expected) {
+      this.searchResult = searchResult;
+      this.generation = generation;
+      this.expected = expected;
+    }
+
+    boolean isCurrent() {
+      return generation.get() == expected;
+    }
+  }
+
+  /** Identifies a search by its collection and exact serialized request */
+  static class Key {
+    final String collectionName;
+    final String kind;
+    final ByteString request;
+
+    /**
+     * @param kind distinguishes requests of different methods or result modes
+     * @param request the serialized request
+     */
+    Key(String collectionName, String kind, ByteString request) {
+      this.collectionName = collectionName;
+      this.kind = kind;
+      this.request = request;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return collectionName.equals(other.collectionName)
+          && kind.equals(other.kind)
+          && request.equals(other.request);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(collectionName, kind, request);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.collect.Lists;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Contains parameters for <code>searchInSegments</code>: a <code>SearchParam</code> and the
+ * segments to run it over. Segments are searched in groups, several groups at a time, and the
+ * top-K results of the groups are merged on the client.
+ */
+public class SearchInSegmentParam {
+  private final SearchParam searchParam;
+  private List<Long> segmentIds;
+  private int segmentsPerRequest = 1;
+  private int maxConcurrentRequests = 8;
+
+  public static SearchInSegmentParam create(SearchParam searchParam) {
+    return new SearchInSegmentParam(searchParam);
+  }
+
+  private SearchInSegmentParam(SearchParam searchParam) {
+    this.searchParam = searchParam;
+  }
+
+  /**
+   * Optional. By default every segment listed by <code>getCollectionStats</code> is searched.
+   *
+   * @param segmentIds the ids of the segments to search, e.g. only those created since an
+   *     earlier search
+   * @return <code>SearchInSegmentParam</code>
+   */
+  public SearchInSegmentParam setSegmentIds(List<Long> segmentIds) {
+    this.segmentIds = new ArrayList<>(segmentIds);
+    return this;
+  }
+
+  /**
+   * Optional. Defaults to 1.
+   *
+   * @param segmentsPerRequest the number of segments searched by one request
+   * @return <code>SearchInSegmentParam</code>
+   * @throws IllegalArgumentException
+   */
+  public SearchInSegmentParam setSegmentsPerRequest(int segmentsPerRequest) throws IllegalArgumentException {
+    if (segmentsPerRequest <= 0) {
+      throw new IllegalArgumentException("Segments per request must be positive!");
+    }
+    this.segmentsPerRequest = segmentsPerRequest;
+    return this;
+  }
+
+  /**
+   * Optional. Defaults to 8.
+   *
+   * @param maxConcurrentRequests the maximum number of requests running at a time
+   * @return <code>SearchInSegmentParam</code>
+   * @throws IllegalArgumentException
+   */
+  public SearchInSegmentParam setMaxConcurrentRequests(int maxConcurrentRequests) throws IllegalArgumentException {
+    if (maxConcurrentRequests <= 0) {
+      throw new IllegalArgumentException("Max concurrent requests must be positive!");
+    }
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    return this;
+  }
+
+  public SearchParam getSearchParam() {
+    return searchParam;
+  }
+
+  /** @return the segments set to search, or <code>null</code> to search all of them */
+  public List<Long> getSegmentIds() {
+    return segmentIds;
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  /** @return one request for each group of <code>segmentIds</code> */
+  List<io.milvus.grpc.SearchInSegmentParam> grpc(List<Long> segmentIds) {
+    io.milvus.grpc.SearchParam request = searchParam.grpc();
+    return Lists.partition(segmentIds, segmentsPerRequest).stream()
+        .map(group -> io.milvus.grpc.SearchInSegmentParam.newBuilder()
+            .addAllFileIdArray(group.stream().map(String::valueOf).collect(Collectors.toList()))
+            .setSearchParam(request)
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  /** @return the ids of all segments listed in the JSON of <code>getCollectionStats</code> */
+  static List<Long> segmentIdsOf(String collectionStats) {
+    List<Long> segmentIds = new ArrayList<>();
+    JSONArray partitions = new JSONObject(collectionStats).optJSONArray("partitions");
+    for (int i = 0; partitions != null && i < partitions.length(); i++) {
+      JSONArray segments = partitions.getJSONObject(i).optJSONArray("segments");
+      for (int j = 0; segments != null && j < segments.length(); j++) {
+        segmentIds.add(segments.getJSONObject(j).getLong("id"));
+      }
+    }
+    return segmentIds;
+  }
+}
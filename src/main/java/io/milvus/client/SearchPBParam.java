@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.milvus.grpc.KeyValuePair;
+import io.milvus.grpc.SearchParamPB;
+
+import java.util.List;
+
+/**
+ * Contains parameters for <code>searchPB</code>. Unlike <code>SearchParam</code>, the query is a
+ * typed {@link Query} tree sent as protobuf, so no DSL is parsed or printed.
+ */
+public class SearchPBParam {
+  private final SearchParamPB.Builder builder;
+  private Query query;
+  private SearchParam.ResultFields resultFields = SearchParam.ResultFields.EAGER;
+
+  public static SearchPBParam create(String collectionName) {
+    return new SearchPBParam(collectionName);
+  }
+
+  private SearchPBParam(String collectionName) {
+    builder = SearchParamPB.newBuilder();
+    builder.setCollectionName(collectionName);
+  }
+
+  public SearchPBParam setQuery(Query query) {
+    this.query = query;
+    return this;
+  }
+
+  public SearchPBParam setPartitionTags(List<String> partitionTags) {
+    builder.addAllPartitionTagArray(partitionTags);
+    return this;
+  }
+
+  /**
+   * @param paramsInJson search options, e.g. <code>{"fields": ["B"]}</code> to return field B
+   * @return <code>SearchPBParam</code>
+   */
+  public SearchPBParam setParamsInJson(String paramsInJson) {
+    builder.addExtraParams(KeyValuePair.newBuilder()
+        .setKey(MilvusClient.extraParamKey)
+        .setValue(paramsInJson)
+        .build());
+    return this;
+  }
+
+  /**
+   * Optional. Defaults to <code>ResultFields.EAGER</code>.
+   *
+   * @param resultFields how returned entity fields are decoded
+   * @return <code>SearchPBParam</code>
+   */
+  public SearchPBParam setResultFields(SearchParam.ResultFields resultFields) {
+    this.resultFields = resultFields;
+    return this;
+  }
+
+  public SearchParam.ResultFields getResultFields() {
+    return resultFields;
+  }
+
+  SearchParamPB grpc() {
+    if (query == null) {
+      throw new IllegalArgumentException("A query must be specified");
+    }
+    return builder.clone().setGeneralQuery(query.grpc()).build();
+  }
+}
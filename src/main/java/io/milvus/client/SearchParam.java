@@ -33,6 +33,8 @@ import org.json.JSONObject;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -44,6 +46,24 @@ public class SearchParam {
   private static final String VECTOR_QUERY_PLACEHOLDER = "placeholder";
 
   private io.milvus.grpc.SearchParam.Builder builder;
+  private ResultFields resultFields = ResultFields.EAGER;
+  private DataType vectorType;
+  private MetricType metricType;
+  private int queryChunkSize = 0;
+  private int maxConcurrentChunks = 8;
+
+  /** How the entity fields returned by a search are decoded into its <code>SearchResult</code> */
+  public enum ResultFields {
+    /** Decode all returned fields into <code>SearchResult.getFieldsMap()</code> up front */
+    EAGER,
+    /** Decode each field column when it is first read */
+    LAZY,
+    /**
+     * Drop the returned fields while parsing the response and return ids and distances only. To
+     * keep the server from sending fields at all, do not list any in the DSL.
+     */
+    IDS_ONLY
+  }
 
   public static SearchParam create(String collectionName) {
     return new SearchParam(collectionName);
@@ -65,14 +85,20 @@ public class SearchParam {
       JSONObject vectorQuery = vectorQueries.getJSONObject(vectorQueryField);
       String vectorQueryType = vectorQuery.getString("type");
       JSONArray vectorQueryData = vectorQuery.getJSONArray("query");
+      metricType = Arrays.stream(MetricType.values())
+          .filter(m -> m.name().equalsIgnoreCase(vectorQuery.optString("metric_type")))
+          .findFirst()
+          .orElse(null);
 
       VectorRecord vectorRecord;
       switch (vectorQueryType) {
         case "float":
           vectorRecord = toFloatVectorRecord(vectorQueryData);
+          vectorType = DataType.VECTOR_FLOAT;
           break;
         case "binary":
           vectorRecord = toBinaryVectorRecord(vectorQueryData);
+          vectorType = DataType.VECTOR_BINARY;
           break;
         default:
           throw new InvalidDsl("Unsupported vector type: " + vectorQueryType, dsl);
@@ -108,10 +134,130 @@ public class SearchParam {
     return this;
   }
 
+  /**
+   * Optional. Defaults to <code>ResultFields.EAGER</code>.
+   *
+   * @param resultFields how returned entity fields are decoded
+   * @return <code>SearchParam</code>
+   */
+  public SearchParam setResultFields(ResultFields resultFields) {
+    this.resultFields = resultFields;
+    return this;
+  }
+
+  public ResultFields getResultFields() {
+    return resultFields;
+  }
+
+  /**
+   * Optional. By default a search is only split when its request exceeds
+   * <code>ConnectParam.withMaxRequestSize</code>. Large batch searches can be split into chunks of
+   * query vectors which run concurrently; their results are joined in query order.
+   *
+   * @param queryChunkSize the maximum number of query vectors per request
+   * @return <code>SearchParam</code>
+   * @throws IllegalArgumentException
+   */
+  public SearchParam setQueryChunkSize(int queryChunkSize) throws IllegalArgumentException {
+    if (queryChunkSize <= 0) {
+      throw new IllegalArgumentException("Query chunk size must be positive!");
+    }
+    this.queryChunkSize = queryChunkSize;
+    return this;
+  }
+
+  /**
+   * Optional. Defaults to 8.
+   *
+   * @param maxConcurrentChunks the maximum number of requests of this search running at a time
+   * @return <code>SearchParam</code>
+   * @throws IllegalArgumentException
+   */
+  public SearchParam setMaxConcurrentChunks(int maxConcurrentChunks) throws IllegalArgumentException {
+    if (maxConcurrentChunks <= 0) {
+      throw new IllegalArgumentException("Max concurrent chunks must be positive!");
+    }
+    this.maxConcurrentChunks = maxConcurrentChunks;
+    return this;
+  }
+
+  public int getMaxConcurrentChunks() {
+    return maxConcurrentChunks;
+  }
+
+  /** @return a search of <code>request</code>, with the other settings of <code>searchParam</code> */
+  static SearchParam of(io.milvus.grpc.SearchParam request, SearchParam searchParam) {
+    SearchParam copy = new SearchParam(request.getCollectionName());
+    copy.builder = request.toBuilder();
+    copy.resultFields = searchParam.resultFields;
+    copy.vectorType = searchParam.vectorType;
+    copy.metricType = searchParam.metricType;
+    copy.queryChunkSize = searchParam.queryChunkSize;
+    copy.maxConcurrentChunks = searchParam.maxConcurrentChunks;
+    return copy;
+  }
+
+  /** @return the type of the query vectors given in the DSL, or <code>null</code> if no DSL is set */
+  DataType getVectorType() {
+    return vectorType;
+  }
+
+  /** @return the metric named in the DSL, or <code>null</code> if it names none */
+  MetricType getMetricType() {
+    return metricType;
+  }
+
   io.milvus.grpc.SearchParam grpc() {
     return builder.build();
   }
 
+  /**
+   * Splits the query vectors of this search into requests whose serialized size is at most
+   * <code>maxSerializedSize</code>, assuming vectors are of about equal size, and which hold at
+   * most <code>queryChunkSize</code> vectors if that is set.
+   *
+   * @return the requests in query order, or just the request of this search if it is small enough
+   */
+  List<io.milvus.grpc.SearchParam> split(int maxSerializedSize) {
+    io.milvus.grpc.SearchParam request = grpc();
+    int size = request.getSerializedSize();
+    int parts = (int) ((size + (long) maxSerializedSize - 1) / maxSerializedSize);
+    if (queryChunkSize > 0 && request.getVectorParamCount() == 1) {
+      int queries = request.getVectorParam(0).getRowRecord().getRecordsCount();
+      parts = Math.max(parts, (queries + queryChunkSize - 1) / queryChunkSize);
+    }
+    if (parts <= 1) {
+      return Collections.singletonList(request);
+    }
+    return splitQueries(request, parts);
+  }
+
+  /**
+   * Splits the query vectors of <code>request</code> into at most <code>parts</code> requests of
+   * consecutive vectors. Requests without exactly one vector param are not split.
+   */
+  static List<io.milvus.grpc.SearchParam> splitQueries(io.milvus.grpc.SearchParam request, int parts) {
+    if (request.getVectorParamCount() != 1) {
+      return Collections.singletonList(request);
+    }
+    VectorParam vectorParam = request.getVectorParam(0);
+    List<VectorRowRecord> queries = vectorParam.getRowRecord().getRecordsList();
+    if (parts <= 1 || queries.size() <= 1) {
+      return Collections.singletonList(request);
+    }
+    int queriesPerPart = (queries.size() + parts - 1) / Math.min(parts, queries.size());
+    List<io.milvus.grpc.SearchParam> requests = new ArrayList<>(parts);
+    for (int from = 0; from < queries.size(); from += queriesPerPart) {
+      List<VectorRowRecord> part = queries.subList(from, Math.min(queries.size(), from + queriesPerPart));
+      requests.add(request.toBuilder()
+          .setVectorParam(0, vectorParam.toBuilder()
+              .setRowRecord(VectorRecord.newBuilder().addAllRecords(part))
+              .build())
+          .build());
+    }
+    return requests;
+  }
+
   private Optional<JSONObject> locateVectorQuery(Object obj) {
     return obj instanceof JSONObject ? locateVectorQuery((JSONObject) obj)
         : obj instanceof JSONArray ? locateVectorQuery((JSONArray) obj)
@@ -1,16 +1,45 @@
 package io.milvus.client;
 
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Longs;
+import io.milvus.grpc.AttrRecord;
+import io.milvus.grpc.FieldValue;
+import io.milvus.grpc.VectorRowRecord;
+
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+/**
+ * Result of a search. Ids and distances of all queries are held in two primitive arrays; the list
+ * getters are views over them which box on access.
+ *
+ * <p>Returned entity fields are decoded one column at a time, when a field is first read. Unless
+ * the search was made with {@link SearchParam.ResultFields#LAZY}, all columns are decoded into
+ * <code>getFieldsMap()</code> up front.</p>
+ */
 public class SearchResult {
-  private int numQueries;
-  private long topK;
-  private List<List<Long>> resultIdsList;
-  private List<List<Float>> resultDistancesList;
-  private List<List<Map<String, Object>>> fieldsMap;
+  private final int numQueries;
+  private final long topK;
+  private final long[] ids;
+  private final float[] distances;
+  // Results of query i are at [offsets[i], offsets[i + 1])
+  private final int[] offsets;
+  // Query i is query firstQuery + i of the search fieldValues were returned by
+  private final int firstQuery;
+  private final List<FieldValue> fieldValues;
+  private final Map<String, Column> columns;
+  private final List<List<Map<String, Object>>> fieldsMap;
 
   public SearchResult(int numQueries,
                       long topK,
@@ -19,11 +48,253 @@ public class SearchResult {
                       List<List<Map<String, Object>>> fieldsMap) {
     this.numQueries = numQueries;
     this.topK = topK;
-    this.resultIdsList = resultIdsList;
-    this.resultDistancesList = resultDistancesList;
+    this.offsets = new int[numQueries + 1];
+    for (int i = 0; i < resultIdsList.size(); i++) {
+      offsets[i + 1] = offsets[i] + resultIdsList.get(i).size();
+    }
+    for (int i = resultIdsList.size(); i < numQueries; i++) {
+      offsets[i + 1] = offsets[i];
+    }
+    this.ids = new long[offsets[numQueries]];
+    this.distances = new float[offsets[numQueries]];
+    for (int i = 0; i < resultIdsList.size(); i++) {
+      for (int j = 0; j < resultIdsList.get(i).size(); j++) {
+        ids[offsets[i] + j] = resultIdsList.get(i).get(j);
+        distances[offsets[i] + j] = resultDistancesList.get(i).get(j);
+      }
+    }
+    this.firstQuery = 0;
+    this.fieldValues = Collections.emptyList();
+    this.columns = new ConcurrentHashMap<>();
+    this.fieldsMap = fieldsMap;
+  }
+
+  /**
+   * @param fieldValues the returned entity fields, where the row of the result at rank
+   *     <code>rank</code> of query <code>query</code> is <code>query * topK + rank</code>
+   * @param lazyFields whether to decode <code>fieldValues</code> only on access
+   */
+  SearchResult(int numQueries,
+               long topK,
+               long[] ids,
+               float[] distances,
+               int[] offsets,
+               List<FieldValue> fieldValues,
+               boolean lazyFields) {
+    this.numQueries = numQueries;
+    this.topK = topK;
+    this.ids = ids;
+    this.distances = distances;
+    this.offsets = offsets;
+    this.firstQuery = 0;
+    this.fieldValues = fieldValues;
+    this.columns = new ConcurrentHashMap<>();
+    this.fieldsMap = lazyFields ? new FieldsMapView() : decodeFieldsMap();
+  }
+
+  private SearchResult(int numQueries,
+                       long topK,
+                       long[] ids,
+                       float[] distances,
+                       int[] offsets,
+                       List<List<Map<String, Object>>> fieldsMap) {
+    this.numQueries = numQueries;
+    this.topK = topK;
+    this.ids = ids;
+    this.distances = distances;
+    this.offsets = offsets;
+    this.firstQuery = 0;
+    this.fieldValues = Collections.emptyList();
+    this.columns = new ConcurrentHashMap<>();
+    this.fieldsMap = fieldsMap;
+  }
+
+  private SearchResult(SearchResult searchResult, List<List<Map<String, Object>>> fieldsMap) {
+    this.numQueries = searchResult.numQueries;
+    this.topK = searchResult.topK;
+    this.ids = searchResult.ids;
+    this.distances = searchResult.distances;
+    this.offsets = searchResult.offsets;
+    this.firstQuery = searchResult.firstQuery;
+    this.fieldValues = searchResult.fieldValues;
+    this.columns = searchResult.columns;
     this.fieldsMap = fieldsMap;
   }
 
+  private SearchResult(SearchResult searchResult, int fromQuery, int toQuery) {
+    this.numQueries = toQuery - fromQuery;
+    this.topK = searchResult.topK;
+    this.ids = searchResult.ids;
+    this.distances = searchResult.distances;
+    this.offsets = Arrays.copyOfRange(searchResult.offsets, fromQuery, toQuery + 1);
+    this.firstQuery = searchResult.firstQuery + fromQuery;
+    this.fieldValues = searchResult.fieldValues;
+    this.columns = searchResult.columns;
+    this.fieldsMap = searchResult.fieldsMap instanceof FieldsMapView
+        ? new FieldsMapView()
+        : searchResult.fieldsMap.subList(
+            Math.min(fromQuery, searchResult.fieldsMap.size()), Math.min(toQuery, searchResult.fieldsMap.size()));
+  }
+
+  /**
+   * Merges the results of the same queries over disjoint parts of a collection, keeping the best
+   * <code>topK</code> results of each query with a k-way merge.
+   *
+   * @param parts results which are each ordered best first
+   * @param descending whether larger distances are better, as for <code>MetricType.IP</code>
+   * @return the merged result, whose fields are read from <code>parts</code> on access
+   */
+  static SearchResult merge(List<SearchResult> parts, boolean descending) {
+    if (parts.size() == 1) {
+      return parts.get(0);
+    }
+    int numQueries = parts.get(0).numQueries;
+    long topK = 0;
+    for (SearchResult part : parts) {
+      if (part.numQueries != numQueries) {
+        throw new IllegalArgumentException("Cannot merge results of " + part.numQueries
+            + " queries with results of " + numQueries + " queries");
+      }
+      topK = Math.max(topK, part.topK);
+    }
+    int[] offsets = new int[numQueries + 1];
+    int capacity = 0;
+    for (int i = 0; i < numQueries; i++) {
+      int count = 0;
+      for (SearchResult part : parts) {
+        count += part.getResultCount(i);
+      }
+      capacity += (int) Math.min(topK, count);
+    }
+    long[] ids = new long[capacity];
+    float[] distances = new float[capacity];
+    int[] sourceParts = new int[capacity];
+    int[] sourceRanks = new int[capacity];
+
+    int count = 0;
+    for (int i = 0; i < numQueries; i++) {
+      int query = i;
+      // cursors of {part, rank}, best distance first
+      PriorityQueue<int[]> cursors = new PriorityQueue<>(parts.size(), (a, b) -> {
+        int order = Float.compare(parts.get(a[0]).getDistance(query, a[1]), parts.get(b[0]).getDistance(query, b[1]));
+        return order != 0 ? (descending ? -order : order) : Integer.compare(a[0], b[0]);
+      });
+      for (int part = 0; part < parts.size(); part++) {
+        if (parts.get(part).getResultCount(query) > 0) {
+          cursors.add(new int[] {part, 0});
+        }
+      }
+      offsets[query] = count;
+      while (count - offsets[query] < topK && !cursors.isEmpty()) {
+        int[] cursor = cursors.poll();
+        SearchResult part = parts.get(cursor[0]);
+        ids[count] = part.getId(query, cursor[1]);
+        distances[count] = part.getDistance(query, cursor[1]);
+        sourceParts[count] = cursor[0];
+        sourceRanks[count] = cursor[1];
+        count++;
+        if (++cursor[1] < part.getResultCount(query)) {
+          cursors.add(cursor);
+        }
+      }
+    }
+    offsets[numQueries] = count;
+
+    return new SearchResult(numQueries, topK, ids, distances, offsets, new AbstractList<List<Map<String, Object>>>() {
+      @Override
+      public int size() {
+        return numQueries;
+      }
+
+      @Override
+      public List<Map<String, Object>> get(int query) {
+        int from = offsets[query];
+        int count = offsets[query + 1] - from;
+        return new AbstractList<Map<String, Object>>() {
+          @Override
+          public Map<String, Object> get(int rank) {
+            if (rank < 0 || rank >= count) {
+              throw new IndexOutOfBoundsException("Rank " + rank + " of query " + query);
+            }
+            List<List<Map<String, Object>>> fieldsMap = parts.get(sourceParts[from + rank]).getFieldsMap();
+            return query < fieldsMap.size()
+                ? fieldsMap.get(query).get(sourceRanks[from + rank])
+                : Collections.emptyMap();
+          }
+
+          @Override
+          public int size() {
+            return count;
+          }
+        };
+      }
+    });
+  }
+
+  /**
+   * @return this result with the fields of each hit looked up by its id in <code>entities</code>,
+   *     or empty for ids missing from it
+   */
+  SearchResult withEntities(Map<Long, Map<String, Object>> entities) {
+    return new SearchResult(numQueries, topK, ids, distances, offsets, new QueryList<List<Map<String, Object>>>() {
+      @Override
+      public List<Map<String, Object>> get(int query) {
+        int count = getResultCount(query);
+        return new AbstractList<Map<String, Object>>() {
+          @Override
+          public Map<String, Object> get(int rank) {
+            return entities.getOrDefault(ids[index(query, rank)], Collections.emptyMap());
+          }
+
+          @Override
+          public int size() {
+            return count;
+          }
+        };
+      }
+    });
+  }
+
+  /** @return this result with a read-only view of its fields map, to be shared between callers */
+  SearchResult withUnmodifiableFields() {
+    if (fieldsMap instanceof FieldsMapView) {
+      // builds new maps on every access
+      return this;
+    }
+    return new SearchResult(this, Collections.unmodifiableList(Lists.transform(
+        fieldsMap, maps -> Collections.unmodifiableList(Lists.transform(maps, Collections::unmodifiableMap)))));
+  }
+
+  /**
+   * Guesses from their order whether larger distances are better in <code>parts</code>, for
+   * merging results of searches whose metric is unknown.
+   */
+  static boolean isDescending(List<SearchResult> parts) {
+    for (SearchResult part : parts) {
+      for (int i = 0; i < part.numQueries; i++) {
+        int count = part.getResultCount(i);
+        if (count > 1) {
+          int order = Float.compare(part.getDistance(i, 0), part.getDistance(i, count - 1));
+          if (order != 0) {
+            return order > 0;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the results of queries <code>[fromQuery, toQuery)</code>, sharing the arrays and
+   *     decoded field columns of this result
+   */
+  SearchResult slice(int fromQuery, int toQuery) {
+    if (fromQuery < 0 || fromQuery > toQuery || toQuery > numQueries) {
+      throw new IndexOutOfBoundsException("Queries [" + fromQuery + ", " + toQuery + ") of " + numQueries);
+    }
+    return new SearchResult(this, fromQuery, toQuery);
+  }
+
   public int getNumQueries() {
     return numQueries;
   }
@@ -32,24 +303,242 @@ public class SearchResult {
     return topK;
   }
 
+  /** @return the number of results of query <code>query</code>, at most <code>topK</code> */
+  public int getResultCount(int query) {
+    checkQuery(query);
+    return offsets[query + 1] - offsets[query];
+  }
+
+  /** @return the id of the entity at rank <code>rank</code> in the results of query <code>query</code> */
+  public long getId(int query, int rank) {
+    return ids[index(query, rank)];
+  }
+
+  /** @return the distance at rank <code>rank</code> in the results of query <code>query</code> */
+  public float getDistance(int query, int rank) {
+    return distances[index(query, rank)];
+  }
+
+  /** @return a read-only view of the result ids of query <code>query</code>, in rank order */
+  public LongBuffer idsOf(int query) {
+    return LongBuffer.wrap(ids, offsets[query], getResultCount(query)).slice().asReadOnlyBuffer();
+  }
+
+  /** @return a read-only view of the result distances of query <code>query</code>, in rank order */
+  public FloatBuffer distancesOf(int query) {
+    return FloatBuffer.wrap(distances, offsets[query], getResultCount(query)).slice().asReadOnlyBuffer();
+  }
+
   public List<List<Long>> getResultIdsList() {
-    return resultIdsList;
+    return new QueryList<List<Long>>() {
+      @Override
+      public List<Long> get(int query) {
+        return Longs.asList(ids).subList(offsets[query], offsets[query + 1]);
+      }
+    };
   }
 
   public List<List<Float>> getResultDistancesList() {
-    return resultDistancesList;
+    return new QueryList<List<Float>>() {
+      @Override
+      public List<Float> get(int query) {
+        return Floats.asList(distances).subList(offsets[query], offsets[query + 1]);
+      }
+    };
   }
 
   public List<List<Map<String, Object>>> getFieldsMap() {
     return fieldsMap;
   }
 
+  /** @return the names of the entity fields returned with this result */
+  public List<String> getFieldNames() {
+    if (fieldValues.isEmpty() && !fieldsMap.isEmpty()) {
+      return fieldsMap.stream()
+          .flatMap(maps -> maps.stream().flatMap(map -> map.keySet().stream()))
+          .distinct()
+          .collect(Collectors.toList());
+    }
+    return fieldValues.stream().map(FieldValue::getFieldName).collect(Collectors.toList());
+  }
+
+  /**
+   * Reads one returned field of the entity at rank <code>rank</code> in the results of query
+   * <code>query</code>. Only the column of <code>fieldName</code> is decoded, on first access.
+   *
+   * @return the field value, or <code>null</code> if the field was not returned
+   */
+  public Object getFieldValue(int query, int rank, String fieldName) {
+    index(query, rank);
+    if (fieldValues.isEmpty()) {
+      return query < fieldsMap.size() ? fieldsMap.get(query).get(rank).get(fieldName) : null;
+    }
+    Column column = column(fieldName);
+    return column == null ? null : column.get(row(query, rank));
+  }
+
   public List<List<QueryResult>> getQueryResultsList() {
-    return IntStream.range(0, numQueries)
-        .mapToObj(i -> IntStream.range(0, resultIdsList.get(i).size())
-            .mapToObj(j -> new QueryResult(resultIdsList.get(i).get(j), resultDistancesList.get(i).get(j)))
-            .collect(Collectors.toList()))
-        .collect(Collectors.toList());
+    return new QueryList<List<QueryResult>>() {
+      @Override
+      public List<QueryResult> get(int query) {
+        int count = getResultCount(query);
+        return new AbstractList<QueryResult>() {
+          @Override
+          public QueryResult get(int rank) {
+            return new QueryResult(getId(query, rank), getDistance(query, rank));
+          }
+
+          @Override
+          public int size() {
+            return count;
+          }
+        };
+      }
+    };
+  }
+
+  private int row(int query, int rank) {
+    return (int) ((firstQuery + query) * topK + rank);
+  }
+
+  private Column column(String fieldName) {
+    Column column = columns.get(fieldName);
+    if (column == null) {
+      for (FieldValue fieldValue : fieldValues) {
+        if (fieldValue.getFieldName().equals(fieldName)) {
+          column = columns.computeIfAbsent(fieldName, name -> Column.decode(fieldValue));
+          break;
+        }
+      }
+    }
+    return column;
+  }
+
+  private Map<String, Object> fieldsOf(int query, int rank) {
+    Map<String, Object> fields = new HashMap<>();
+    for (FieldValue fieldValue : fieldValues) {
+      String fieldName = fieldValue.getFieldName();
+      fields.put(fieldName, column(fieldName).get(row(query, rank)));
+    }
+    return fields;
+  }
+
+  private List<List<Map<String, Object>>> decodeFieldsMap() {
+    List<List<Map<String, Object>>> fieldsMap = new ArrayList<>(numQueries);
+    for (int i = 0; i < numQueries; i++) {
+      int count = getResultCount(i);
+      List<Map<String, Object>> maps = new ArrayList<>(count);
+      for (int j = 0; j < count; j++) {
+        maps.add(fieldsOf(i, j));
+      }
+      fieldsMap.add(maps);
+    }
+    return fieldsMap;
+  }
+
+  private int index(int query, int rank) {
+    if (rank < 0 || rank >= getResultCount(query)) {
+      throw new IndexOutOfBoundsException("Rank " + rank + " of query " + query);
+    }
+    return offsets[query] + rank;
+  }
+
+  private void checkQuery(int query) {
+    if (query < 0 || query >= numQueries) {
+      throw new IndexOutOfBoundsException("Query " + query + " of " + numQueries);
+    }
+  }
+
+  private abstract class QueryList<T> extends AbstractList<T> {
+    @Override
+    public int size() {
+      return numQueries;
+    }
+  }
+
+  /** Decodes each map on access, so only the fields of the hits read are ever boxed. */
+  private class FieldsMapView extends QueryList<List<Map<String, Object>>> {
+    @Override
+    public List<Map<String, Object>> get(int query) {
+      int count = getResultCount(query);
+      return new AbstractList<Map<String, Object>>() {
+        @Override
+        public Map<String, Object> get(int rank) {
+          index(query, rank);
+          return fieldsOf(query, rank);
+        }
+
+        @Override
+        public int size() {
+          return count;
+        }
+      };
+    }
+  }
+
+  /** A decoded field column, indexed by entity row. */
+  private abstract static class Column {
+    abstract Object get(int row);
+
+    static Column decode(FieldValue fieldValue) {
+      AttrRecord attrRecord = fieldValue.getAttrRecord();
+      if (attrRecord.getInt32ValueCount() > 0) {
+        int[] values = new int[attrRecord.getInt32ValueCount()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = attrRecord.getInt32Value(i);
+        }
+        return new Column() {
+          @Override
+          Object get(int row) {
+            return values[row];
+          }
+        };
+      } else if (attrRecord.getInt64ValueCount() > 0) {
+        long[] values = new long[attrRecord.getInt64ValueCount()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = attrRecord.getInt64Value(i);
+        }
+        return new Column() {
+          @Override
+          Object get(int row) {
+            return values[row];
+          }
+        };
+      } else if (attrRecord.getDoubleValueCount() > 0) {
+        double[] values = new double[attrRecord.getDoubleValueCount()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = attrRecord.getDoubleValue(i);
+        }
+        return new Column() {
+          @Override
+          Object get(int row) {
+            return values[row];
+          }
+        };
+      } else if (attrRecord.getFloatValueCount() > 0) {
+        float[] values = new float[attrRecord.getFloatValueCount()];
+        for (int i = 0; i < values.length; i++) {
+          values[i] = attrRecord.getFloatValue(i);
+        }
+        return new Column() {
+          @Override
+          Object get(int row) {
+            return values[row];
+          }
+        };
+      }
+      // the column is a vector field
+      List<VectorRowRecord> records = fieldValue.getVectorRecord().getRecordsList();
+      return new Column() {
+        @Override
+        Object get(int row) {
+          VectorRowRecord record = records.get(row);
+          return record.getFloatDataCount() > 0
+              ? record.getFloatDataList()
+              : record.getBinaryData().asReadOnlyByteBuffer();
+        }
+      };
+    }
   }
 
   public static class QueryResult {
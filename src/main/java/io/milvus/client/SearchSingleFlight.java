@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight search between identical concurrent searches. Each caller gets its own
+ * future; cancelling it only cancels the shared search once no other caller is waiting for it.
+ * The shared result is read-only, as all callers get the same instance.
+ */
+class SearchSingleFlight {
+  private final Map<SearchCache.Key, Flight> flights = new HashMap<>();
+
+  /** @return the result of an identical search in flight, or else of <code>search</code> */
+  ListenableFuture<SearchResult> get(SearchCache.Key key, Supplier<ListenableFuture<SearchResult>> search) {
+    Flight flight;
+    boolean leader = false;
+    synchronized (this) {
+      flight = flights.get(key);
+      if (flight == null) {
+        flight = new Flight();
+        flights.put(key, flight);
+        leader = true;
+      }
+      flight.waiters++;
+    }
+    if (leader) {
+      Flight started = flight;
+      try {
+        flight.search.setFuture(Futures.transform(
+            search.get(), SearchResult::withUnmodifiableFields, MoreExecutors.directExecutor()));
+      } catch (Throwable t) {
+        flight.search.setException(t);
+      }
+      flight.search.addListener(() -> remove(key, started), MoreExecutors.directExecutor());
+    }
+    ListenableFuture<SearchResult> result = Futures.nonCancellationPropagating(flight.search);
+    Flight joined = flight;
+    result.addListener(() -> {
+      if (result.isCancelled()) {
+        leave(key, joined);
+      }
+    }, MoreExecutors.directExecutor());
+    return result;
+  }
+
+  /** Makes later searches of <code>collectionName</code> start a new flight. */
+  synchronized void forget(String collectionName) {
+    flights.keySet().removeIf(key -> key.collectionName.equals(collectionName));
+  }
+
+  private void leave(SearchCache.Key key, Flight flight) {
+    boolean abandoned;
+    synchronized (this) {
+      abandoned = --flight.waiters == 0;
+      if (abandoned) {
+        remove(key, flight);
+      }
+    }
+    if (abandoned) {
+      flight.search.cancel(true);
+    }
+  }
+
+  private synchronized void remove(SearchCache.Key key, Flight flight) {
+    if (flights.get(key) == flight) {
+      flights.remove(key);
+    }
+  }
+
+  private static class Flight {
+    final SettableFuture<SearchResult> search = SettableFuture.create();
+    int waiters;
+  }
+}
@@ -0,0 +1,585 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.milvus.client.exception.ClientSideMilvusException;
+import io.milvus.client.exception.MilvusException;
+import io.milvus.client.exception.ServerSideMilvusException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A <code>MilvusClient</code> over several Milvus servers, each holding a disjoint shard of every
+ * collection.
+ *
+ * <p>Entities with ids are placed on the shard their id hashes to, so inserts, deletes and
+ * <code>getEntityByID</code> only reach the shards owning the ids. Inserts must therefore carry
+ * their ids: ids assigned by a server would not hash to the shard holding the entity, and ids
+ * assigned by different servers could collide. Searches are sent to every shard and the top-K results of each
+ * query are merged on the client, best distance first: descending for <code>MetricType.IP</code>
+ * and ascending otherwise. Collection and index operations are applied to every shard.</p>
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * MilvusClient client = new ShardedMilvusClient(Arrays.asList(
+ *     new MilvusGrpcClient(connectParam1), new MilvusGrpcClient(connectParam2)));
+ * </code>
+ * </pre>
+ */
+public class ShardedMilvusClient implements MilvusClient {
+  private final List<MilvusClient> shards;
+
+  /**
+   * @param shards clients of the servers holding each shard. Entities are placed by their index in
+   *     this list, so it must list the same servers in the same order every time.
+   */
+  public ShardedMilvusClient(@Nonnull List<? extends MilvusClient> shards) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard must be given!");
+    }
+    this.shards = new ArrayList<>(shards);
+  }
+
+  /** @return the index of the shard holding the entity with id <code>id</code> */
+  int shardOf(long id) {
+    return Hashing.consistentHash(Hashing.murmur3_128().hashLong(id), shards.size());
+  }
+
+  @Override
+  public String target() {
+    return shards.stream().map(MilvusClient::target).collect(Collectors.joining(","));
+  }
+
+  @Override
+  public void close(long maxWaitSeconds) {
+    shards.forEach(shard -> shard.close(maxWaitSeconds));
+  }
+
+  @Override
+  public MilvusClient withTimeout(long timeout, TimeUnit timeoutUnit) {
+    return new ShardedMilvusClient(
+        shards.stream().map(shard -> shard.withTimeout(timeout, timeoutUnit)).collect(Collectors.toList()));
+  }
+
+  @Override
+  public void createCollection(@Nonnull CollectionMapping collectionMapping) {
+    get(createCollectionAsync(collectionMapping));
+  }
+
+  @Override
+  public ListenableFuture<Void> createCollectionAsync(@Nonnull CollectionMapping collectionMapping) {
+    return allShards(shard -> shard.createCollectionAsync(collectionMapping));
+  }
+
+  @Override
+  public boolean hasCollection(@Nonnull String collectionName) {
+    return get(hasCollectionAsync(collectionName));
+  }
+
+  @Override
+  public ListenableFuture<Boolean> hasCollectionAsync(@Nonnull String collectionName) {
+    return allMatch(shard -> shard.hasCollectionAsync(collectionName));
+  }
+
+  @Override
+  public void dropCollection(@Nonnull String collectionName) {
+    get(dropCollectionAsync(collectionName));
+  }
+
+  @Override
+  public ListenableFuture<Void> dropCollectionAsync(@Nonnull String collectionName) {
+    return allShards(shard -> shard.dropCollectionAsync(collectionName));
+  }
+
+  @Override
+  public void createIndex(@Nonnull Index index) {
+    get(createIndexAsync(index));
+  }
+
+  @Override
+  public ListenableFuture<Void> createIndexAsync(@Nonnull Index index) {
+    return allShards(shard -> shard.createIndexAsync(index));
+  }
+
+  @Override
+  public void createPartition(String collectionName, String tag) {
+    get(createPartitionAsync(collectionName, tag));
+  }
+
+  @Override
+  public ListenableFuture<Void> createPartitionAsync(String collectionName, String tag) {
+    return allShards(shard -> shard.createPartitionAsync(collectionName, tag));
+  }
+
+  @Override
+  public boolean hasPartition(String collectionName, String tag) {
+    return get(hasPartitionAsync(collectionName, tag));
+  }
+
+  @Override
+  public ListenableFuture<Boolean> hasPartitionAsync(String collectionName, String tag) {
+    return allMatch(shard -> shard.hasPartitionAsync(collectionName, tag));
+  }
+
+  @Override
+  public List<String> listPartitions(String collectionName) {
+    return get(listPartitionsAsync(collectionName));
+  }
+
+  @Override
+  public ListenableFuture<List<String>> listPartitionsAsync(String collectionName) {
+    return union(shard -> shard.listPartitionsAsync(collectionName));
+  }
+
+  @Override
+  public void dropPartition(String collectionName, String tag) {
+    get(dropPartitionAsync(collectionName, tag));
+  }
+
+  @Override
+  public ListenableFuture<Void> dropPartitionAsync(String collectionName, String tag) {
+    return allShards(shard -> shard.dropPartitionAsync(collectionName, tag));
+  }
+
+  /**
+   * @throws IllegalArgumentException if <code>insertParam</code> has no entity ids
+   */
+  @Override
+  public List<Long> insert(@Nonnull InsertParam insertParam) {
+    return get(insertAsync(insertParam));
+  }
+
+  /**
+   * @throws IllegalArgumentException if <code>insertParam</code> has no entity ids
+   */
+  @Override
+  public ListenableFuture<List<Long>> insertAsync(@Nonnull InsertParam insertParam) {
+    long[] entityIds = insertParam.getEntityIds();
+    if (entityIds.length == 0 && insertParam.getRowCount() > 0) {
+      throw new IllegalArgumentException("Inserts into sharded collections must have entity ids!");
+    }
+    List<int[]> rowsByShard = groupByShard(Longs.asList(entityIds));
+    List<ListenableFuture<List<Long>>> responses = new ArrayList<>(shards.size());
+    for (int shard = 0; shard < shards.size(); shard++) {
+      int[] rows = rowsByShard.get(shard);
+      responses.add(rows.length == 0
+          ? Futures.immediateFuture(Collections.emptyList())
+          : shards.get(shard).insertAsync(insertParam.select(rows)));
+    }
+    return Futures.transform(Futures.allAsList(responses), shardIds -> {
+      Long[] ids = new Long[entityIds.length];
+      for (int shard = 0; shard < shards.size(); shard++) {
+        int[] rows = rowsByShard.get(shard);
+        for (int i = 0; i < rows.length; i++) {
+          ids[rows[i]] = shardIds.get(shard).get(i);
+        }
+      }
+      return Arrays.asList(ids);
+    }, MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public SearchResult search(@Nonnull SearchParam searchParam) {
+    return get(searchAsync(searchParam));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAsync(@Nonnull SearchParam searchParam) {
+    return mergeSearches(shard -> shard.searchAsync(searchParam), searchParam.getMetricType());
+  }
+
+  @Override
+  public SearchResult search(@Nonnull PreparedSearch.Bound boundSearch) {
+    return get(searchAsync(boundSearch));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAsync(@Nonnull PreparedSearch.Bound boundSearch) {
+    return mergeSearches(shard -> shard.searchAsync(boundSearch),
+        boundSearch.getPreparedSearch().getMetricType());
+  }
+
+  @Override
+  public SearchResult searchPB(@Nonnull SearchPBParam searchPBParam) {
+    return get(searchPBAsync(searchPBParam));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchPBAsync(@Nonnull SearchPBParam searchPBParam) {
+    return mergeSearches(shard -> shard.searchPBAsync(searchPBParam), null);
+  }
+
+  @Override
+  public SearchResult searchAndFetch(@Nonnull SearchParam searchParam, @Nonnull List<String> fieldNames) {
+    return get(searchAndFetchAsync(searchParam, fieldNames));
+  }
+
+  @Override
+  public ListenableFuture<SearchResult> searchAndFetchAsync(
+      @Nonnull SearchParam searchParam, @Nonnull List<String> fieldNames) {
+    return mergeSearches(shard -> shard.searchAndFetchAsync(searchParam, fieldNames), searchParam.getMetricType());
+  }
+
+  /**
+   * @throws IllegalArgumentException if <code>searchInSegmentParam</code> has segment ids
+   */
+  @Override
+  public SearchResult searchInSegments(@Nonnull SearchInSegmentParam searchInSegmentParam) {
+    return get(searchInSegmentsAsync(searchInSegmentParam));
+  }
+
+  /**
+   * Segment ids are assigned by each server, so every shard searches the segments it lists itself.
+   *
+   * @throws IllegalArgumentException if <code>searchInSegmentParam</code> has segment ids
+   */
+  @Override
+  public ListenableFuture<SearchResult> searchInSegmentsAsync(@Nonnull SearchInSegmentParam searchInSegmentParam) {
+    if (searchInSegmentParam.getSegmentIds() != null) {
+      throw new IllegalArgumentException("Searches in sharded collections cannot name segment ids!");
+    }
+    return mergeSearches(shard -> shard.searchInSegmentsAsync(searchInSegmentParam),
+        searchInSegmentParam.getSearchParam().getMetricType());
+  }
+
+  @Override
+  public CollectionMapping getCollectionInfo(@Nonnull String collectionName) {
+    return get(getCollectionInfoAsync(collectionName));
+  }
+
+  @Override
+  public ListenableFuture<CollectionMapping> getCollectionInfoAsync(@Nonnull String collectionName) {
+    return shards.get(0).getCollectionInfoAsync(collectionName);
+  }
+
+  @Override
+  public List<String> listCollections() {
+    return get(listCollectionsAsync());
+  }
+
+  @Override
+  public ListenableFuture<List<String>> listCollectionsAsync() {
+    return union(MilvusClient::listCollectionsAsync);
+  }
+
+  @Override
+  public long countEntities(@Nonnull String collectionName) {
+    return get(countEntitiesAsync(collectionName));
+  }
+
+  @Override
+  public ListenableFuture<Long> countEntitiesAsync(@Nonnull String collectionName) {
+    return Futures.transform(eachShard(shard -> shard.countEntitiesAsync(collectionName)),
+        counts -> counts.stream().mapToLong(Long::longValue).sum(), MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public String getServerStatus() {
+    return get(getServerStatusAsync());
+  }
+
+  @Override
+  public ListenableFuture<String> getServerStatusAsync() {
+    return shards.get(0).getServerStatusAsync();
+  }
+
+  @Override
+  public String getServerVersion() {
+    return get(getServerVersionAsync());
+  }
+
+  @Override
+  public ListenableFuture<String> getServerVersionAsync() {
+    return shards.get(0).getServerVersionAsync();
+  }
+
+  @Override
+  public String command(@Nonnull String command) {
+    return get(commandAsync(command));
+  }
+
+  @Override
+  public ListenableFuture<String> commandAsync(@Nonnull String command) {
+    return shards.get(0).commandAsync(command);
+  }
+
+  @Override
+  public void loadCollection(@Nonnull String collectionName) {
+    get(loadCollectionAsync(collectionName));
+  }
+
+  @Override
+  public ListenableFuture<Void> loadCollectionAsync(@Nonnull String collectionName) {
+    return allShards(shard -> shard.loadCollectionAsync(collectionName));
+  }
+
+  @Override
+  public void dropIndex(String collectionName, String fieldName) {
+    get(dropIndexAsync(collectionName, fieldName));
+  }
+
+  @Override
+  public ListenableFuture<Void> dropIndexAsync(String collectionName, String fieldName) {
+    return allShards(shard -> shard.dropIndexAsync(collectionName, fieldName));
+  }
+
+  /** @return a JSON array of the statistics of each shard, in shard order */
+  @Override
+  public String getCollectionStats(String collectionName) {
+    return get(getCollectionStatsAsync(collectionName));
+  }
+
+  /** @return a JSON array of the statistics of each shard, in shard order */
+  @Override
+  public ListenableFuture<String> getCollectionStatsAsync(String collectionName) {
+    return Futures.transform(eachShard(shard -> shard.getCollectionStatsAsync(collectionName)), shardStats -> {
+      JSONArray stats = new JSONArray();
+      shardStats.forEach(json -> stats.put(new JSONObject(json)));
+      return stats.toString();
+    }, MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public Map<Long, Map<String, Object>> getEntityByID(String collectionName, List<Long> ids, List<String> fieldNames) {
+    return get(getEntityByIDAsync(collectionName, ids, fieldNames));
+  }
+
+  @Override
+  public ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames) {
+    return Futures.transform(byShard(ids, (shard, shardIds) ->
+        shard.getEntityByIDAsync(collectionName, shardIds, fieldNames)), shardEntities -> {
+          Map<Long, Map<String, Object>> entities = new HashMap<>();
+          shardEntities.forEach(entities::putAll);
+          return entities;
+        }, MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public Map<Long, Map<String, Object>> getEntityByID(String collectionName, List<Long> ids) {
+    return getEntityByID(collectionName, ids, Collections.emptyList());
+  }
+
+  @Override
+  public ListenableFuture<Map<Long, Map<String, Object>>> getEntityByIDAsync(String collectionName, List<Long> ids) {
+    return getEntityByIDAsync(collectionName, ids, Collections.emptyList());
+  }
+
+  @Override
+  public ColumnarEntities getEntityByIDColumnar(String collectionName, List<Long> ids, List<String> fieldNames) {
+    return get(getEntityByIDColumnarAsync(collectionName, ids, fieldNames));
+  }
+
+  @Override
+  public ListenableFuture<ColumnarEntities> getEntityByIDColumnarAsync(
+      String collectionName, List<Long> ids, List<String> fieldNames) {
+    List<int[]> indicesByShard = groupByShard(ids);
+    List<int[]> rowsOfParts = new ArrayList<>(shards.size());
+    List<ListenableFuture<ColumnarEntities>> parts = new ArrayList<>(shards.size());
+    for (int shard = 0; shard < shards.size(); shard++) {
+      int[] indices = indicesByShard.get(shard);
+      if (indices.length > 0) {
+        rowsOfParts.add(indices);
+        parts.add(shards.get(shard).getEntityByIDColumnarAsync(collectionName, select(ids, indices), fieldNames));
+      }
+    }
+    return Futures.transform(Futures.allAsList(parts),
+        shardEntities -> ColumnarEntities.gather(ids.size(), shardEntities, rowsOfParts),
+        MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public List<Long> listIDInSegment(String collectionName, Long segmentId) {
+    return get(listIDInSegmentAsync(collectionName, segmentId));
+  }
+
+  /**
+   * Segment ids are assigned by each server, so the ids of the segment are listed from every shard
+   * that has it.
+   */
+  @Override
+  public ListenableFuture<List<Long>> listIDInSegmentAsync(String collectionName, Long segmentId) {
+    List<ListenableFuture<List<Long>>> responses = new ArrayList<>(shards.size());
+    for (MilvusClient shard : shards) {
+      responses.add(Futures.catching(shard.listIDInSegmentAsync(collectionName, segmentId),
+          ServerSideMilvusException.class, e -> null, MoreExecutors.directExecutor()));
+    }
+    return Futures.transformAsync(Futures.allAsList(responses), shardIds -> {
+      List<Long> ids = new ArrayList<>();
+      boolean found = false;
+      for (List<Long> part : shardIds) {
+        if (part != null) {
+          ids.addAll(part);
+          found = true;
+        }
+      }
+      // none of the shards has the segment, so report the error of the first
+      return found ? Futures.immediateFuture(ids) : shards.get(0).listIDInSegmentAsync(collectionName, segmentId);
+    }, MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public void deleteEntityByID(String collectionName, List<Long> ids) {
+    get(deleteEntityByIDAsync(collectionName, ids));
+  }
+
+  @Override
+  public ListenableFuture<Void> deleteEntityByIDAsync(String collectionName, List<Long> ids) {
+    return Futures.transform(byShard(ids, (shard, shardIds) -> shard.deleteEntityByIDAsync(collectionName, shardIds)),
+        ignored -> null, MoreExecutors.directExecutor());
+  }
+
+  @Override
+  public void flush(List<String> collectionNames) {
+    get(flushAsync(collectionNames));
+  }
+
+  @Override
+  public ListenableFuture<Void> flushAsync(@Nonnull List<String> collectionNames) {
+    return allShards(shard -> shard.flushAsync(collectionNames));
+  }
+
+  @Override
+  public void flush(String collectionName) {
+    flush(Collections.singletonList(collectionName));
+  }
+
+  @Override
+  public ListenableFuture<Void> flushAsync(String collectionName) {
+    return flushAsync(Collections.singletonList(collectionName));
+  }
+
+  @Override
+  public void compact(@Nonnull CompactParam compactParam) {
+    get(compactAsync(compactParam));
+  }
+
+  @Override
+  public ListenableFuture<Void> compactAsync(@Nonnull CompactParam compactParam) {
+    return allShards(shard -> shard.compactAsync(compactParam));
+  }
+
+  private ListenableFuture<SearchResult> mergeSearches(
+      Function<MilvusClient, ListenableFuture<SearchResult>> search, MetricType metricType) {
+    List<ListenableFuture<SearchResult>> results = shards.stream().map(search).collect(Collectors.toList());
+    return Futures.transform(Futures.allAsList(results), shardResults -> SearchResult.merge(shardResults,
+        metricType != null ? metricType == MetricType.IP : SearchResult.isDescending(shardResults)),
+        MoreExecutors.directExecutor());
+  }
+
+  private <T> ListenableFuture<List<T>> eachShard(Function<MilvusClient, ListenableFuture<T>> operation) {
+    return Futures.allAsList(shards.stream().map(operation).collect(Collectors.toList()));
+  }
+
+  private ListenableFuture<Void> allShards(Function<MilvusClient, ListenableFuture<Void>> operation) {
+    return Futures.transform(eachShard(operation), ignored -> null, MoreExecutors.directExecutor());
+  }
+
+  private ListenableFuture<Boolean> allMatch(Function<MilvusClient, ListenableFuture<Boolean>> check) {
+    return Futures.transform(eachShard(check), replies -> replies.stream().allMatch(Boolean::booleanValue),
+        MoreExecutors.directExecutor());
+  }
+
+  private ListenableFuture<List<String>> union(Function<MilvusClient, ListenableFuture<List<String>>> list) {
+    return Futures.transform(eachShard(list), lists -> {
+      Set<String> names = new LinkedHashSet<>();
+      lists.forEach(names::addAll);
+      return new ArrayList<>(names);
+    }, MoreExecutors.directExecutor());
+  }
+
+  /** Runs <code>operation</code> on each shard holding some of <code>ids</code>, with those ids. */
+  private <T> ListenableFuture<List<T>> byShard(
+      List<Long> ids, BiFunction<MilvusClient, List<Long>, ListenableFuture<T>> operation) {
+    List<int[]> indicesByShard = groupByShard(ids);
+    List<ListenableFuture<T>> responses = new ArrayList<>(shards.size());
+    for (int shard = 0; shard < shards.size(); shard++) {
+      List<Long> shardIds = select(ids, indicesByShard.get(shard));
+      if (!shardIds.isEmpty()) {
+        responses.add(operation.apply(shards.get(shard), shardIds));
+      }
+    }
+    return Futures.allAsList(responses);
+  }
+
+  /** @return for each shard, the ascending indices in <code>ids</code> of the ids it holds */
+  private List<int[]> groupByShard(List<Long> ids) {
+    int[] shardOfId = new int[ids.size()];
+    int[] counts = new int[shards.size()];
+    for (int i = 0; i < shardOfId.length; i++) {
+      shardOfId[i] = shardOf(ids.get(i));
+      counts[shardOfId[i]]++;
+    }
+    List<int[]> indicesByShard = new ArrayList<>(shards.size());
+    for (int count : counts) {
+      indicesByShard.add(new int[count]);
+    }
+    int[] filled = new int[shards.size()];
+    for (int i = 0; i < shardOfId.length; i++) {
+      indicesByShard.get(shardOfId[i])[filled[shardOfId[i]]++] = i;
+    }
+    return indicesByShard;
+  }
+
+  private static List<Long> select(List<Long> ids, int[] indices) {
+    List<Long> selected = new ArrayList<>(indices.length);
+    for (int index : indices) {
+      selected.add(ids.get(index));
+    }
+    return selected;
+  }
+
+  /** Waits for <code>future</code>, cancelling it if the waiting thread is interrupted. */
+  private <T> T get(ListenableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ClientSideMilvusException(target(), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof MilvusException) {
+        throw (MilvusException) e.getCause();
+      }
+      throw new ClientSideMilvusException(target(), e.getCause());
+    }
+  }
+}
@@ -0,0 +1,555 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.grpc.Attributes;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.ManagedChannel;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.NameResolverRegistry;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.milvus.grpc.Command;
+import io.milvus.grpc.ErrorCode;
+import io.milvus.grpc.MilvusServiceGrpc;
+import io.milvus.grpc.StringReply;
+
+import javax.annotation.Nonnull;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves targets listing fixed servers, like <code>static:///host1:19530,host2:19530</code>, and
+ * keeps servers out of the resolved addresses while they fail health probes. Servers listed without
+ * a port use 19530.
+ *
+ * <p>Each server is probed periodically with the <code>status</code> command. A server is ejected
+ * after failing several probes in a row, or when its probe latency spikes well above the median
+ * latency of the other servers. It stays ejected for a time that doubles with each ejection in a
+ * row, and is only brought back once it has passed several probes in a row again. Servers are
+ * never all ejected: if every server would be, all of them are resolved. The channels of one target
+ * in a provider, e.g. those of a client with several channels, share the probes of its servers.</p>
+ *
+ * <p>Readmission is not gradual: resolved addresses carry no weights, so a server that is brought
+ * back gets its full share of calls at once. Only the probes it must pass first and its doubling
+ * ejection time keep a flapping server from taking traffic too soon.</p>
+ *
+ * <p>A provider with the default options is registered for the <code>static</code> scheme when the
+ * first <code>MilvusGrpcClient</code> is created. Providers with other options can be registered
+ * under other schemes.</p>
+ *
+ * <pre>
+ * example usage:
+ * <code>
+ * NameResolverRegistry.getDefaultRegistry().register(new StaticNameResolverProvider.Builder()
+ *     .withScheme("static-fast")
+ *     .withProbeInterval(1, TimeUnit.SECONDS)
+ *     .build());
+ * ConnectParam connectParam = new ConnectParam.Builder()
+ *     .withTarget("static-fast:///host1:19530,host2:19530")
+ *     .build();
+ * </code>
+ * </pre>
+ */
+public class StaticNameResolverProvider extends NameResolverProvider {
+  private static final AtomicBoolean registered = new AtomicBoolean();
+  // the port of servers listed without one; the channel's default would be 80 or 443
+  private static final int DEFAULT_PORT = 19530;
+
+  private final String scheme;
+  private final long probeIntervalNanos;
+  private final long probeTimeoutNanos;
+  private final int failureThreshold;
+  private final int recoveryThreshold;
+  private final double latencySpikeFactor;
+  private final long minLatencySpikeNanos;
+  private final long baseEjectionNanos;
+  private final long maxEjectionNanos;
+  // guarded by this
+  final Map<String, Probes> probesByTarget = new HashMap<>();
+
+  private StaticNameResolverProvider(@Nonnull Builder builder) {
+    this.scheme = builder.scheme;
+    this.probeIntervalNanos = builder.probeIntervalNanos;
+    this.probeTimeoutNanos = builder.probeTimeoutNanos;
+    this.failureThreshold = builder.failureThreshold;
+    this.recoveryThreshold = builder.recoveryThreshold;
+    this.latencySpikeFactor = builder.latencySpikeFactor;
+    this.minLatencySpikeNanos = builder.minLatencySpikeNanos;
+    this.baseEjectionNanos = builder.baseEjectionNanos;
+    this.maxEjectionNanos = builder.maxEjectionNanos;
+  }
+
+  /** Registers a provider with the default options for the <code>static</code> scheme once. */
+  static void registerDefault() {
+    if (registered.compareAndSet(false, true)) {
+      NameResolverRegistry.getDefaultRegistry().register(new Builder().build());
+    }
+  }
+
+  @Override
+  public String getDefaultScheme() {
+    return scheme;
+  }
+
+  @Override
+  protected boolean isAvailable() {
+    return true;
+  }
+
+  @Override
+  protected int priority() {
+    return 5;
+  }
+
+  @Override
+  public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+    if (!scheme.equals(targetUri.getScheme())) {
+      return null;
+    }
+    String path = targetUri.getPath();
+    if (path == null || path.length() <= 1) {
+      throw new IllegalArgumentException("Target " + targetUri + " lists no servers!");
+    }
+    List<HostAndPort> servers = new ArrayList<>();
+    for (String server : path.substring(1).split(",")) {
+      servers.add(HostAndPort.fromString(server.trim()).withDefaultPort(DEFAULT_PORT));
+    }
+    return new Resolver(targetUri.toString(), targetUri.getAuthority(), servers, args);
+  }
+
+  /** @return the probes of <code>target</code>, started for its first resolver */
+  private synchronized Probes subscribe(String target, List<HostAndPort> servers, Resolver resolver) {
+    Probes probes = probesByTarget.get(target);
+    if (probes == null) {
+      probes = new Probes(servers);
+      probesByTarget.put(target, probes);
+      probes.start();
+    }
+    probes.resolvers.add(resolver);
+    return probes;
+  }
+
+  /** Stops the probes of <code>target</code> once its last resolver is shut down. */
+  private synchronized void unsubscribe(String target, Resolver resolver) {
+    Probes probes = probesByTarget.get(target);
+    if (probes != null && probes.resolvers.remove(resolver) && probes.resolvers.isEmpty()) {
+      probesByTarget.remove(target);
+      probes.stop();
+    }
+  }
+
+  /**
+   * Resolves the servers of one target. Every channel of a target, e.g. each channel of a
+   * <code>ChannelPool</code>, has a resolver of its own, but they all share its probes.
+   */
+  private class Resolver extends NameResolver {
+    private final String target;
+    private final String authority;
+    private final List<HostAndPort> servers;
+    private final SynchronizationContext syncContext;
+    private Listener2 listener;
+    private Probes probes;
+    private List<InetSocketAddress> resolved = Collections.emptyList();
+    private boolean shutdown;
+
+    Resolver(String target, String authority, List<HostAndPort> servers, NameResolver.Args args) {
+      this.target = target;
+      this.authority = authority != null ? authority : servers.get(0).toString();
+      this.servers = servers;
+      this.syncContext = args.getSynchronizationContext();
+    }
+
+    @Override
+    public String getServiceAuthority() {
+      return authority;
+    }
+
+    @Override
+    public void start(Listener2 listener) {
+      this.listener = listener;
+      probes = subscribe(target, servers, this);
+      resolve();
+    }
+
+    @Override
+    public void refresh() {
+      resolved = Collections.emptyList();
+      resolve();
+    }
+
+    @Override
+    public void shutdown() {
+      shutdown = true;
+      if (probes != null) {
+        unsubscribe(target, this);
+      }
+    }
+
+    /** Passes the servers admitted by the probes to the listener if they changed. */
+    private void resolve() {
+      if (shutdown) {
+        return;
+      }
+      List<InetSocketAddress> admitted = probes.admitted();
+      if (admitted.equals(resolved)) {
+        return;
+      }
+      resolved = admitted;
+      List<EquivalentAddressGroup> addresses = admitted.stream()
+          .map(EquivalentAddressGroup::new)
+          .collect(Collectors.toList());
+      if (addresses.isEmpty()) {
+        listener.onError(Status.UNAVAILABLE.withDescription("No servers in " + authority));
+      } else {
+        listener.onResult(ResolutionResult.newBuilder()
+            .setAddresses(addresses)
+            .setAttributes(Attributes.EMPTY)
+            .build());
+      }
+    }
+  }
+
+  /** Probes the servers of one target, each through a channel of its own, for all its resolvers. */
+  class Probes {
+    private final List<Server> probed = new ArrayList<>();
+    private final Set<Resolver> resolvers = new CopyOnWriteArraySet<>();
+    private ScheduledExecutorService scheduler;
+    private List<InetSocketAddress> admitted;
+    private boolean stopped;
+
+    Probes(List<HostAndPort> servers) {
+      for (HostAndPort server : servers) {
+        ManagedChannel channel = NettyChannelBuilder
+            .forAddress(server.getHost(), server.getPort())
+            .usePlaintext()
+            .build();
+        probed.add(new Server(new InetSocketAddress(server.getHost(), server.getPort()), channel));
+      }
+      admitted = addresses(probed);
+    }
+
+    void start() {
+      scheduler = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("milvus-probe-%d").build());
+      scheduler.scheduleWithFixedDelay(this::probe, probeIntervalNanos, probeIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    synchronized void stop() {
+      stopped = true;
+      scheduler.shutdownNow();
+      probed.forEach(server -> server.channel.shutdownNow());
+    }
+
+    synchronized List<InetSocketAddress> admitted() {
+      return admitted;
+    }
+
+    private void probe() {
+      Command request = Command.newBuilder().setCmd("status").build();
+      for (Server server : probed) {
+        long startNanos = System.nanoTime();
+        Futures.addCallback(MilvusServiceGrpc.newFutureStub(server.channel)
+            .withDeadlineAfter(probeTimeoutNanos, TimeUnit.NANOSECONDS)
+            .cmd(request), new FutureCallback<StringReply>() {
+              @Override
+              public void onSuccess(StringReply reply) {
+                boolean ok = reply.getStatus().getErrorCode() == ErrorCode.SUCCESS;
+                onProbe(server, ok, System.nanoTime() - startNanos);
+              }
+
+              @Override
+              public void onFailure(Throwable t) {
+                onProbe(server, false, System.nanoTime() - startNanos);
+              }
+            }, MoreExecutors.directExecutor());
+      }
+    }
+
+    private void onProbe(Server server, boolean ok, long latencyNanos) {
+      synchronized (this) {
+        if (stopped) {
+          return;
+        }
+        long nowNanos = System.nanoTime();
+        server.recordProbe(ok, latencyNanos);
+        boolean spiking = ok && isSpiking(server);
+        if (server.isEjected()) {
+          server.tryReadmit(nowNanos, spiking);
+        } else if ((server.failures >= failureThreshold || spiking) && admittedCount() > 1) {
+          server.eject(nowNanos);
+        } else {
+          server.settle(nowNanos);
+        }
+        List<Server> admittedServers = probed.stream()
+            .filter(other -> !other.isEjected())
+            .collect(Collectors.toList());
+        List<InetSocketAddress> addresses = addresses(admittedServers.isEmpty() ? probed : admittedServers);
+        if (addresses.equals(admitted)) {
+          return;
+        }
+        admitted = addresses;
+      }
+      // each resolver reads the latest addresses in its own sync context
+      for (Resolver resolver : resolvers) {
+        resolver.syncContext.execute(resolver::resolve);
+      }
+    }
+
+    /** @return whether the latency of <code>server</code> is far above that of the admitted others */
+    private boolean isSpiking(Server server) {
+      List<Long> latencies = probed.stream()
+          .filter(other -> other != server && !other.isEjected() && other.latencyNanos > 0)
+          .map(other -> other.latencyNanos)
+          .sorted()
+          .collect(Collectors.toList());
+      if (latencies.isEmpty()) {
+        return false;
+      }
+      long median = latencies.get(latencies.size() / 2);
+      return server.latencyNanos > Math.max(median * latencySpikeFactor, minLatencySpikeNanos);
+    }
+
+    private long admittedCount() {
+      return probed.stream().filter(server -> !server.isEjected()).count();
+    }
+
+    private List<InetSocketAddress> addresses(List<Server> servers) {
+      return servers.stream().map(server -> server.address).collect(Collectors.toList());
+    }
+  }
+
+  /** The probe history and ejection state of one server, only accessed holding the lock of its probes. */
+  class Server {
+    final InetSocketAddress address;
+    final ManagedChannel channel;
+    int failures;
+    int successes;
+    long latencyNanos;
+    int ejections;
+    long ejectedUntilNanos;
+    boolean ejected;
+    long admittedSinceNanos;
+
+    Server(InetSocketAddress address, ManagedChannel channel) {
+      this.address = address;
+      this.channel = channel;
+    }
+
+    boolean isEjected() {
+      return ejected;
+    }
+
+    void recordProbe(boolean ok, long probeLatencyNanos) {
+      if (ok) {
+        failures = 0;
+        successes++;
+        // a moving average, so that one slow probe is no spike
+        latencyNanos = latencyNanos == 0 ? probeLatencyNanos : (latencyNanos * 7 + probeLatencyNanos * 3) / 10;
+      } else {
+        successes = 0;
+        failures++;
+      }
+    }
+
+    void eject(long nowNanos) {
+      ejected = true;
+      ejections++;
+      long ejectionNanos = baseEjectionNanos << Math.min(ejections - 1, 30);
+      ejectedUntilNanos = nowNanos + Math.min(ejectionNanos > 0 ? ejectionNanos : maxEjectionNanos, maxEjectionNanos);
+      successes = 0;
+    }
+
+    /**
+     * Brings the server back, at its full share of calls, once its ejection is over and it has
+     * passed enough probes since.
+     */
+    void tryReadmit(long nowNanos, boolean spiking) {
+      if (nowNanos - ejectedUntilNanos >= 0 && successes >= recoveryThreshold && !spiking) {
+        ejected = false;
+        admittedSinceNanos = nowNanos;
+      }
+    }
+
+    /** Forgets past ejections once the server has stayed admitted for the longest ejection time. */
+    void settle(long nowNanos) {
+      if (ejections > 0 && nowNanos - admittedSinceNanos >= maxEjectionNanos) {
+        ejections = 0;
+      }
+    }
+  }
+
+  /** Builder for <code>StaticNameResolverProvider</code> */
+  public static class Builder {
+    private String scheme = "static";
+    private long probeIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+    private long probeTimeoutNanos = TimeUnit.SECONDS.toNanos(1);
+    private int failureThreshold = 3;
+    private int recoveryThreshold = 3;
+    private double latencySpikeFactor = 5;
+    private long minLatencySpikeNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private long baseEjectionNanos = TimeUnit.SECONDS.toNanos(30);
+    private long maxEjectionNanos = TimeUnit.MINUTES.toNanos(5);
+
+    /**
+     * Optional. Defaults to "static".
+     *
+     * @param scheme the URI scheme of the targets to resolve
+     * @return <code>Builder</code>
+     */
+    public Builder withScheme(@Nonnull String scheme) {
+      this.scheme = scheme;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 5 seconds.
+     *
+     * @param probeInterval the time between health probes of each server
+     * @param timeUnit the unit of <code>probeInterval</code>
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withProbeInterval(long probeInterval, @Nonnull TimeUnit timeUnit) throws IllegalArgumentException {
+      if (probeInterval <= 0L) {
+        throw new IllegalArgumentException("Probe interval must be positive!");
+      }
+      this.probeIntervalNanos = timeUnit.toNanos(probeInterval);
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 1 second.
+     *
+     * @param probeTimeout the time after which a probe fails
+     * @param timeUnit the unit of <code>probeTimeout</code>
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withProbeTimeout(long probeTimeout, @Nonnull TimeUnit timeUnit) throws IllegalArgumentException {
+      if (probeTimeout <= 0L) {
+        throw new IllegalArgumentException("Probe timeout must be positive!");
+      }
+      this.probeTimeoutNanos = timeUnit.toNanos(probeTimeout);
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 3.
+     *
+     * @param failureThreshold the probes failed in a row after which a server is ejected
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withFailureThreshold(int failureThreshold) throws IllegalArgumentException {
+      if (failureThreshold <= 0) {
+        throw new IllegalArgumentException("Failure threshold must be positive!");
+      }
+      this.failureThreshold = failureThreshold;
+      return this;
+    }
+
+    /**
+     * Optional. Defaults to 3.
+     *
+     * @param recoveryThreshold the probes an ejected server must pass in a row to come back
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withRecoveryThreshold(int recoveryThreshold) throws IllegalArgumentException {
+      if (recoveryThreshold <= 0) {
+        throw new IllegalArgumentException("Recovery threshold must be positive!");
+      }
+      this.recoveryThreshold = recoveryThreshold;
+      return this;
+    }
+
+    /**
+     * Optional. A server is ejected when its average probe latency exceeds both
+     * <code>factor</code> times the median of the other servers and <code>minLatency</code>.
+     * Defaults to 5 times and 100 milliseconds.
+     *
+     * @param factor the multiple of the median latency of the other servers
+     * @param minLatency the latency below which a server is never ejected as slow
+     * @param timeUnit the unit of <code>minLatency</code>
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withLatencySpike(double factor, long minLatency, @Nonnull TimeUnit timeUnit)
+        throws IllegalArgumentException {
+      if (factor <= 1) {
+        throw new IllegalArgumentException("Latency spike factor must be greater than 1!");
+      }
+      if (minLatency < 0L) {
+        throw new IllegalArgumentException("Minimum spike latency must not be negative!");
+      }
+      this.latencySpikeFactor = factor;
+      this.minLatencySpikeNanos = timeUnit.toNanos(minLatency);
+      return this;
+    }
+
+    /**
+     * Optional. A server is ejected for <code>baseEjectionTime</code> at first, twice as long each
+     * further time in a row, but never longer than <code>maxEjectionTime</code>. Defaults to 30
+     * seconds and 5 minutes.
+     *
+     * @param baseEjectionTime the time of a first ejection
+     * @param maxEjectionTime the longest time of an ejection
+     * @param timeUnit the unit of the times
+     * @return <code>Builder</code>
+     * @throws IllegalArgumentException
+     */
+    public Builder withEjectionTime(long baseEjectionTime, long maxEjectionTime, @Nonnull TimeUnit timeUnit)
+        throws IllegalArgumentException {
+      if (baseEjectionTime <= 0L) {
+        throw new IllegalArgumentException("Base ejection time must be positive!");
+      }
+      if (maxEjectionTime < baseEjectionTime) {
+        throw new IllegalArgumentException("Max ejection time must not be less than base ejection time!");
+      }
+      this.baseEjectionNanos = timeUnit.toNanos(baseEjectionTime);
+      this.maxEjectionNanos = timeUnit.toNanos(maxEjectionTime);
+      return this;
+    }
+
+    public StaticNameResolverProvider build() {
+      return new StaticNameResolverProvider(this);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A request marshaller that writes protobuf wire format straight from the request's own data into
+ * the outbound gRPC stream, without building the equivalent protobuf message first.
+ *
+ * <p>Like the stock protobuf marshaller, the returned stream is {@link Drainable}, so gRPC hands it
+ * the transport buffer to write into and no intermediate copy of the request is made.</p>
+ */
+abstract class StreamingMarshaller<T> implements MethodDescriptor.Marshaller<T> {
+  private static final int MAX_BUFFER_SIZE = 8192;
+
+  /** @return the exact number of bytes {@link #writeTo} will produce for <code>value</code> */
+  abstract int getSerializedSize(T value);
+
+  abstract void writeTo(T value, CodedOutputStream output) throws IOException;
+
+  @Override
+  public InputStream stream(T value) {
+    return new StreamingInputStream(value);
+  }
+
+  @Override
+  public T parse(InputStream stream) {
+    throw new UnsupportedOperationException("Streaming marshaller is request only");
+  }
+
+  /** @return the size of a length-delimited field with the given payload length */
+  static int lengthDelimitedSize(int fieldNumber, int length) {
+    return CodedOutputStream.computeTagSize(fieldNumber)
+        + CodedOutputStream.computeUInt32SizeNoTag(length)
+        + length;
+  }
+
+  static void writeLengthDelimitedTag(CodedOutputStream output, int fieldNumber, int length)
+      throws IOException {
+    output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    output.writeUInt32NoTag(length);
+  }
+
+  private class StreamingInputStream extends InputStream implements Drainable, KnownLength {
+    private T value;
+    private ByteArrayInputStream partial;
+
+    StreamingInputStream(T value) {
+      this.value = value;
+    }
+
+    @Override
+    public int drainTo(OutputStream target) throws IOException {
+      int written;
+      if (value != null) {
+        written = getSerializedSize(value);
+        CodedOutputStream output =
+            CodedOutputStream.newInstance(target, Math.max(1, Math.min(written, MAX_BUFFER_SIZE)));
+        writeTo(value, output);
+        output.flush();
+        value = null;
+      } else if (partial != null) {
+        written = partial.available();
+        byte[] remaining = new byte[written];
+        partial.read(remaining, 0, written);
+        target.write(remaining);
+        partial = null;
+      } else {
+        written = 0;
+      }
+      return written;
+    }
+
+    @Override
+    public int read() {
+      return buffered().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      return buffered().read(b, off, len);
+    }
+
+    @Override
+    public int available() {
+      if (value != null) {
+        return getSerializedSize(value);
+      }
+      return partial != null ? partial.available() : 0;
+    }
+
+    private ByteArrayInputStream buffered() {
+      if (value != null) {
+        byte[] bytes = new byte[getSerializedSize(value)];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+          writeTo(value, output);
+          output.checkNoSpaceLeft();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        partial = new ByteArrayInputStream(bytes);
+        value = null;
+      }
+      return partial != null ? partial : new ByteArrayInputStream(new byte[0]);
+    }
+  }
+}
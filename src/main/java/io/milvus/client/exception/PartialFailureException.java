@@ -0,0 +1,34 @@
+package io.milvus.client.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Thrown when chunks of a split request failed; the other chunks may have succeeded. */
+public class PartialFailureException extends MilvusException {
+  private final List<Long> failedIds;
+  private final int totalIds;
+  private final List<MilvusException> causes;
+
+  public PartialFailureException(String target, List<Long> failedIds, int totalIds, List<MilvusException> causes) {
+    super(target, false, null, causes.get(0));
+    this.failedIds = Collections.unmodifiableList(failedIds);
+    this.totalIds = totalIds;
+    this.causes = Collections.unmodifiableList(causes);
+  }
+
+  /** @return the ids of the failed chunks */
+  public List<Long> getFailedIds() {
+    return failedIds;
+  }
+
+  /** @return the error of each failed chunk */
+  public List<MilvusException> getCauses() {
+    return causes;
+  }
+
+  @Override
+  public String getErrorMessage() {
+    return String.format("PartialFailureException{failedIds=%d of %d, failedChunks=%d, firstError=%s}",
+        failedIds.size(), totalIds, causes.size(), causes.get(0).getMessage());
+  }
+}
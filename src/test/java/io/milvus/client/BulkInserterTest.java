@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.milvus.client.exception.ClientSideMilvusException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkInserterTest {
+  private final List<InsertParam> inserts = new CopyOnWriteArrayList<>();
+  private final List<SettableFuture<List<Long>>> responses = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  /** A client recording <code>insertAsync</code> calls, which complete when the test says so */
+  private final MilvusClient client = (MilvusClient) Proxy.newProxyInstance(
+      MilvusClient.class.getClassLoader(), new Class<?>[] {MilvusClient.class}, (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "insertAsync":
+            SettableFuture<List<Long>> response = SettableFuture.create();
+            inserts.add((InsertParam) args[0]);
+            responses.add(response);
+            return response;
+          case "target":
+            return "test";
+          default:
+            throw new UnsupportedOperationException(method.getName());
+        }
+      });
+
+  @AfterEach
+  void shutdownScheduler() {
+    scheduler.shutdownNow();
+  }
+
+  private static InsertParam insertParam(String collectionName, long... ids) {
+    return InsertParam.create(collectionName)
+        .addField("int64", ids)
+        .setEntityIds(ids);
+  }
+
+  private void respond(int index) {
+    List<Long> ids = LongStream.range(0, inserts.get(index).getRowCount()).boxed().collect(Collectors.toList());
+    responses.get(index).set(ids);
+  }
+
+  private void awaitInserts(int count) throws InterruptedException {
+    for (int i = 0; i < 500 && inserts.size() < count; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, inserts.size());
+  }
+
+  @Test
+  void sendsFullBatches() throws Exception {
+    BulkInserter inserter = new BulkInserter.Builder(client)
+        .withMaxBatchRows(3)
+        .withLinger(1, TimeUnit.HOURS)
+        .build();
+    ListenableFuture<List<Long>> first = inserter.insert(insertParam("collection", 1, 2));
+    ListenableFuture<List<Long>> second = inserter.insert(insertParam("collection", 3));
+    assertEquals(1, inserts.size());
+    assertEquals(3, inserts.get(0).getRowCount());
+    respond(0);
+    assertEquals(Arrays.asList(0L, 1L), first.get());
+    assertEquals(Arrays.asList(2L), second.get());
+    inserter.close();
+  }
+
+  @Test
+  void missingIdsFailBatchAndFreeSlot() throws Exception {
+    BulkInserter inserter = new BulkInserter.Builder(client)
+        .withMaxBatchRows(3)
+        .withMaxInFlight(1)
+        .withLinger(1, TimeUnit.HOURS)
+        .build();
+    ListenableFuture<List<Long>> first = inserter.insert(insertParam("collection", 1, 2));
+    ListenableFuture<List<Long>> second = inserter.insert(insertParam("collection", 3));
+    ListenableFuture<List<Long>> third = inserter.insert(insertParam("other", 4));
+    responses.get(0).set(Arrays.asList(0L));
+    ExecutionException e = assertThrows(ExecutionException.class, first::get);
+    assertTrue(e.getCause() instanceof ClientSideMilvusException);
+    assertThrows(ExecutionException.class, second::get);
+
+    inserter.flush();
+    assertEquals(2, inserts.size());
+    respond(1);
+    assertEquals(Arrays.asList(0L), third.get());
+    inserter.close();
+  }
+
+  @Test
+  void lingerSendsPartialBatch() throws Exception {
+    BulkInserter inserter = new BulkInserter.Builder(client)
+        .withMaxBatchRows(100)
+        .withLinger(10, TimeUnit.MILLISECONDS)
+        .withScheduler(scheduler)
+        .build();
+    ListenableFuture<List<Long>> ids = inserter.insert(insertParam("collection", 1));
+    awaitInserts(1);
+    respond(0);
+    assertEquals(Arrays.asList(0L), ids.get(5, TimeUnit.SECONDS));
+    inserter.close();
+  }
+
+  @Test
+  void lingerDoesNotBlockScheduler() throws Exception {
+    BulkInserter inserter = new BulkInserter.Builder(client)
+        .withMaxBatchRows(100)
+        .withMaxInFlight(1)
+        .withLinger(10, TimeUnit.MILLISECONDS)
+        .withScheduler(scheduler)
+        .build();
+    inserter.insert(insertParam("first", 1));
+    awaitInserts(1);
+    // lingers while the only slot is taken
+    inserter.insert(insertParam("second", 2));
+    Thread.sleep(50);
+    assertTrue(scheduler.submit(() -> true).get(1, TimeUnit.SECONDS));
+    assertEquals(1, inserts.size());
+
+    respond(0);
+    assertEquals(2, inserts.size());
+    respond(1);
+    inserter.close();
+  }
+
+  @Test
+  void backpressureBlocksProducer() throws Exception {
+    BulkInserter inserter = new BulkInserter.Builder(client)
+        .withMaxBatchRows(1)
+        .withMaxInFlight(1)
+        .withLinger(1, TimeUnit.HOURS)
+        .build();
+    inserter.insert(insertParam("collection", 1));
+    Thread producer = new Thread(() -> inserter.insert(insertParam("collection", 2)));
+    producer.start();
+    producer.join(100);
+    assertTrue(producer.isAlive());
+    assertEquals(1, inserts.size());
+
+    respond(0);
+    producer.join(5000);
+    assertFalse(producer.isAlive());
+    assertEquals(2, inserts.size());
+    respond(1);
+    inserter.close();
+  }
+
+  @Test
+  void flushWaitsForQueuedBatches() throws Exception {
+    BulkInserter inserter = new BulkInserter.Builder(client)
+        .withMaxBatchRows(1)
+        .withMaxInFlight(1)
+        .withLinger(1, TimeUnit.HOURS)
+        .build();
+    inserter.insert(insertParam("first", 1));
+    Thread producer = new Thread(() -> inserter.insert(insertParam("second", 2)));
+    producer.start();
+    producer.join(100);
+    // the batch of the blocked producer is queued but not sent
+    ListenableFuture<Void> flushed = inserter.flush();
+    assertFalse(flushed.isDone());
+
+    respond(0);
+    producer.join(5000);
+    assertFalse(flushed.isDone());
+    respond(1);
+    assertTrue(flushed.isDone());
+    inserter.close();
+  }
+}
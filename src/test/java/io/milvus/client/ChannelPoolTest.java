@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.milvus.grpc.MilvusServiceGrpc;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class ChannelPoolTest {
+  private final List<FakeChannel> channels = Arrays.asList(new FakeChannel(), new FakeChannel(), new FakeChannel());
+
+  private ChannelPool pool(ConnectParam.ChannelSelection selection, boolean pinInserts) {
+    return new ChannelPool(new ArrayList<>(channels), selection, pinInserts);
+  }
+
+  private static <ReqT, RespT> void start(ChannelPool pool, MethodDescriptor<ReqT, RespT> method) {
+    pool.newCall(method, CallOptions.DEFAULT).start(new ClientCall.Listener<RespT>() {}, new Metadata());
+  }
+
+  private int[] callCounts() {
+    return channels.stream().mapToInt(channel -> channel.calls.size()).toArray();
+  }
+
+  @Test
+  void roundRobin() {
+    ChannelPool pool = pool(ConnectParam.ChannelSelection.ROUND_ROBIN, false);
+    for (int i = 0; i < 6; i++) {
+      start(pool, MilvusServiceGrpc.getSearchMethod());
+    }
+    assertArrayEquals(new int[] {2, 2, 2}, callCounts());
+  }
+
+  @Test
+  void pinsInserts() {
+    ChannelPool pool = pool(ConnectParam.ChannelSelection.ROUND_ROBIN, true);
+    for (int i = 0; i < 4; i++) {
+      start(pool, MilvusServiceGrpc.getSearchMethod());
+      start(pool, MilvusServiceGrpc.getInsertMethod());
+    }
+    assertArrayEquals(new int[] {4, 2, 2}, callCounts());
+  }
+
+  @Test
+  void leastInFlight() {
+    ChannelPool pool = pool(ConnectParam.ChannelSelection.LEAST_IN_FLIGHT, false);
+    for (int i = 0; i < 3; i++) {
+      start(pool, MilvusServiceGrpc.getSearchMethod());
+    }
+    // complete the calls of all channels but the first
+    channels.get(1).closeAll();
+    channels.get(2).closeAll();
+    start(pool, MilvusServiceGrpc.getSearchMethod());
+    start(pool, MilvusServiceGrpc.getSearchMethod());
+    assertArrayEquals(new int[] {1, 2, 2}, callCounts());
+  }
+
+  /** Records the calls made on it, which stay in flight until closed. */
+  private static class FakeChannel extends ManagedChannel {
+    final List<ClientCall.Listener<?>> calls = new ArrayList<>();
+    int closed = 0;
+
+    void closeAll() {
+      for (; closed < calls.size(); closed++) {
+        calls.get(closed).onClose(Status.OK, new Metadata());
+      }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+      return new ClientCall<ReqT, RespT>() {
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+          calls.add(responseListener);
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+        }
+
+        @Override
+        public void halfClose() {
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+        }
+      };
+    }
+
+    @Override
+    public String authority() {
+      return "fake";
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+      return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return false;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+      return this;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.milvus.grpc.AttrRecord;
+import io.milvus.grpc.Entities;
+import io.milvus.grpc.FieldValue;
+import io.milvus.grpc.VectorRecord;
+import io.milvus.grpc.VectorRowRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarEntitiesTest {
+
+  // ids 1 and 3 are found, id 2 is not
+  private static ColumnarEntities entities() {
+    Entities response = Entities.newBuilder()
+        .addAllIds(Arrays.asList(1L, 2L, 3L))
+        .addAllValidRow(Arrays.asList(true, false, true))
+        .addFields(FieldValue.newBuilder()
+            .setFieldName("int64")
+            .setAttrRecord(AttrRecord.newBuilder().addAllInt64Value(Arrays.asList(10L, 30L))))
+        .addFields(FieldValue.newBuilder()
+            .setFieldName("vec")
+            .setVectorRecord(VectorRecord.newBuilder()
+                .addRecords(VectorRowRecord.newBuilder().addAllFloatData(Arrays.asList(1f, 2f)))
+                .addRecords(VectorRowRecord.newBuilder().addAllFloatData(Arrays.asList(5f, 6f)))))
+        .build();
+    return ColumnarEntities.of(Arrays.asList(1L, 2L, 3L), response);
+  }
+
+  @Test
+  void columnsAreIndexedByRequestedRow() {
+    ColumnarEntities entities = entities();
+    assertEquals(3, entities.size());
+    assertTrue(entities.isValid(0));
+    assertFalse(entities.isValid(1));
+    assertEquals(DataType.INT64, entities.getFieldType("int64"));
+    assertArrayEquals(new long[] {10, 0, 30}, entities.getInt64Column("int64"));
+    assertEquals(2, entities.getDimension("vec"));
+    assertArrayEquals(new float[] {1, 2, 0, 0, 5, 6}, entities.getFloatVectorColumn("vec"));
+    assertThrows(IllegalArgumentException.class, () -> entities.getFloatColumn("int64"));
+  }
+
+  @Test
+  void rowCursor() {
+    ColumnarEntities.Row row = entities().row();
+    assertEquals(30L, row.moveTo(2).getLong("int64"));
+    assertEquals(3L, row.getId());
+    assertEquals(6f, row.getFloatVector("vec").get(1));
+    float[] vector = new float[2];
+    row.moveTo(0).copyFloatVector("vec", vector);
+    assertArrayEquals(new float[] {1, 2}, vector);
+  }
+
+  @Test
+  void gatherRestoresRequestOrder() {
+    ColumnarEntities entities = entities();
+    ColumnarEntities gathered = ColumnarEntities.gather(6,
+        Arrays.asList(entities, entities), Arrays.asList(new int[] {0, 2, 4}, new int[] {1, 3, 5}));
+    assertArrayEquals(new long[] {10, 10, 0, 0, 30, 30}, gathered.getInt64Column("int64"));
+    assertEquals(3L, gathered.getId(5));
+    assertFalse(gathered.isValid(3));
+    assertTrue(gathered.isValid(4));
+  }
+
+  @Test
+  void gatherTakesVectorWidthFromPartWithValidRows() {
+    Entities noHits = Entities.newBuilder()
+        .addAllIds(Arrays.asList(7L, 8L))
+        .addAllValidRow(Arrays.asList(false, false))
+        .addFields(FieldValue.newBuilder()
+            .setFieldName("int64")
+            .setTypeValue(DataType.INT64.getVal()))
+        .addFields(FieldValue.newBuilder()
+            .setFieldName("vec")
+            .setTypeValue(DataType.VECTOR_FLOAT.getVal()))
+        .build();
+    ColumnarEntities empty = ColumnarEntities.of(Arrays.asList(7L, 8L), noHits);
+    assertEquals(0, empty.getDimension("vec"));
+    ColumnarEntities gathered = ColumnarEntities.gather(5,
+        Arrays.asList(empty, entities()), Arrays.asList(new int[] {0, 3}, new int[] {1, 2, 4}));
+    assertEquals(2, gathered.getDimension("vec"));
+    assertArrayEquals(new float[] {0, 0, 1, 2, 0, 0, 0, 0, 5, 6}, gathered.getFloatVectorColumn("vec"));
+    assertArrayEquals(new long[] {0, 10, 0, 0, 30}, gathered.getInt64Column("int64"));
+    assertEquals(8L, gathered.getId(3));
+  }
+
+  @Test
+  void emptySmallIntegerColumnsAreInt32() {
+    Entities noHits = Entities.newBuilder()
+        .addIds(7L)
+        .addValidRow(false)
+        .addFields(FieldValue.newBuilder()
+            .setFieldName("int8")
+            .setTypeValue(DataType.INT8.getVal()))
+        .build();
+    ColumnarEntities empty = ColumnarEntities.of(Arrays.asList(7L), noHits);
+    assertEquals(DataType.INT32, empty.getFieldType("int8"));
+    assertArrayEquals(new int[] {0}, empty.getInt32Column("int8"));
+  }
+}
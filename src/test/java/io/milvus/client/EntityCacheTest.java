@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntityCacheTest {
+  private final EntityCache entityCache = new EntityCache(10, TimeUnit.MINUTES.toNanos(1));
+  private final List<List<Long>> fetches = new ArrayList<>();
+
+  private Map<Long, Map<String, Object>> get(String collectionName, List<Long> ids, List<String> fieldNames) {
+    return Futures.getUnchecked(entityCache.get(collectionName, ids, fieldNames, missingIds -> {
+      fetches.add(missingIds);
+      return Futures.immediateFuture(entities(missingIds));
+    }));
+  }
+
+  // every id but 0 exists
+  private static Map<Long, Map<String, Object>> entities(List<Long> ids) {
+    Map<Long, Map<String, Object>> entities = new HashMap<>();
+    for (Long id : ids) {
+      if (id != 0) {
+        entities.put(id, Collections.singletonMap("int64", id));
+      }
+    }
+    return entities;
+  }
+
+  @Test
+  void fetchesOnlyMissingIds() {
+    get("a", Arrays.asList(1L, 2L), Collections.emptyList());
+    Map<Long, Map<String, Object>> entities = get("a", Arrays.asList(0L, 1L, 2L, 3L), Collections.emptyList());
+    assertEquals(3, entities.size());
+    assertEquals(3L, entities.get(3L).get("int64"));
+    assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(0L, 3L)), fetches);
+    assertEquals(2, entityCache.stats().hitCount());
+    assertEquals(4, entityCache.stats().missCount());
+  }
+
+  @Test
+  void cachesByCollectionAndFieldNames() {
+    get("a", Collections.singletonList(1L), Collections.emptyList());
+    get("a", Collections.singletonList(1L), Collections.singletonList("int64"));
+    get("b", Collections.singletonList(1L), Collections.emptyList());
+    get("a", Collections.singletonList(1L), Collections.singletonList("int64"));
+    assertEquals(3, fetches.size());
+  }
+
+  @Test
+  void invalidatesIdsAndCollections() {
+    get("a", Arrays.asList(1L, 2L), Collections.emptyList());
+    get("a", Arrays.asList(1L, 2L), Collections.singletonList("int64"));
+    get("b", Arrays.asList(1L, 2L), Collections.emptyList());
+    entityCache.invalidate("a", Collections.singletonList(1L));
+    get("a", Arrays.asList(1L, 2L), Collections.singletonList("int64"));
+    assertEquals(Collections.singletonList(1L), fetches.get(3));
+    entityCache.invalidate("b");
+    get("b", Arrays.asList(1L, 2L), Collections.emptyList());
+    assertEquals(Arrays.asList(1L, 2L), fetches.get(4));
+    get("b", Arrays.asList(1L, 2L), Collections.emptyList());
+    assertEquals(5, fetches.size());
+  }
+
+  @Test
+  void skipsFetchesInFlightDuringInvalidation() {
+    SettableFuture<Map<Long, Map<String, Object>>> inFlight = SettableFuture.create();
+    entityCache.get("a", Collections.singletonList(1L), Collections.emptyList(), missingIds -> inFlight);
+    entityCache.invalidate("a", Collections.singletonList(1L));
+    inFlight.set(entities(Collections.singletonList(1L)));
+    get("a", Collections.singletonList(1L), Collections.emptyList());
+    assertEquals(1, fetches.size());
+  }
+
+  @Test
+  void repeatedIdsHitCache() {
+    get("a", Arrays.asList(1L, 2L), Collections.emptyList());
+    Map<Long, Map<String, Object>> entities = get("a", Arrays.asList(1L, 1L, 2L), Collections.emptyList());
+    assertEquals(2, entities.size());
+    assertEquals(1, fetches.size());
+  }
+
+  @Test
+  void hitsDoNotShareBinaryVectors() {
+    Map<Long, Map<String, Object>> binaryEntities =
+        Collections.singletonMap(1L, Collections.singletonMap("binary", ByteBuffer.wrap(new byte[] {1, 2})));
+    ByteBuffer fetched = (ByteBuffer) Futures.getUnchecked(entityCache.get(
+        "a", Collections.singletonList(1L), Collections.emptyList(), missingIds -> Futures.immediateFuture(binaryEntities)))
+        .get(1L).get("binary");
+    // reading the fetched or a cached buffer does not move the position of later hits
+    fetched.get();
+    ByteBuffer first = (ByteBuffer) get("a", Collections.singletonList(1L), Collections.emptyList()).get(1L).get("binary");
+    first.get();
+    ByteBuffer second = (ByteBuffer) get("a", Collections.singletonList(1L), Collections.emptyList()).get(1L).get("binary");
+    assertEquals(2, second.remaining());
+    assertEquals(0, fetches.size());
+  }
+
+  @Test
+  void countsEvictions() {
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; id <= 20; id++) {
+      ids.add(id);
+    }
+    get("a", ids, Collections.emptyList());
+    assertEquals(10, entityCache.stats().evictionCount());
+  }
+}
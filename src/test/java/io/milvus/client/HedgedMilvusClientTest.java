@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedMilvusClientTest {
+  private static final SearchResult SEARCH_RESULT =
+      new SearchResult(0, 0, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+  private final SettableFuture<SearchResult> slowSearch = SettableFuture.create();
+
+  /** @return a client answering <code>searchAsync</code> only */
+  private static MilvusClient replica(Supplier<ListenableFuture<SearchResult>> search) {
+    return (MilvusClient) Proxy.newProxyInstance(
+        MilvusClient.class.getClassLoader(), new Class<?>[] {MilvusClient.class}, (proxy, method, args) -> {
+          if (method.getName().equals("searchAsync")) {
+            return search.get();
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  @Test
+  void hedgesSlowReplica() throws Exception {
+    HedgedMilvusClient client = new HedgedMilvusClient.Builder(Arrays.asList(
+        replica(() -> slowSearch), replica(() -> Futures.immediateFuture(SEARCH_RESULT))))
+        .withHedgeDelay(1, TimeUnit.MILLISECONDS)
+        .withMaxHedgeRatio(1)
+        .build();
+    assertSame(SEARCH_RESULT, client.searchAsync(SearchParam.create("collection")).get(5, TimeUnit.SECONDS));
+    // the loser is cancelled right after the winner's result is set
+    for (int i = 0; i < 100 && !slowSearch.isDone(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(slowSearch.isCancelled());
+  }
+
+  @Test
+  void budgetLimitsHedges() throws Exception {
+    HedgedMilvusClient client = new HedgedMilvusClient.Builder(Arrays.asList(
+        replica(() -> slowSearch), replica(() -> Futures.immediateFuture(SEARCH_RESULT))))
+        .withHedgeDelay(1, TimeUnit.MILLISECONDS)
+        .withMaxHedgeRatio(0)
+        .build();
+    ListenableFuture<SearchResult> searchResult = client.searchAsync(SearchParam.create("collection"));
+    Thread.sleep(50);
+    assertFalse(searchResult.isDone());
+    slowSearch.set(SEARCH_RESULT);
+    assertSame(SEARCH_RESULT, searchResult.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void failsSlowReplicaWithoutHedgeBudget() throws Exception {
+    HedgedMilvusClient client = new HedgedMilvusClient.Builder(Arrays.asList(
+        replica(() -> slowSearch), replica(() -> Futures.immediateFuture(SEARCH_RESULT))))
+        .withHedgeDelay(1, TimeUnit.MILLISECONDS)
+        .withMaxHedgeRatio(0)
+        .build();
+    ListenableFuture<SearchResult> searchResult = client.searchAsync(SearchParam.create("collection"));
+    // the hedge is declined for lack of budget before the slow replica fails
+    Thread.sleep(50);
+    IllegalStateException failure = new IllegalStateException("deadline exceeded");
+    slowSearch.setException(failure);
+    ExecutionException e = assertThrows(ExecutionException.class, () -> searchResult.get(5, TimeUnit.SECONDS));
+    assertSame(failure, e.getCause());
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.milvus.grpc.AttrRecord;
+import io.milvus.grpc.Entities;
+import io.milvus.grpc.ErrorCode;
+import io.milvus.grpc.FieldValue;
+import io.milvus.grpc.KeyValuePair;
+import io.milvus.grpc.QueryResult;
+import io.milvus.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdsOnlyQueryResultMarshallerTest {
+  private final IdsOnlyQueryResultMarshaller marshaller = new IdsOnlyQueryResultMarshaller();
+
+  @Test
+  void parsesAllButEntityFields() {
+    QueryResult queryResult = QueryResult.newBuilder()
+        .setStatus(Status.newBuilder().setErrorCode(ErrorCode.SUCCESS).setReason("ok"))
+        .setEntities(Entities.newBuilder()
+            .setStatus(Status.newBuilder().setReason("entities"))
+            .addAllIds(Arrays.asList(1L, -1L, 1L << 40))
+            .addAllValidRow(Arrays.asList(true, false, true))
+            .addFields(FieldValue.newBuilder()
+                .setFieldName("int64")
+                .setAttrRecord(AttrRecord.newBuilder().addAllInt64Value(Arrays.asList(1L, 2L, 3L)))))
+        .setRowNum(1)
+        .addAllScores(Arrays.asList(0.5f, 0.25f))
+        .addAllDistances(Arrays.asList(1f, 2f, 3f))
+        .addExtraParams(KeyValuePair.newBuilder().setKey("key").setValue("value"))
+        .build();
+    QueryResult expected = queryResult.toBuilder()
+        .setEntities(queryResult.getEntities().toBuilder().clearFields())
+        .build();
+    assertEquals(expected, marshaller.parse(marshaller.stream(queryResult)));
+  }
+
+  @Test
+  void parsesEmptyResult() {
+    assertEquals(QueryResult.getDefaultInstance(),
+        marshaller.parse(marshaller.stream(QueryResult.getDefaultInstance())));
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.io.ByteStreams;
+import io.grpc.Drainable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InsertParamTest {
+
+  private static InsertParam insertParam() {
+    return InsertParam.create("collection")
+        .addField("int32", new int[] {1, -2, 300})
+        .addField("int64", new long[] {1L << 40, -1, 0})
+        .addField("float", new float[] {1.5f, 2f, 3f})
+        .addField("double", DataType.DOUBLE, Arrays.asList(1.0, 2.0, 3.0))
+        .addVectorField("float_vec", new float[][] {{1, 2}, {3, 4}, {5, 6}})
+        .addVectorField("float_buf", FloatBuffer.wrap(new float[] {0, 1, 2, 3, 4, 5, 6}, 1, 6), 2)
+        .addVectorField("binary_vec", DataType.VECTOR_BINARY, Arrays.asList(
+            ByteBuffer.wrap(new byte[] {1, 2}),
+            ByteBuffer.wrap(new byte[] {0, 3, 4}, 1, 2),
+            ByteBuffer.allocate(0)))
+        .setEntityIds(new long[] {7, 8, 9})
+        .setPartitionTag("tag");
+  }
+
+  @Test
+  void drainMatchesProtobufEncoding() throws IOException {
+    InsertParam insertParam = insertParam();
+    byte[] expected = insertParam.grpc().toByteArray();
+
+    InputStream stream = InsertParam.MARSHALLER.stream(insertParam);
+    assertEquals(expected.length, stream.available());
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    assertEquals(expected.length, ((Drainable) stream).drainTo(output));
+    assertArrayEquals(expected, output.toByteArray());
+    assertEquals(0, stream.available());
+  }
+
+  @Test
+  void readMatchesProtobufEncoding() throws IOException {
+    InsertParam insertParam = insertParam();
+    byte[] expected = insertParam.grpc().toByteArray();
+    assertArrayEquals(expected, ByteStreams.toByteArray(InsertParam.MARSHALLER.stream(insertParam)));
+  }
+
+  @Test
+  void mergeConcatenatesColumns() throws IOException {
+    InsertParam merged = InsertParam.merge(Arrays.asList(insertParam(), insertParam()));
+    assertEquals(6, merged.getRowCount());
+
+    io.milvus.grpc.InsertParam single = insertParam().grpc();
+    io.milvus.grpc.InsertParam parsed =
+        io.milvus.grpc.InsertParam.parseFrom(InsertParam.MARSHALLER.stream(merged));
+    assertEquals(merged.grpc(), parsed);
+    assertEquals(6, parsed.getEntityIdArrayCount());
+    for (int i = 0; i < single.getFieldsCount(); i++) {
+      io.milvus.grpc.FieldValue field = parsed.getFields(i);
+      if (field.hasAttrRecord()) {
+        // merging protobuf messages concatenates their repeated fields
+        io.milvus.grpc.AttrRecord attrRecord = single.getFields(i).getAttrRecord();
+        assertEquals(attrRecord.toBuilder().mergeFrom(attrRecord).build(), field.getAttrRecord());
+      } else {
+        assertEquals(6, field.getVectorRecord().getRecordsCount());
+      }
+    }
+  }
+
+  @Test
+  void splitPartsMergeBack() throws IOException {
+    InsertParam insertParam = insertParam();
+    byte[] expected = insertParam.grpc().toByteArray();
+    assertEquals(1, insertParam.split(expected.length).size());
+
+    List<InsertParam> parts = insertParam.split(expected.length - 1);
+    assertEquals(2, parts.size());
+    assertEquals(2, parts.get(0).getRowCount());
+    assertEquals(1, parts.get(1).getRowCount());
+    assertEquals(3, insertParam.split(1).size());
+    assertArrayEquals(expected, InsertParam.merge(parts).grpc().toByteArray());
+  }
+
+  @Test
+  void parsesBack() throws IOException {
+    InsertParam insertParam = insertParam();
+    io.milvus.grpc.InsertParam parsed =
+        io.milvus.grpc.InsertParam.parseFrom(InsertParam.MARSHALLER.stream(insertParam));
+    assertEquals(insertParam.grpc(), parsed);
+    assertEquals(3, insertParam.getRowCount());
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.grpc.Attributes;
+import io.grpc.ClientStreamTracer;
+import io.grpc.LoadBalancer;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyAwareLoadBalancerTest {
+  private final LatencyAwareLoadBalancer.Endpoint a = new LatencyAwareLoadBalancer.Endpoint(new FakeSubchannel());
+  private final LatencyAwareLoadBalancer.Endpoint b = new LatencyAwareLoadBalancer.Endpoint(new FakeSubchannel());
+
+  private LatencyAwareLoadBalancer.Picker picker(ConnectParam.LoadBalancingPolicy policy) {
+    return new LatencyAwareLoadBalancer.Picker(Arrays.asList(a, b), policy);
+  }
+
+  @Test
+  void leastRequest() {
+    a.newTracer();
+    a.newTracer();
+    ClientStreamTracer tracer = b.newTracer();
+    for (int i = 0; i < 10; i++) {
+      assertSame(b, picker(ConnectParam.LoadBalancingPolicy.LEAST_REQUEST).pick());
+      assertSame(b, picker(ConnectParam.LoadBalancingPolicy.POWER_OF_TWO_CHOICES).pick());
+    }
+    tracer.streamClosed(Status.OK);
+    assertEquals(0, b.outstanding.get());
+  }
+
+  @Test
+  void peakEwma() {
+    long now = System.nanoTime();
+    a.observe(TimeUnit.MILLISECONDS.toNanos(50), now);
+    b.observe(TimeUnit.MILLISECONDS.toNanos(5), now);
+    for (int i = 0; i < 10; i++) {
+      assertSame(b, picker(ConnectParam.LoadBalancingPolicy.PEAK_EWMA).pick());
+    }
+    // a latency spike of b counts at once
+    b.observe(TimeUnit.MILLISECONDS.toNanos(100), now);
+    assertSame(a, picker(ConnectParam.LoadBalancingPolicy.PEAK_EWMA).pick());
+    // and decays as faster calls complete over time
+    b.observe(TimeUnit.MILLISECONDS.toNanos(5), now + TimeUnit.SECONDS.toNanos(30));
+    assertSame(b, picker(ConnectParam.LoadBalancingPolicy.PEAK_EWMA).pick());
+  }
+
+  @Test
+  void failedCallsArePenalized() {
+    b.newTracer().streamClosed(Status.UNAVAILABLE);
+    assertTrue(b.cost() >= TimeUnit.SECONDS.toNanos(1));
+    assertSame(a, picker(ConnectParam.LoadBalancingPolicy.PEAK_EWMA).pick());
+  }
+
+  @Test
+  void cancelledAndApplicationErrorsAreNotPenalized() {
+    b.newTracer().streamClosed(Status.CANCELLED);
+    b.newTracer().streamClosed(Status.NOT_FOUND);
+    assertTrue(b.cost() < TimeUnit.SECONDS.toNanos(1));
+    assertEquals(0, b.outstanding.get());
+  }
+
+  private static class FakeSubchannel extends LoadBalancer.Subchannel {
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public void requestConnection() {
+    }
+
+    @Override
+    public Attributes getAttributes() {
+      return Attributes.EMPTY;
+    }
+  }
+}
@@ -20,8 +20,8 @@
 package io.milvus.client;
 
 import com.google.common.collect.ImmutableSet;
-import io.grpc.NameResolverProvider;
-import io.grpc.NameResolverRegistry;
+import com.google.common.primitives.Floats;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.milvus.client.exception.ClientSideMilvusException;
@@ -37,7 +37,6 @@ import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
-import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -76,16 +75,16 @@ class ContainerMilvusClientTest extends MilvusClientTest {
     return connectParamBuilder(milvusContainer);
   }
 
+  private String staticTarget() {
+    return "static:///"
+        + milvusContainer.getHost() + ":" + milvusContainer.getFirstMappedPort() + ","
+        + milvusContainer2.getHost() + ":" + milvusContainer2.getFirstMappedPort();
+  }
+
   @org.junit.jupiter.api.Test
   void loadBalancing() {
-    NameResolverProvider testNameResolverProvider = new StaticNameResolverProvider(
-        new InetSocketAddress(milvusContainer.getHost(), milvusContainer.getFirstMappedPort()),
-        new InetSocketAddress(milvusContainer2.getHost(), milvusContainer2.getFirstMappedPort()));
-
-    NameResolverRegistry.getDefaultRegistry().register(testNameResolverProvider);
-
     ConnectParam connectParam = connectParamBuilder()
-        .withTarget(testNameResolverProvider.getDefaultScheme() + ":///test")
+        .withTarget(staticTarget())
         .build();
 
     MilvusClient loadBalancingClient = new MilvusGrpcClient(connectParam).withLogging();
@@ -93,6 +92,26 @@ class ContainerMilvusClientTest extends MilvusClientTest {
             .filter(i -> loadBalancingClient.hasCollection(randomCollectionName))
             .count());
   }
+
+  @org.junit.jupiter.api.Test
+  void latencyAwareLoadBalancing() {
+    for (ConnectParam.LoadBalancingPolicy policy : ConnectParam.LoadBalancingPolicy.values()) {
+      ConnectParam connectParam = connectParamBuilder()
+          .withTarget(staticTarget())
+          .withDefaultLoadBalancingPolicy(policy)
+          .build();
+      MilvusClient loadBalancingClient = new MilvusGrpcClient(connectParam);
+      try {
+        // the collection exists on one server only
+        long found = IntStream.range(0, 100)
+            .filter(i -> loadBalancingClient.hasCollection(randomCollectionName))
+            .count();
+        assertTrue(found > 0 || policy == ConnectParam.LoadBalancingPolicy.PICK_FIRST);
+      } finally {
+        loadBalancingClient.close();
+      }
+    }
+  }
 }
 
 @Testcontainers
@@ -272,6 +291,23 @@ class MilvusClientTest {
         });
   }
 
+  @org.junit.jupiter.api.Test
+  void transportOptions() {
+    ConnectParam connectParam = connectParamBuilder()
+        .withChannelCount(2)
+        .withChannelSelection(ConnectParam.ChannelSelection.LEAST_IN_FLIGHT)
+        .withDirectExecutor(true)
+        .withFlowControlWindow(4 * 1024 * 1024)
+        .withMaxInboundMessageSize(64 * 1024 * 1024)
+        .build();
+    MilvusGrpcClient tunedClient = new MilvusGrpcClient(connectParam);
+    try {
+      assertTrue(tunedClient.hasCollection(randomCollectionName));
+    } finally {
+      tunedClient.close();
+    }
+  }
+
   @org.junit.jupiter.api.Test
   void connectUnreachableHost() {
     ConnectParam connectParam = connectParamBuilder("250.250.250.250", 19530).build();
@@ -455,6 +491,69 @@ class MilvusClientTest {
     assertEquals(entityIds, client.insert(insertParam));
   }
 
+  @org.junit.jupiter.api.Test
+  void insertPrimitiveArrays() {
+    long[] intValues = new long[size];
+    float[] floatValues = new float[size];
+    float[] vectors = new float[size * dimension];
+    SplittableRandom random = new SplittableRandom();
+    for (int i = 0; i < size; i++) {
+      intValues[i] = i;
+      floatValues[i] = i;
+    }
+    for (int i = 0; i < vectors.length; i++) {
+      vectors[i] = (float) random.nextDouble();
+    }
+
+    List<Long> entityIds = LongStream.range(0, size).boxed().collect(Collectors.toList());
+    InsertParam insertParam = InsertParam
+        .create(randomCollectionName)
+        .addField("int64", intValues)
+        .addField("float", floatValues)
+        .addVectorField("float_vec", vectors, dimension)
+        .setEntityIds(LongStream.range(0, size).toArray());
+    assertEquals(entityIds, client.insert(insertParam));
+
+    client.flush(randomCollectionName);
+
+    Map<Long, Map<String, Object>> entities =
+        client.getEntityByID(randomCollectionName, entityIds.subList(0, 10));
+    for (int i = 0; i < 10; i++) {
+      List<Float> expected = new ArrayList<>(dimension);
+      for (int j = 0; j < dimension; j++) {
+        expected.add(vectors[i * dimension + j]);
+      }
+      assertEquals(expected, entities.get(entityIds.get(i)).get("float_vec"));
+    }
+  }
+
+  @org.junit.jupiter.api.Test
+  void bulkInsert() throws ExecutionException, InterruptedException {
+    List<List<Float>> vectors = generateFloatVectors(size, dimension);
+    List<ListenableFuture<List<Long>>> results = new ArrayList<>();
+    try (BulkInserter inserter = new BulkInserter.Builder(client)
+        .withMaxBatchRows(size / 10)
+        .withMaxInFlight(2)
+        .build()) {
+      for (int i = 0; i < size; i += 100) {
+        InsertParam insertParam = InsertParam
+            .create(randomCollectionName)
+            .addField("int64", LongStream.range(i, i + 100).toArray())
+            .addField("float", new float[100])
+            .addVectorField("float_vec", DataType.VECTOR_FLOAT, vectors.subList(i, i + 100))
+            .setEntityIds(LongStream.range(i, i + 100).toArray());
+        results.add(inserter.insert(insertParam));
+      }
+    }
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(LongStream.range(i * 100, i * 100 + 100).boxed().collect(Collectors.toList()),
+          results.get(i).get());
+    }
+
+    client.flush(randomCollectionName);
+    assertEquals(size, client.countEntities(randomCollectionName));
+  }
+
   @org.junit.jupiter.api.Test
   void insertBinary() {
     final int binaryDimension = 10000;
@@ -536,6 +635,185 @@ class MilvusClientTest {
     }
   }
 
+  @org.junit.jupiter.api.Test
+  void searchPB() {
+    List<List<Float>> vectors = generateFloatVectors(size, dimension).stream()
+        .map(MilvusClientTest::normalizeVector)
+        .collect(Collectors.toList());
+    float[][] vectorArrays = new float[size][];
+    long[] intValues = new long[size];
+    float[] floatValues = new float[size];
+    for (int i = 0; i < size; i++) {
+      vectorArrays[i] = Floats.toArray(vectors.get(i));
+      intValues[i] = i;
+      floatValues[i] = i;
+    }
+    InsertParam insertParam = InsertParam
+        .create(randomCollectionName)
+        .addField("int64", intValues)
+        .addField("float", floatValues)
+        .addVectorField("float_vec", vectorArrays)
+        .setEntityIds(intValues);
+    List<Long> entityIds = client.insert(insertParam);
+    client.flush(randomCollectionName);
+
+    final int searchSize = 5;
+    Query.VectorQuery vectorQuery = Query.vector("float_vec")
+        .setTopK(10)
+        .setParamsInJson(new JsonBuilder().param("nprobe", 20).build());
+    for (int i = 0; i < searchSize; i++) {
+      vectorQuery.addVector(vectorArrays[i]);
+    }
+    SearchPBParam searchPBParam = SearchPBParam
+        .create(randomCollectionName)
+        .setQuery(Query.must(Query.range("int64").gte(0).lt(size), vectorQuery))
+        .setResultFields(SearchParam.ResultFields.IDS_ONLY);
+    SearchResult searchResult = client.searchPB(searchPBParam);
+    assertEquals(searchSize, searchResult.getNumQueries());
+    for (int i = 0; i < searchSize; i++) {
+      assertEquals(entityIds.get(i).longValue(), searchResult.getId(i, 0));
+      assertTrue(Math.abs(searchResult.getDistance(i, 0)) < 0.001);
+    }
+  }
+
+  @org.junit.jupiter.api.Test
+  void preparedSearch() {
+    List<List<Float>> vectors = generateFloatVectors(size, dimension).stream()
+        .map(MilvusClientTest::normalizeVector)
+        .collect(Collectors.toList());
+    List<Long> entityIds = LongStream.range(0, size).boxed().collect(Collectors.toList());
+    InsertParam insertParam = InsertParam
+        .create(randomCollectionName)
+        .addField("int64", DataType.INT64, entityIds)
+        .addField("float", DataType.FLOAT, Collections.nCopies(size, 1f))
+        .addVectorField("float_vec", DataType.VECTOR_FLOAT, vectors)
+        .setEntityIds(entityIds);
+    client.insert(insertParam);
+    client.flush(randomCollectionName);
+
+    PreparedSearch preparedSearch = PreparedSearch.prepare(SearchParam
+        .create(randomCollectionName)
+        .setDsl(generateComplexDSL(10L, "[]")));
+    for (int i = 0; i < 3; i++) {
+      SearchResult searchResult = client.search(preparedSearch.bind(Floats.toArray(vectors.get(i))));
+      assertEquals(1, searchResult.getNumQueries());
+      assertEquals(entityIds.get(i).longValue(), searchResult.getId(0, 0));
+    }
+  }
+
+  @org.junit.jupiter.api.Test
+  void batchedSearch() throws Exception {
+    List<List<Float>> vectors = generateFloatVectors(size, dimension).stream()
+        .map(MilvusClientTest::normalizeVector)
+        .collect(Collectors.toList());
+    List<Long> entityIds = LongStream.range(0, size).boxed().collect(Collectors.toList());
+    client.insert(InsertParam
+        .create(randomCollectionName)
+        .addField("int64", DataType.INT64, entityIds)
+        .addField("float", DataType.FLOAT, Collections.nCopies(size, 1f))
+        .addVectorField("float_vec", DataType.VECTOR_FLOAT, vectors)
+        .setEntityIds(entityIds));
+    client.flush(randomCollectionName);
+
+    try (SearchBatcher batcher = new SearchBatcher.Builder(client)
+        .withMaxDelay(50, TimeUnit.MILLISECONDS)
+        .build()) {
+      List<ListenableFuture<SearchResult>> searchResults = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        searchResults.add(batcher.searchAsync(SearchParam
+            .create(randomCollectionName)
+            .setDsl(generateComplexDSL(10L, Collections.singletonList(vectors.get(i)).toString()))));
+      }
+      for (int i = 0; i < 5; i++) {
+        SearchResult searchResult = searchResults.get(i).get();
+        assertEquals(1, searchResult.getNumQueries());
+        assertEquals(entityIds.get(i).longValue(), searchResult.getId(0, 0));
+      }
+    }
+  }
+
+  @org.junit.jupiter.api.Test
+  void chunkedSearch() {
+    List<List<Float>> vectors = generateFloatVectors(size, dimension).stream()
+        .map(MilvusClientTest::normalizeVector)
+        .collect(Collectors.toList());
+    List<Long> entityIds = LongStream.range(0, size).boxed().collect(Collectors.toList());
+    client.insert(InsertParam
+        .create(randomCollectionName)
+        .addField("int64", DataType.INT64, entityIds)
+        .addField("float", DataType.FLOAT, Collections.nCopies(size, 1f))
+        .addVectorField("float_vec", DataType.VECTOR_FLOAT, vectors)
+        .setEntityIds(entityIds));
+    client.flush(randomCollectionName);
+
+    final int searchSize = 50;
+    SearchResult searchResult = client.search(SearchParam
+        .create(randomCollectionName)
+        .setDsl(generateComplexDSL(10L, vectors.subList(0, searchSize).toString()))
+        .setQueryChunkSize(7)
+        .setMaxConcurrentChunks(3));
+    assertEquals(searchSize, searchResult.getNumQueries());
+    for (int i = 0; i < searchSize; i++) {
+      assertEquals(entityIds.get(i).longValue(), searchResult.getId(i, 0));
+    }
+  }
+
+  @org.junit.jupiter.api.Test
+  void searchAndFetch() {
+    List<List<Float>> vectors = generateFloatVectors(size, dimension).stream()
+        .map(MilvusClientTest::normalizeVector)
+        .collect(Collectors.toList());
+    List<Long> entityIds = LongStream.range(0, size).boxed().collect(Collectors.toList());
+    client.insert(InsertParam
+        .create(randomCollectionName)
+        .addField("int64", DataType.INT64, entityIds)
+        .addField("float", DataType.FLOAT, Collections.nCopies(size, 1f))
+        .addVectorField("float_vec", DataType.VECTOR_FLOAT, vectors)
+        .setEntityIds(entityIds));
+    client.flush(randomCollectionName);
+
+    final int searchSize = 20;
+    SearchResult searchResult = client.searchAndFetch(SearchParam
+        .create(randomCollectionName)
+        .setDsl(generateComplexDSL(10L, vectors.subList(0, searchSize).toString()))
+        .setQueryChunkSize(5), Collections.singletonList("int64"));
+    assertEquals(searchSize, searchResult.getNumQueries());
+    for (int i = 0; i < searchSize; i++) {
+      assertEquals(entityIds.get(i).longValue(), searchResult.getId(i, 0));
+      assertEquals(entityIds.get(i), searchResult.getFieldsMap().get(i).get(0).get("int64"));
+    }
+  }
+
+  @org.junit.jupiter.api.Test
+  void searchInSegments() {
+    List<List<Float>> vectors = generateFloatVectors(size, dimension).stream()
+        .map(MilvusClientTest::normalizeVector)
+        .collect(Collectors.toList());
+    List<Long> entityIds = LongStream.range(0, size).boxed().collect(Collectors.toList());
+    client.insert(InsertParam
+        .create(randomCollectionName)
+        .addField("int64", DataType.INT64, entityIds)
+        .addField("float", DataType.FLOAT, Collections.nCopies(size, 1f))
+        .addVectorField("float_vec", DataType.VECTOR_FLOAT, vectors)
+        .setEntityIds(entityIds));
+    client.flush(randomCollectionName);
+
+    final int searchSize = 5;
+    SearchParam searchParam = SearchParam
+        .create(randomCollectionName)
+        .setDsl(generateComplexDSL(10L, vectors.subList(0, searchSize).toString()));
+    SearchResult searchResult = client.searchInSegments(SearchInSegmentParam.create(searchParam));
+    assertEquals(searchSize, searchResult.getNumQueries());
+    for (int i = 0; i < searchSize; i++) {
+      assertEquals(entityIds.get(i).longValue(), searchResult.getId(i, 0));
+    }
+
+    searchResult = client.searchInSegments(SearchInSegmentParam.create(searchParam)
+        .setSegmentIds(Collections.emptyList()));
+    assertEquals(searchSize, searchResult.getNumQueries());
+    assertEquals(0, searchResult.getResultCount(0));
+  }
+
   @org.junit.jupiter.api.Test
   void searchBinary() {
     final int binaryDimension = 64;
@@ -775,6 +1053,45 @@ class MilvusClientTest {
     assertEquals(size - 100, client.countEntities(randomCollectionName));
   }
 
+  @org.junit.jupiter.api.Test
+  void chunkedEntityByID() {
+    List<Long> entityIds = LongStream.range(0, size).boxed().collect(Collectors.toList());
+    client.insert(InsertParam
+        .create(randomCollectionName)
+        .addField("int64", DataType.INT64, entityIds)
+        .addField("float", DataType.FLOAT, Collections.nCopies(size, 1f))
+        .addVectorField("float_vec", DataType.VECTOR_FLOAT, generateFloatVectors(size, dimension))
+        .setEntityIds(entityIds));
+    client.flush(randomCollectionName);
+
+    ConnectParam connectParam = connectParamBuilder()
+        .withIdChunkSize(7)
+        .withMaxConcurrentIdChunks(3)
+        .build();
+    MilvusClient chunkingClient = new MilvusGrpcClient(connectParam);
+    try {
+      chunkingClient.deleteEntityByID(randomCollectionName, entityIds.subList(10, 60));
+      chunkingClient.flush(randomCollectionName);
+      assertEquals(size - 50, chunkingClient.countEntities(randomCollectionName));
+
+      List<Long> ids = entityIds.subList(0, 100);
+      Map<Long, Map<String, Object>> entities =
+          chunkingClient.getEntityByID(randomCollectionName, ids, Collections.singletonList("int64"));
+      assertEquals(50, entities.size());
+      assertEquals(99L, entities.get(99L).get("int64"));
+
+      ColumnarEntities columns =
+          chunkingClient.getEntityByIDColumnar(randomCollectionName, ids, Collections.singletonList("int64"));
+      long[] int64 = columns.getInt64Column("int64");
+      for (int i = 0; i < ids.size(); i++) {
+        assertEquals(i < 10 || i >= 60, columns.isValid(i));
+        assertEquals(columns.isValid(i) ? i : 0L, int64[i]);
+      }
+    } finally {
+      chunkingClient.close();
+    }
+  }
+
   @org.junit.jupiter.api.Test
   void flush() {
     client.flush(randomCollectionName);
@@ -785,6 +1102,27 @@ class MilvusClientTest {
     client.flushAsync(randomCollectionName);
   }
 
+  @org.junit.jupiter.api.Test
+  void asyncOperations() throws ExecutionException, InterruptedException {
+    List<Long> entityIds = LongStream.range(0, 10).boxed().collect(Collectors.toList());
+    client.insertAsync(InsertParam
+        .create(randomCollectionName)
+        .addField("int64", DataType.INT64, entityIds)
+        .addField("float", DataType.FLOAT, Collections.nCopies(10, 1f))
+        .addVectorField("float_vec", DataType.VECTOR_FLOAT, generateFloatVectors(10, dimension))
+        .setEntityIds(entityIds)).get();
+    client.flushAsync(randomCollectionName).get();
+
+    assertTrue(client.hasCollectionAsync(randomCollectionName).get());
+    assertEquals(10L, client.countEntitiesAsync(randomCollectionName).get().longValue());
+    assertTrue(client.listCollectionsAsync().get().contains(randomCollectionName));
+    assertEquals(2, client.getEntityByIDAsync(randomCollectionName, entityIds.subList(0, 2)).get().size());
+
+    client.deleteEntityByIDAsync(randomCollectionName, entityIds.subList(0, 2)).get();
+    client.flushAsync(randomCollectionName).get();
+    assertEquals(8L, client.countEntitiesAsync(randomCollectionName).get().longValue());
+  }
+
   @org.junit.jupiter.api.Test
   void compact() {
     List<Long> intValues = new ArrayList<>(size);
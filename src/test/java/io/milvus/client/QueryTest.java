@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.milvus.grpc.GeneralQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryTest {
+
+  @Test
+  void booleanQueryBuildsChildrenChangedAfterAdding() {
+    Query.VectorQuery vectorQuery = Query.vector("float_vec").setTopK(10);
+    Query.BooleanQuery query = Query.must(Query.term("age", 20, 30), vectorQuery);
+    vectorQuery.addVector(new float[] {1, 2}).addVectors(new float[] {3, 4, 5, 6}, 2);
+
+    GeneralQuery grpc = query.grpc();
+    io.milvus.grpc.VectorQuery vector = grpc.getBooleanQuery().getGeneralQuery(1).getVectorQuery();
+    assertEquals(3, vector.getRecordsCount());
+    assertEquals(Arrays.asList(3f, 4f), vector.getRecords(1).getFloatDataList());
+    assertEquals(2, grpc.getBooleanQuery().getGeneralQuery(0).getTermQuery().getValueNum());
+  }
+
+  @Test
+  void termQueryCountsValuesOfBothTypes() {
+    Query.TermQuery query = Query.term("age", 20, 30).addValues(1.5);
+    assertEquals(3, query.grpc().getTermQuery().getValueNum());
+    assertEquals(3, query.grpc().getTermQuery().getValueNum());
+    assertEquals(Arrays.asList(20L, 30L), query.grpc().getTermQuery().getIntValueList());
+  }
+}
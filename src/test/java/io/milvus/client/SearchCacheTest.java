@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchCacheTest {
+  private static final ByteString REQUEST = ByteString.copyFromUtf8("request");
+
+  private final SearchCache searchCache = new SearchCache(10, TimeUnit.MINUTES.toNanos(1));
+  private final AtomicInteger searches = new AtomicInteger();
+
+  private SearchResult search(String collectionName) {
+    return Futures.getUnchecked(searchCache.get(new SearchCache.Key(collectionName, "Search", REQUEST), () -> {
+      searches.incrementAndGet();
+      return Futures.immediateFuture(newSearchResult());
+    }));
+  }
+
+  private static SearchResult newSearchResult() {
+    return new SearchResult(0, 0, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+  }
+
+  @Test
+  void cachesByCollectionAndRequest() {
+    SearchResult searchResult = search("a");
+    assertSame(searchResult, search("a"));
+    assertEquals(1, searches.get());
+    search("b");
+    assertEquals(2, searches.get());
+  }
+
+  @Test
+  void invalidatesCollection() {
+    search("a");
+    search("b");
+    searchCache.invalidate("a");
+    search("a");
+    search("b");
+    assertEquals(3, searches.get());
+  }
+
+  @Test
+  void forgetsDroppedCollection() {
+    SettableFuture<SearchResult> inFlight = SettableFuture.create();
+    searchCache.get(new SearchCache.Key("a", "Search", REQUEST), () -> inFlight);
+    searchCache.forget("a");
+    inFlight.set(newSearchResult());
+    search("a");
+    search("a");
+    assertEquals(1, searches.get());
+  }
+
+  @Test
+  void recreatedCollectionDoesNotSeeOldEntries() {
+    search("a");
+    searchCache.forget("a");
+    search("a");
+    search("a");
+    assertEquals(2, searches.get());
+  }
+
+  @Test
+  void skipsSearchesInFlightDuringInvalidation() {
+    SettableFuture<SearchResult> inFlight = SettableFuture.create();
+    searchCache.get(new SearchCache.Key("a", "Search", REQUEST), () -> inFlight);
+    searchCache.invalidate("a");
+    inFlight.set(newSearchResult());
+    search("a");
+    assertEquals(1, searches.get());
+  }
+
+  @Test
+  void sharesReadOnlyFields() {
+    List<List<Map<String, Object>>> fieldsMap = new ArrayList<>();
+    fieldsMap.add(new ArrayList<>(Collections.singletonList(new HashMap<>(Collections.singletonMap("int64", 1L)))));
+    SearchResult searched = new SearchResult(1, 1, Collections.singletonList(Collections.singletonList(1L)),
+        Collections.singletonList(Collections.singletonList(0f)), fieldsMap);
+    SearchResult searchResult = Futures.getUnchecked(searchCache.get(
+        new SearchCache.Key("a", "Search", REQUEST), () -> Futures.immediateFuture(searched)));
+    assertEquals(1L, searchResult.getFieldsMap().get(0).get(0).get("int64"));
+    assertThrows(UnsupportedOperationException.class, () -> searchResult.getFieldsMap().get(0).get(0).put("int64", 2L));
+    assertThrows(UnsupportedOperationException.class, () -> searchResult.getFieldsMap().get(0).clear());
+    assertSame(searchResult, search("a"));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.milvus.grpc.AttrRecord;
+import io.milvus.grpc.FieldValue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchResultTest {
+
+  private static SearchResult searchResult() {
+    return new SearchResult(3, 2,
+        Arrays.asList(Arrays.asList(10L, 11L), Collections.emptyList(), Collections.singletonList(30L)),
+        Arrays.asList(Arrays.asList(0.5f, 0.75f), Collections.emptyList(), Collections.singletonList(1f)),
+        Collections.emptyList());
+  }
+
+  @Test
+  void primitiveAccessors() {
+    SearchResult searchResult = searchResult();
+    assertEquals(2, searchResult.getResultCount(0));
+    assertEquals(0, searchResult.getResultCount(1));
+    assertEquals(11L, searchResult.getId(0, 1));
+    assertEquals(1f, searchResult.getDistance(2, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> searchResult.getId(1, 0));
+
+    LongBuffer ids = searchResult.idsOf(2);
+    assertEquals(1, ids.remaining());
+    assertEquals(30L, ids.get(0));
+    assertEquals(0, searchResult.idsOf(1).remaining());
+  }
+
+  @Test
+  void listViews() {
+    SearchResult searchResult = searchResult();
+    assertEquals(Arrays.asList(Arrays.asList(10L, 11L), Collections.emptyList(), Collections.singletonList(30L)),
+        searchResult.getResultIdsList());
+    assertEquals(Arrays.asList(0.5f, 0.75f), searchResult.getResultDistancesList().get(0));
+    assertEquals(30L, searchResult.getQueryResultsList().get(2).get(0).getEntityId());
+    assertEquals(0, searchResult.getQueryResultsList().get(1).size());
+  }
+
+  @Test
+  void fieldsByColumn() {
+    // two queries with topK 2, the second has one result
+    FieldValue age = FieldValue.newBuilder()
+        .setFieldName("age")
+        .setAttrRecord(AttrRecord.newBuilder().addAllInt32Value(Arrays.asList(20, 21, 22, 0)))
+        .build();
+    for (boolean lazy : new boolean[] {false, true}) {
+      SearchResult searchResult = new SearchResult(2, 2, new long[] {1, 2, 3}, new float[] {0f, 1f, 2f},
+          new int[] {0, 2, 3}, Collections.singletonList(age), lazy);
+      assertEquals(Collections.singletonList("age"), searchResult.getFieldNames());
+      assertEquals(22, searchResult.getFieldValue(1, 0, "age"));
+      assertNull(searchResult.getFieldValue(0, 0, "name"));
+      assertEquals(21, searchResult.getFieldsMap().get(0).get(1).get("age"));
+      assertEquals(1, searchResult.getFieldsMap().get(1).size());
+    }
+  }
+
+  @Test
+  void sliceKeepsQueryRows() {
+    FieldValue age = FieldValue.newBuilder()
+        .setFieldName("age")
+        .setAttrRecord(AttrRecord.newBuilder().addAllInt32Value(Arrays.asList(20, 21, 22, 0)))
+        .build();
+    for (boolean lazy : new boolean[] {false, true}) {
+      SearchResult slice = new SearchResult(2, 2, new long[] {1, 2, 3}, new float[] {0f, 1f, 2f},
+          new int[] {0, 2, 3}, Collections.singletonList(age), lazy).slice(1, 2);
+      assertEquals(1, slice.getNumQueries());
+      assertEquals(3L, slice.getId(0, 0));
+      assertEquals(Collections.singletonList(3L), slice.getResultIdsList().get(0));
+      assertEquals(22, slice.getFieldValue(0, 0, "age"));
+      assertEquals(22, slice.getFieldsMap().get(0).get(0).get("age"));
+    }
+  }
+
+  @Test
+  void mergeKeepsBestTopK() {
+    SearchResult first = new SearchResult(2, 2,
+        Arrays.asList(Arrays.asList(1L, 2L), Collections.singletonList(5L)),
+        Arrays.asList(Arrays.asList(0.1f, 0.4f), Collections.singletonList(0.9f)),
+        Collections.emptyList());
+    SearchResult second = new SearchResult(2, 2,
+        Arrays.asList(Arrays.asList(3L, 4L), Collections.emptyList()),
+        Arrays.asList(Arrays.asList(0.2f, 0.3f), Collections.emptyList()),
+        Collections.emptyList());
+
+    SearchResult ascending = SearchResult.merge(Arrays.asList(first, second), false);
+    assertEquals(Arrays.asList(Arrays.asList(1L, 3L), Collections.singletonList(5L)),
+        ascending.getResultIdsList());
+    assertEquals(Arrays.asList(0.1f, 0.2f), ascending.getResultDistancesList().get(0));
+
+    assertEquals(Collections.emptyMap(), ascending.getFieldsMap().get(0).get(1));
+    assertFalse(SearchResult.isDescending(Arrays.asList(first, second)));
+  }
+
+  @Test
+  void mergeDescending() {
+    SearchResult first = new SearchResult(1, 2,
+        Collections.singletonList(Arrays.asList(1L, 2L)),
+        Collections.singletonList(Arrays.asList(0.9f, 0.5f)),
+        Collections.emptyList());
+    SearchResult second = new SearchResult(1, 2,
+        Collections.singletonList(Arrays.asList(3L, 4L)),
+        Collections.singletonList(Arrays.asList(0.7f, 0.6f)),
+        Collections.emptyList());
+    assertTrue(SearchResult.isDescending(Arrays.asList(first, second)));
+    SearchResult merged = SearchResult.merge(Arrays.asList(first, second), true);
+    assertEquals(Arrays.asList(1L, 3L), merged.getResultIdsList().get(0));
+  }
+}
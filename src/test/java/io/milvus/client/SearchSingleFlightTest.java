@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchSingleFlightTest {
+  private static final SearchCache.Key KEY =
+      new SearchCache.Key("collection", "Search", ByteString.copyFromUtf8("request"));
+
+  private final SearchSingleFlight singleFlight = new SearchSingleFlight();
+  private final AtomicInteger searches = new AtomicInteger();
+  private final SettableFuture<SearchResult> search = SettableFuture.create();
+
+  private ListenableFuture<SearchResult> get() {
+    return singleFlight.get(KEY, () -> {
+      searches.incrementAndGet();
+      return search;
+    });
+  }
+
+  @Test
+  void sharesSearchInFlight() {
+    ListenableFuture<SearchResult> first = get();
+    ListenableFuture<SearchResult> second = get();
+    List<List<Map<String, Object>>> fieldsMap = new ArrayList<>();
+    fieldsMap.add(new ArrayList<>(Collections.singletonList(new HashMap<>(Collections.singletonMap("int64", 1L)))));
+    search.set(new SearchResult(1, 1, Collections.singletonList(Collections.singletonList(1L)),
+        Collections.singletonList(Collections.singletonList(0f)), fieldsMap));
+    SearchResult searchResult = Futures.getUnchecked(first);
+    assertSame(searchResult, Futures.getUnchecked(second));
+    assertEquals(1L, searchResult.getFieldsMap().get(0).get(0).get("int64"));
+    assertThrows(UnsupportedOperationException.class, () -> searchResult.getFieldsMap().get(0).get(0).put("int64", 2L));
+    assertEquals(1, searches.get());
+
+    get();
+    assertEquals(2, searches.get());
+  }
+
+  @Test
+  void cancelsSearchWhenAllCallersCancel() {
+    ListenableFuture<SearchResult> first = get();
+    ListenableFuture<SearchResult> second = get();
+    first.cancel(true);
+    assertFalse(search.isCancelled());
+    assertFalse(second.isDone());
+    second.cancel(true);
+    assertTrue(search.isCancelled());
+  }
+}
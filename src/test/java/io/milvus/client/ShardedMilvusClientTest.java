@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardedMilvusClientTest {
+  private final List<List<Long>> insertedIds = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+
+  /** @return a client answering <code>insertAsync</code> only, with the ids it was given */
+  private MilvusClient shard(int index) {
+    return (MilvusClient) Proxy.newProxyInstance(
+        MilvusClient.class.getClassLoader(), new Class<?>[] {MilvusClient.class}, (proxy, method, args) -> {
+          if (method.getName().equals("insertAsync")) {
+            List<Long> ids = new ArrayList<>();
+            for (long id : ((InsertParam) args[0]).getEntityIds()) {
+              ids.add(id);
+            }
+            insertedIds.get(index).addAll(ids);
+            return Futures.immediateFuture(ids);
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  @Test
+  void insertPlacesEntitiesByIdAndKeepsOrder() {
+    ShardedMilvusClient client = new ShardedMilvusClient(Arrays.asList(shard(0), shard(1)));
+    long[] ids = {1, 2, 3, 4, 5, 6, 7, 8};
+    List<Long> inserted = client.insert(InsertParam.create("collection").addField("int64", ids).setEntityIds(ids));
+    assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), inserted);
+    for (int shard = 0; shard < 2; shard++) {
+      for (long id : insertedIds.get(shard)) {
+        assertEquals(shard, client.shardOf(id));
+      }
+    }
+  }
+
+  @Test
+  void insertWithoutIdsIsRejected() {
+    ShardedMilvusClient client = new ShardedMilvusClient(Arrays.asList(shard(0), shard(1)));
+    assertThrows(IllegalArgumentException.class,
+        () -> client.insertAsync(InsertParam.create("collection").addField("int64", new long[] {1, 2})));
+  }
+
+  @Test
+  void searchInNamedSegmentsIsRejected() {
+    ShardedMilvusClient client = new ShardedMilvusClient(Arrays.asList(shard(0), shard(1)));
+    SearchInSegmentParam searchInSegmentParam = SearchInSegmentParam
+        .create(SearchParam.create("collection"))
+        .setSegmentIds(Arrays.asList(1L, 2L));
+    assertThrows(IllegalArgumentException.class, () -> client.searchInSegmentsAsync(searchInSegmentParam));
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.milvus.client;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaticNameResolverProviderTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final StaticNameResolverProvider provider = new StaticNameResolverProvider.Builder()
+      .withRecoveryThreshold(2)
+      .withEjectionTime(10, 25, TimeUnit.SECONDS)
+      .build();
+  private final StaticNameResolverProvider.Server server =
+      provider.new Server(InetSocketAddress.createUnresolved("localhost", 19530), null);
+
+  private void readmit(long nowNanos) {
+    server.recordProbe(true, SECOND);
+    server.recordProbe(true, SECOND);
+    server.tryReadmit(nowNanos, false);
+    assertFalse(server.isEjected());
+  }
+
+  @Test
+  void readmitsAfterEjectionTimeAndSuccesses() {
+    server.eject(0);
+    assertTrue(server.isEjected());
+
+    server.recordProbe(true, SECOND);
+    server.recordProbe(true, SECOND);
+    server.tryReadmit(9 * SECOND, false);
+    assertTrue(server.isEjected());
+
+    server.recordProbe(false, SECOND);
+    server.recordProbe(true, SECOND);
+    server.tryReadmit(10 * SECOND, false);
+    assertTrue(server.isEjected());
+
+    server.recordProbe(true, SECOND);
+    server.tryReadmit(10 * SECOND, true);
+    assertTrue(server.isEjected());
+    server.tryReadmit(10 * SECOND, false);
+    assertFalse(server.isEjected());
+  }
+
+  @Test
+  void backsOffRepeatedEjections() {
+    server.eject(0);
+    assertEquals(10 * SECOND, server.ejectedUntilNanos);
+    readmit(10 * SECOND);
+    server.eject(11 * SECOND);
+    assertEquals(31 * SECOND, server.ejectedUntilNanos);
+    readmit(31 * SECOND);
+    server.eject(32 * SECOND);
+    assertEquals(57 * SECOND, server.ejectedUntilNanos);
+  }
+
+  @Test
+  void forgetsEjectionsOnceHealthy() {
+    server.eject(0);
+    readmit(10 * SECOND);
+    server.settle(20 * SECOND);
+    assertEquals(1, server.ejections);
+    server.settle(35 * SECOND);
+    assertEquals(0, server.ejections);
+  }
+
+  @Test
+  void averagesLatency() {
+    server.recordProbe(true, 10 * SECOND);
+    assertEquals(10 * SECOND, server.latencyNanos);
+    server.recordProbe(true, 0);
+    assertEquals(7 * SECOND, server.latencyNanos);
+    server.recordProbe(false, 100 * SECOND);
+    assertEquals(7 * SECOND, server.latencyNanos);
+    assertEquals(1, server.failures);
+  }
+
+  private NameResolver newResolver(String target) {
+    NameResolver.Args args = NameResolver.Args.newBuilder()
+        .setDefaultPort(80)
+        .setProxyDetector(address -> null)
+        .setSynchronizationContext(new SynchronizationContext((thread, e) -> { }))
+        .setServiceConfigParser(new NameResolver.ServiceConfigParser() {
+          @Override
+          public NameResolver.ConfigOrError parseServiceConfig(Map<String, ?> rawServiceConfig) {
+            return null;
+          }
+        })
+        .build();
+    return provider.newNameResolver(URI.create(target), args);
+  }
+
+  private static List<EquivalentAddressGroup> start(NameResolver resolver) {
+    List<EquivalentAddressGroup> addresses = new ArrayList<>();
+    resolver.start(new NameResolver.Listener2() {
+      @Override
+      public void onResult(NameResolver.ResolutionResult resolutionResult) {
+        addresses.addAll(resolutionResult.getAddresses());
+      }
+
+      @Override
+      public void onError(Status error) {
+      }
+    });
+    return addresses;
+  }
+
+  @Test
+  void resolversOfTargetShareProbes() {
+    NameResolver first = newResolver("static:///localhost,localhost:19531");
+    NameResolver second = newResolver("static:///localhost,localhost:19531");
+    List<EquivalentAddressGroup> addresses = start(first);
+    start(second);
+    assertEquals(1, provider.probesByTarget.size());
+    assertEquals(19530, ((InetSocketAddress) addresses.get(0).getAddresses().get(0)).getPort());
+    assertEquals(19531, ((InetSocketAddress) addresses.get(1).getAddresses().get(0)).getPort());
+
+    first.shutdown();
+    assertEquals(1, provider.probesByTarget.size());
+    second.shutdown();
+    assertTrue(provider.probesByTarget.isEmpty());
+  }
+
+  @Test
+  void validatesOptions() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new StaticNameResolverProvider.Builder().withEjectionTime(10, 5, TimeUnit.SECONDS));
+    assertThrows(IllegalArgumentException.class,
+        () -> new StaticNameResolverProvider.Builder().withLatencySpike(1, 0, TimeUnit.SECONDS));
+    assertThrows(IllegalArgumentException.class,
+        () -> new StaticNameResolverProvider.Builder().withFailureThreshold(0));
+  }
+}